@@ -0,0 +1,52 @@
+package com.javaproject.expenses.jmh;
+
+import com.javaproject.expenses.dtos.TransactionDto;
+import com.javaproject.expenses.models.Category;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic in-memory data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static List<Transaction> transactions(int count) {
+        User user = User.builder().id(1L).name("Bench").email("bench@example.com").build();
+        List<Category> categories = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            categories.add(Category.builder().id(id).name("Category " + id).type(id <= 2 ? "INCOME" : "EXPENSE").build());
+        }
+
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(Transaction.builder()
+                    .id((long) i + 1)
+                    .user(user)
+                    .category(categories.get(i % categories.size()))
+                    .amount(BigDecimal.valueOf(1000 + i % 9000, 2))
+                    .description("Transaction " + i)
+                    .transactionDate(BASE.minusMinutes(i))
+                    .createdAt(BASE)
+                    .build());
+        }
+        return transactions;
+    }
+
+    static List<TransactionDto> dtos(int count) {
+        List<TransactionDto> dtos = new ArrayList<>(count);
+        for (Transaction t : transactions(count)) {
+            dtos.add(new TransactionDto(t.getId(), 1L, t.getCategory().getId(), t.getAmount(),
+                    t.getDescription(), t.getTransactionDate(), t.getCreatedAt()));
+        }
+        return dtos;
+    }
+}
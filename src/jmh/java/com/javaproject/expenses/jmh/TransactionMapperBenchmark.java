@@ -0,0 +1,52 @@
+package com.javaproject.expenses.jmh;
+
+import com.javaproject.expenses.dtos.TransactionDto;
+import com.javaproject.expenses.mappers.TransactionMapper;
+import com.javaproject.expenses.mappers.TransactionMapperImpl;
+import com.javaproject.expenses.models.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a page of transaction entities to DTOs, as the listing endpoints do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMapperBenchmark {
+
+    @Param({"50", "10000"})
+    int size;
+
+    private final TransactionMapper mapper = new TransactionMapperImpl();
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        transactions = Fixtures.transactions(size);
+    }
+
+    @Benchmark
+    public List<TransactionDto> toDtoList() {
+        List<TransactionDto> dtos = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            dtos.add(mapper.toDto(transaction));
+        }
+        return dtos;
+    }
+}
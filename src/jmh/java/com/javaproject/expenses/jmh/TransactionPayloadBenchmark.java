@@ -0,0 +1,80 @@
+package com.javaproject.expenses.jmh;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a create-transaction request body into a {@link TransactionRequest}.
+ * {@code mapPayload} is the former controller path: bind to {@code Map<String, Object>}, then
+ * {@code toString()} each value and parse it again. {@code typedPayload} binds the record directly,
+ * and {@code typedPayloadValidated} adds the bean validation the controller now runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionPayloadBenchmark {
+
+    private static final byte[] BODY =
+            "{\"categoryId\":8,\"amount\":1234.56,\"description\":\"Groceries\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader mapReader;
+    private ObjectReader typedReader;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
+        });
+        typedReader = objectMapper.readerFor(TransactionRequest.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    @Benchmark
+    public TransactionRequest mapPayload() throws Exception {
+        Map<String, Object> payload = mapReader.readValue(BODY);
+        return new TransactionRequest(
+                Long.valueOf(payload.get("categoryId").toString()),
+                new BigDecimal(payload.get("amount").toString()),
+                payload.get("description").toString(),
+                null
+        );
+    }
+
+    @Benchmark
+    public TransactionRequest typedPayload() throws Exception {
+        return typedReader.readValue(BODY);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TransactionRequest>> typedPayloadValidated() throws Exception {
+        TransactionRequest request = typedReader.readValue(BODY);
+        return validator.validate(request);
+    }
+}
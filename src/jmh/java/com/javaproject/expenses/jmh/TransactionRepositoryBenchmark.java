@@ -0,0 +1,90 @@
+package com.javaproject.expenses.jmh;
+
+import com.javaproject.expenses.ExpensesApplication;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.pagination.TransactionSort;
+import com.javaproject.expenses.repositories.TransactionRepository;
+import com.javaproject.expenses.repositories.TransactionSpecifications;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip cost of the repository calls behind the listing and single-read endpoints, against the
+ * PostgreSQL database from application.properties (start one locally first). Boots the application
+ * context without a web server and seeds one user with 1,000 transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRepositoryBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int PAGE_SIZE = 50;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Long userId;
+    private Long transactionId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ExpensesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        userId = context.getBean(UserRepository.class).save(User.builder()
+                .name("JMH Bench")
+                .email("jmh-bench-" + UUID.randomUUID() + "@example.com")
+                .password("not-a-real-hash")
+                .build()).getId();
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                SELECT ?, 8 + g % 10, 10 + g % 90, 'Seed ' || g, now() - g * interval '1 hour'
+                FROM generate_series(1, ?) g
+                """, userId, ROWS);
+        transactionId = jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM transactions WHERE user_id = ?", Long.class, userId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        context.close();
+    }
+
+    @Benchmark
+    public List<Transaction> firstPage() {
+        return transactionRepository.findBy(TransactionSpecifications.ownedBy(userId),
+                query -> query.sortBy(TransactionSort.DATE_DESC.toSort()).limit(PAGE_SIZE).all());
+    }
+
+    @Benchmark
+    public Optional<Transaction> findByIdAndUserId() {
+        return transactionRepository.findByIdAndUserId(transactionId, userId);
+    }
+}
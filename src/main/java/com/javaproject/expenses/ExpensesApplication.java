@@ -2,8 +2,12 @@ package com.javaproject.expenses;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
-@SpringBootApplication
+// Sign-in is handled by AuthController; no generated in-memory user is wanted
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
+@ConfigurationPropertiesScan
 public class ExpensesApplication {
     public static void main(String[] args) {
         SpringApplication.run(ExpensesApplication.class, args);
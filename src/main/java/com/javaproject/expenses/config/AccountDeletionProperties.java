@@ -0,0 +1,23 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for background account deletion.
+ *
+ * @param chunkSize number of transactions deleted and committed together; bounds lock time and undo per step
+ * @param lease how long a node keeps a job without finishing a chunk before other nodes may take it over;
+ *              nodes also look for such jobs this often
+ * @param retryBackoff how long a job waits after its first failed attempt; doubles with every further attempt
+ * @param maxRetryBackoff the longest a job waits between attempts
+ */
+@ConfigurationProperties(prefix = "expenses.account-deletion")
+public record AccountDeletionProperties(
+        @DefaultValue("5000") int chunkSize,
+        @DefaultValue("2m") Duration lease,
+        @DefaultValue("1m") Duration retryBackoff,
+        @DefaultValue("1h") Duration maxRetryBackoff
+) {
+}
@@ -0,0 +1,31 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for how signed-in users are remembered between requests.
+ *
+ * @param mode {@code session} keeps the principal in the HTTP session;
+ *             {@code token} issues signed bearer tokens and keeps no server-side state
+ * @param tokenSecret HMAC key shared by every node; required in token mode, at least 32 bytes
+ * @param tokenTtl how long an issued token stays valid
+ * @param tokenVersionTtl how long a user's token version is cached before it is re-read, which bounds
+ *                        how long a token survives a password or email change made on another node
+ * @param tokenVersionCacheSize maximum number of users whose token version is cached
+ */
+@ConfigurationProperties(prefix = "expenses.auth")
+public record AuthProperties(
+        @DefaultValue("session") Mode mode,
+        String tokenSecret,
+        @DefaultValue("1h") Duration tokenTtl,
+        @DefaultValue("5s") Duration tokenVersionTtl,
+        @DefaultValue("100000") int tokenVersionCacheSize
+) {
+
+    public enum Mode {
+        SESSION,
+        TOKEN
+    }
+}
@@ -0,0 +1,21 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the in-process per-user balance cache.
+ * Writes on this node adjust its entries; writes on other nodes drop them through the change feed's
+ * notifications. With {@code expenses.change-feed.notify-other-nodes=false}, or while a node's
+ * listener is reconnecting, a balance can be stale on other nodes for up to {@code ttl}.
+ *
+ * @param maxSize maximum number of users kept; the least recently used entry is evicted beyond it
+ * @param ttl how long an entry may be served before it is reloaded from the database
+ */
+@ConfigurationProperties(prefix = "expenses.balance-cache")
+public record BalanceCacheProperties(
+        @DefaultValue("10000") int maxSize,
+        @DefaultValue("10m") Duration ttl
+) {
+}
@@ -0,0 +1,15 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the transaction batch endpoint.
+ *
+ * @param maxOperations most operations accepted in one batch; a batch runs in a single database transaction
+ */
+@ConfigurationProperties(prefix = "expenses.batch")
+public record BatchProperties(
+        @DefaultValue("500") int maxOperations
+) {
+}
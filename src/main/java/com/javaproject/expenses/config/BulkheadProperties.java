@@ -0,0 +1,27 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the bulkheads that cap concurrent API requests per class.
+ * Their sum should not exceed the request threads ({@code server.tomcat.threads.max}, 200 by default).
+ *
+ * @param enabled whether requests are capped at all
+ * @param auth concurrent requests under {@code /api/auth/**}
+ * @param read concurrent GET, HEAD and OPTIONS requests
+ * @param write concurrent requests with other methods
+ * @param maxWait how long a request waits for a permit before it is refused
+ * @param retryAfter delay suggested to refused clients in the {@code Retry-After} header
+ */
+@ConfigurationProperties(prefix = "expenses.bulkheads")
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int auth,
+        @DefaultValue("100") int read,
+        @DefaultValue("80") int write,
+        @DefaultValue("50ms") Duration maxWait,
+        @DefaultValue("1s") Duration retryAfter
+) {
+}
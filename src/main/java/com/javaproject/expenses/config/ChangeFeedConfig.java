@@ -0,0 +1,44 @@
+package com.javaproject.expenses.config;
+
+import com.javaproject.expenses.feed.ChangeFeedHub;
+import com.javaproject.expenses.feed.PgChangeChannel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.concurrent.Executors;
+
+/**
+ * Wires the change feed: the in-process {@link ChangeFeedHub}, which writes to clients on
+ * virtual threads, and, unless {@code expenses.change-feed.notify-other-nodes} is off, the
+ * {@link PgChangeChannel} that carries events between nodes.
+ */
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean
+    ChangeFeedHub changeFeedHub(ChangeFeedProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        ChangeFeedHub hub = new ChangeFeedHub(properties.historySize(), properties.bufferSize(),
+                properties.maxUsers(), Executors.newVirtualThreadPerTaskExecutor());
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("expenses.change.feed.subscribers", hub, ChangeFeedHub::subscriberCount)
+                    .description("Open change-feed connections on this node")
+                    .register(registry);
+            FunctionCounter.builder("expenses.change.feed.slow.disconnects", hub, ChangeFeedHub::slowDisconnectCount)
+                    .description("Change-feed connections dropped for falling too far behind")
+                    .register(registry);
+        });
+        return hub;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "expenses.change-feed", name = "notify-other-nodes", havingValue = "true", matchIfMissing = true)
+    PgChangeChannel pgChangeChannel(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        return new PgChangeChannel(jdbcTemplate, dataSourceProperties);
+    }
+}
@@ -0,0 +1,26 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the server-sent-event change feed.
+ *
+ * @param bufferSize events queued per connection; a client further behind is disconnected and resumes
+ * @param historySize events kept per user for clients that reconnect with a Last-Event-ID
+ * @param maxUsers users whose history is kept while they have no open connection
+ * @param timeout how long a connection stays open before the client has to reconnect
+ * @param heartbeat how often idle connections get a comment, to keep proxies from closing them
+ * @param notifyOtherNodes whether events are sent to other nodes with Postgres LISTEN/NOTIFY
+ */
+@ConfigurationProperties(prefix = "expenses.change-feed")
+public record ChangeFeedProperties(
+        @DefaultValue("256") int bufferSize,
+        @DefaultValue("256") int historySize,
+        @DefaultValue("10000") int maxUsers,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("true") boolean notifyOtherNodes
+) {
+}
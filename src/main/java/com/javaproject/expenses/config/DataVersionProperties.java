@@ -0,0 +1,19 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the in-process cache of per-user data versions behind transaction ETags.
+ *
+ * @param maxSize maximum number of users kept; the least recently used entry is evicted beyond it
+ * @param ttl how long a version may be served before it is re-read, which bounds how long a write
+ *            made on another node can go unnoticed by this one
+ */
+@ConfigurationProperties(prefix = "expenses.data-version")
+public record DataVersionProperties(
+        @DefaultValue("100000") int maxSize,
+        @DefaultValue("2s") Duration ttl
+) {
+}
@@ -0,0 +1,34 @@
+package com.javaproject.expenses.config;
+
+import com.javaproject.expenses.datasource.ConcurrencyLimitingDataSource;
+import com.javaproject.expenses.datasource.DataSourceWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a {@link ConcurrencyLimitingDataSource}
+ * when {@code expenses.db-concurrency.permits} is positive. The limiter wraps the primary
+ * pool directly, beneath replica routing and statement counting.
+ */
+@Configuration
+public class DbConcurrencyConfig {
+
+    @Bean
+    static DataSourceWrapper dbConcurrencyLimiter(ObjectProvider<DbConcurrencyProperties> properties) {
+        return new DataSourceWrapper(DataSourceWrapper.CONCURRENCY_LIMIT) {
+            @Override
+            protected DataSource wrap(DataSource dataSource) {
+                if (dataSource instanceof ConcurrencyLimitingDataSource) {
+                    return dataSource;
+                }
+                DbConcurrencyProperties limits = properties.getObject();
+                if (limits.permits() <= 0) {
+                    return dataSource;
+                }
+                return new ConcurrencyLimitingDataSource(dataSource, limits.permits(), limits.acquireTimeout());
+            }
+        };
+    }
+}
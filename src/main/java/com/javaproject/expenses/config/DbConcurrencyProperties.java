@@ -0,0 +1,18 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the limit on concurrently held database connections.
+ *
+ * @param permits maximum number of connections checked out at once; 0 disables the limit
+ * @param acquireTimeout how long a caller waits for a permit before failing
+ */
+@ConfigurationProperties(prefix = "expenses.db-concurrency")
+public record DbConcurrencyProperties(
+        @DefaultValue("0") int permits,
+        @DefaultValue("5s") Duration acquireTimeout
+) {
+}
@@ -0,0 +1,17 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for bulk transaction import.
+ *
+ * @param chunkSize number of valid rows inserted and committed together
+ * @param maxReportedErrors maximum number of row errors listed in the response; all are counted
+ */
+@ConfigurationProperties(prefix = "expenses.import")
+public record ImportProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("100") int maxReportedErrors
+) {
+}
@@ -0,0 +1,27 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page size settings for cursor-paginated listings.
+ *
+ * @param defaultPageSize page size used when the client does not send a limit
+ * @param maxPageSize upper bound applied to any client-supplied limit
+ */
+@ConfigurationProperties(prefix = "expenses.pagination")
+public record PaginationProperties(
+        @DefaultValue("50") int defaultPageSize,
+        @DefaultValue("500") int maxPageSize
+) {
+
+    /**
+     * Resolves the effective page size for a request, clamping it to {@code [1, maxPageSize]}.
+     */
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+}
@@ -0,0 +1,20 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for the executor that runs password hashing and verification.
+ *
+ * @param poolSize number of threads hashing concurrently
+ * @param queueCapacity number of hashing tasks allowed to wait; further tasks are rejected
+ * @param retryAfter delay suggested to rejected clients in the {@code Retry-After} header
+ */
+@ConfigurationProperties(prefix = "expenses.password-hashing")
+public record PasswordHashingProperties(
+        @DefaultValue("4") int poolSize,
+        @DefaultValue("32") int queueCapacity,
+        @DefaultValue("1s") Duration retryAfter
+) {
+}
@@ -0,0 +1,39 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for the per-user rate limits of the API.
+ *
+ * @param enabled whether requests are rate-limited at all
+ * @param stripes number of lock stripes the buckets of a route are spread over
+ * @param maxKeys users or client addresses whose bucket a route remembers; the least recently seen are forgotten
+ * @param routes the rate-limited routes; a request is counted against the first one it matches only
+ */
+@ConfigurationProperties(prefix = "expenses.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("100000") int maxKeys,
+        @DefaultValue List<Route> routes
+) {
+
+    /**
+     * A rate-limited route.
+     *
+     * @param pattern path pattern, e.g. {@code /api/transactions/**}
+     * @param methods HTTP methods the limit applies to; all if empty
+     * @param capacity requests a user may make in a burst
+     * @param period time in which an exhausted bucket refills completely, {@code capacity} requests per period
+     */
+    public record Route(
+            String pattern,
+            @DefaultValue List<String> methods,
+            int capacity,
+            Duration period
+    ) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the scheduler of recurring transactions.
+ *
+ * @param claimSize number of due rules a node claims and locks at a time
+ * @param chunkSize maximum number of transactions created and committed together; a rule with
+ *                  more missed occurrences is caught up over several chunks
+ * @param maxBackfill most occurrences a new rule may have before now; a start further in the past is refused
+ */
+@ConfigurationProperties(prefix = "expenses.recurring")
+public record RecurringProperties(
+        @DefaultValue("100") int claimSize,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("1000") int maxBackfill
+) {
+}
@@ -0,0 +1,33 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for sending read-only transactions to read replicas.
+ *
+ * @param enabled whether reads are routed at all; without it every statement goes to the primary
+ * @param urls JDBC URLs of the replicas, used round-robin
+ * @param username replica user; defaults to {@code spring.datasource.username}
+ * @param password replica password; defaults to {@code spring.datasource.password}
+ * @param poolSize connections pooled per replica
+ * @param connectionTimeout how long to wait for a replica connection before reading from the primary instead
+ * @param readYourWritesWindow how long after committing a write a user keeps reading from the primary
+ * @param maxLag replicas further behind the primary than this are skipped
+ * @param lagCheckInterval how often every replica's lag is measured
+ */
+@ConfigurationProperties(prefix = "expenses.replicas")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("2s") Duration connectionTimeout,
+        @DefaultValue("5s") Duration readYourWritesWindow,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval
+) {
+}
@@ -0,0 +1,104 @@
+package com.javaproject.expenses.config;
+
+import com.javaproject.expenses.datasource.DataSourceWrapper;
+import com.javaproject.expenses.datasource.ReadWriteRoutingDataSource;
+import com.javaproject.expenses.datasource.ReadYourWritesTracker;
+import com.javaproject.expenses.datasource.ReplicaLagMonitor;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replicas in {@code expenses.replicas.urls}
+ * when {@code expenses.replicas.enabled} is set. The application data source becomes a
+ * {@link LazyConnectionDataSourceProxy} over a {@link ReadWriteRoutingDataSource} whose
+ * primary is the pool configured by {@code spring.datasource.*}, behind its concurrency limit if any.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "expenses.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    ReadYourWritesTracker readYourWritesTracker(ReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties.readYourWritesWindow());
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(
+            ReplicaProperties properties,
+            DataSourceProperties primary,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        List<String> urls = properties.urls();
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("expenses.replicas.urls is required when expenses.replicas.enabled is set");
+        }
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setUsername(properties.username() != null ? properties.username() : primary.getUsername());
+            replica.setPassword(properties.password() != null ? properties.password() : primary.getPassword());
+            replica.setMaximumPoolSize(properties.poolSize());
+            replica.setConnectionTimeout(properties.connectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            // Fail over to the primary rather than the startup when a replica is down
+            replica.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry ->
+                    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, properties.maxLag());
+        meterRegistry.ifAvailable(registry -> replicas.keySet().forEach(name ->
+                Gauge.builder("expenses.datasource.replica.lag", monitor, m -> m.lagSeconds(name))
+                        .description("Seconds the replica's replay is behind the primary; NaN while unreachable")
+                        .baseUnit("seconds")
+                        .tag("replica", name)
+                        .register(registry)));
+        monitor.start(properties.lagCheckInterval());
+        return monitor;
+    }
+
+    @Bean
+    static DataSourceWrapper readWriteRouting(
+            ObjectProvider<ReplicaLagMonitor> lagMonitor,
+            ObjectProvider<ReadYourWritesTracker> readYourWrites
+    ) {
+        return new DataSourceWrapper(DataSourceWrapper.REPLICA_ROUTING) {
+            @Override
+            protected DataSource wrap(DataSource dataSource) {
+                if (dataSource instanceof LazyConnectionDataSourceProxy) {
+                    return dataSource;
+                }
+                return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                        dataSource, lagMonitor.getObject(), readYourWrites.getObject(),
+                        ReplicaRoutingConfig::currentUserId));
+            }
+        };
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.id()
+                : null;
+    }
+}
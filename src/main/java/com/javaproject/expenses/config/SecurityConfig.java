@@ -1,32 +1,50 @@
 package com.javaproject.expenses.config;
 
-import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.RevokedUserFilter;
+import com.javaproject.expenses.security.TokenAuthenticationFilter;
+import com.javaproject.expenses.security.TokenService;
+import com.javaproject.expenses.security.TokenVersions;
+import com.javaproject.expenses.throttling.RequestThrottle;
+import com.javaproject.expenses.throttling.ThrottlingFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final UserRepository userRepository;
+    private final AuthProperties authProperties;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService, TokenVersions tokenVersions,
+                                           RequestThrottle requestThrottle) throws Exception {
+        if (authProperties.mode() == AuthProperties.Mode.TOKEN) {
+            // Every request authenticates itself; no session is created or read
+            http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new TokenAuthenticationFilter(tokenService, tokenVersions),
+                            UsernamePasswordAuthenticationFilter.class);
+        }
+
+        // Sign-ins of users being deleted stop working, in either mode and on every node
+        http.addFilterBefore(new RevokedUserFilter(tokenVersions), AuthorizationFilter.class);
+
+        // Rate limits and bulkheads apply once the user is known; requests authorization refuses take no token
+        http.addFilterAfter(new ThrottlingFilter(requestThrottle), AuthorizationFilter.class);
+
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll() // allow login/register
+                        .requestMatchers("/api/account-deletions/*").permitAll() // job ids are unguessable
                         .anyRequest().authenticated()               // everything else requires login
                 )
                 .exceptionHandling(ex -> ex
@@ -42,31 +60,8 @@ public class SecurityConfig {
         return http.build();
     }
 
-
-    @Bean
-    public UserDetailsService userDetailsService() {
-        return email -> userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
-    }
-
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(12);
     }
-
-    @Bean
-    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
-        return authentication -> {
-            String email = authentication.getName();
-            String password = authentication.getCredentials().toString();
-
-            var user = userDetailsService.loadUserByUsername(email);
-
-            if (!passwordEncoder.matches(password, user.getPassword())) {
-                throw new BadCredentialsException("Invalid credentials");
-            }
-
-            return new UsernamePasswordAuthenticationToken(user, password, user.getAuthorities());
-        };
-    }
 }
\ No newline at end of file
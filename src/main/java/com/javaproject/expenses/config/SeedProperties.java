@@ -0,0 +1,29 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.YearMonth;
+
+/**
+ * Settings for the synthetic data generator run by the {@code seed} profile.
+ * The same settings always produce the same users and transactions.
+ *
+ * @param users number of users to generate
+ * @param transactionsPerUser number of transactions generated for each user
+ * @param months number of months the transactions are spread over, ending with {@code lastMonth}
+ * @param lastMonth last month that receives transactions; fixed so that runs on different days agree
+ * @param randomSeed seed for every random choice
+ * @param emailPrefix generated users are {@code <prefix><n>@example.com}; existing ones are replaced
+ * @param password password of every generated user
+ */
+@ConfigurationProperties(prefix = "expenses.seed")
+public record SeedProperties(
+        @DefaultValue("100") int users,
+        @DefaultValue("1000") int transactionsPerUser,
+        @DefaultValue("24") int months,
+        @DefaultValue("2025-12") YearMonth lastMonth,
+        @DefaultValue("42") long randomSeed,
+        @DefaultValue("load-user-") String emailPrefix,
+        @DefaultValue("load-password") String password
+) {
+}
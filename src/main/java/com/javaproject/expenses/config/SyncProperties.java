@@ -0,0 +1,19 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import java.time.Duration;
+
+/**
+ * Settings for delta sync of transactions.
+ *
+ * @param tombstoneRetention how long sync tokens are honoured; tombstones of deleted transactions
+ *                           are kept a day longer, so a valid token never misses a delete
+ * @param compactionChunkSize number of tombstones deleted and committed together when compacting
+ */
+@ConfigurationProperties(prefix = "expenses.sync")
+public record SyncProperties(
+        @DefaultValue("30d") Duration tombstoneRetention,
+        @DefaultValue("10000") int compactionChunkSize
+) {
+}
@@ -0,0 +1,51 @@
+package com.javaproject.expenses.config;
+
+import com.javaproject.expenses.datasource.DataSourceWrapper;
+import com.javaproject.expenses.telemetry.SqlCountHeaderFilter;
+import com.javaproject.expenses.telemetry.SqlStatementCounter;
+import com.javaproject.expenses.telemetry.StatementCountingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import javax.sql.DataSource;
+
+/**
+ * Reports the SQL statement count of each request in a response header
+ * when {@code expenses.telemetry.sql-count-header} is set. Off by default, since counting
+ * puts a proxy in front of every connection.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "expenses.telemetry", name = "sql-count-header", havingValue = "true")
+public class TelemetryConfig {
+
+    @Bean
+    static DataSourceWrapper statementCountingDataSource() {
+        return new DataSourceWrapper(DataSourceWrapper.STATEMENT_COUNTING) {
+            @Override
+            protected DataSource wrap(DataSource dataSource) {
+                if (dataSource instanceof StatementCountingDataSource) {
+                    return dataSource;
+                }
+                return new StatementCountingDataSource(dataSource);
+            }
+        };
+    }
+
+    /**
+     * Carries the count into the application task executor, which runs streaming response bodies.
+     */
+    @Bean
+    TaskDecorator sqlStatementCounterPropagation() {
+        return SqlStatementCounter::propagate;
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlCountHeaderFilter> sqlCountHeaderFilter() {
+        FilterRegistrationBean<SqlCountHeaderFilter> registration = new FilterRegistrationBean<>(new SqlCountHeaderFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
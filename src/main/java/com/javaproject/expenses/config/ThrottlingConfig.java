@@ -0,0 +1,72 @@
+package com.javaproject.expenses.config;
+
+import com.javaproject.expenses.throttling.Bulkhead;
+import com.javaproject.expenses.throttling.RequestThrottle;
+import com.javaproject.expenses.throttling.TokenBucketLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the {@link RequestThrottle} applied by the security filter chain from the rate-limit
+ * routes and bulkhead sizes, and publishes their rejections and occupancy.
+ */
+@Configuration
+public class ThrottlingConfig {
+
+    @Bean
+    RequestThrottle requestThrottle(RateLimitProperties rateLimits, BulkheadProperties bulkheadProperties,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        List<RequestThrottle.Route> routes = new ArrayList<>();
+        if (rateLimits.enabled()) {
+            for (RateLimitProperties.Route route : rateLimits.routes()) {
+                routes.add(RequestThrottle.Route.of(route.pattern(), route.methods(), new TokenBucketLimiter(
+                        route.capacity(), route.period(), rateLimits.stripes(), rateLimits.maxKeys())));
+            }
+        }
+        Map<RequestThrottle.RequestClass, Bulkhead> bulkheads = new EnumMap<>(RequestThrottle.RequestClass.class);
+        if (bulkheadProperties.enabled()) {
+            bulkheads.put(RequestThrottle.RequestClass.AUTH,
+                    new Bulkhead(bulkheadProperties.auth(), bulkheadProperties.maxWait()));
+            bulkheads.put(RequestThrottle.RequestClass.READ,
+                    new Bulkhead(bulkheadProperties.read(), bulkheadProperties.maxWait()));
+            bulkheads.put(RequestThrottle.RequestClass.WRITE,
+                    new Bulkhead(bulkheadProperties.write(), bulkheadProperties.maxWait()));
+        }
+        RequestThrottle throttle = new RequestThrottle(routes, bulkheads, bulkheadProperties.retryAfter());
+
+        meterRegistry.ifAvailable(registry -> {
+            for (RequestThrottle.Route route : throttle.routes()) {
+                FunctionCounter.builder("expenses.rate.limit.rejections", route.limiter(),
+                                TokenBucketLimiter::rejectionCount)
+                        .description("Requests refused by a rate limit")
+                        .tag("route", route.name())
+                        .register(registry);
+                Gauge.builder("expenses.rate.limit.keys", route.limiter(), TokenBucketLimiter::trackedKeys)
+                        .description("Users or client addresses with a rate-limit bucket")
+                        .tag("route", route.name())
+                        .register(registry);
+            }
+            throttle.bulkheads().forEach((requestClass, bulkhead) -> {
+                String name = requestClass.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("expenses.bulkhead.active", bulkhead, Bulkhead::active)
+                        .description("Requests being processed within a bulkhead")
+                        .tag("class", name)
+                        .register(registry);
+                FunctionCounter.builder("expenses.bulkhead.rejections", bulkhead, Bulkhead::rejectionCount)
+                        .description("Requests refused because their bulkhead was full")
+                        .tag("class", name)
+                        .register(registry);
+            });
+        });
+        return throttle;
+    }
+}
@@ -0,0 +1,15 @@
+package com.javaproject.expenses.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the monthly partitions of the transactions table.
+ *
+ * @param monthsAhead number of months after the current one that must already have a partition
+ */
+@ConfigurationProperties(prefix = "expenses.partitions")
+public record TransactionPartitionProperties(
+        @DefaultValue("3") int monthsAhead
+) {
+}
@@ -0,0 +1,40 @@
+package com.javaproject.expenses.controllers;
+
+import com.javaproject.expenses.dtos.AccountDeletionJobDto;
+import com.javaproject.expenses.services.AccountDeletionService;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * REST Controller reporting the progress of account deletions.
+ * Needs no sign-in, since the account's sessions end when its deletion starts; the job id
+ * returned by {@code DELETE /api/users/me} is random and only known to its requester.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/account-deletions")
+public class AccountDeletionController {
+    private final AccountDeletionService accountDeletionService;
+
+    /**
+     * Retrieves the status of an account deletion job.
+     *
+     * @param id the job ID returned when the deletion was requested
+     * @return ResponseEntity containing the job status or error message
+     */
+    @QueryBudget(1)
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getDeletion(@PathVariable UUID id) {
+        Optional<AccountDeletionJobDto> job = accountDeletionService.find(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Deletion not found"));
+        }
+        return ResponseEntity.ok(job.get());
+    }
+}
@@ -0,0 +1,59 @@
+package com.javaproject.expenses.controllers;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.javaproject.expenses.services.CapacityExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Translates exceptions shared by several controllers into the API's error responses.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * Answers requests refused for lack of capacity with 429 and a {@code Retry-After} in whole seconds.
+     */
+    @ExceptionHandler(CapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleCapacityExceeded(CapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    /**
+     * Answers request bodies that fail bean validation with 400 and every field message, sorted by field name.
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidBody(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .sorted((a, b) -> a.getField().compareTo(b.getField()))
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest()
+                .body(Map.of("message", message.isEmpty() ? "Invalid request body" : message));
+    }
+
+    /**
+     * Answers request bodies that cannot be parsed or bound with 400, naming the offending field when known.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> handleUnreadableBody(HttpMessageNotReadableException e) {
+        String message = "Malformed request body";
+        if (e.getCause() instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            String field = mapping.getPath().get(mapping.getPath().size() - 1).getFieldName();
+            if (field != null) {
+                message = "Invalid value for " + field;
+            }
+        }
+        return ResponseEntity.badRequest().body(Map.of("message", message));
+    }
+}
@@ -1,24 +1,32 @@
 package com.javaproject.expenses.controllers;
 
+import com.javaproject.expenses.config.AuthProperties;
 import com.javaproject.expenses.models.User;
 import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.security.TokenService;
+import com.javaproject.expenses.services.PasswordHashingService;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for handling user authentication operations.
  * Manages user registration, login, logout, and current user retrieval.
+ * Signed-in users are remembered by HTTP session or by signed token, per {@code expenses.auth.mode}.
  */
 @AllArgsConstructor
 @RestController
@@ -26,84 +34,120 @@ import java.util.Map;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashingService passwordHashingService;
+    private final TokenService tokenService;
+    private final AuthProperties authProperties;
 
     /**
      * Registers a new user account.
      * Validates email uniqueness and securely hashes the password before saving.
+     * Hashing runs on the bounded password-hashing executor, which answers 429 when full.
      *
      * @param user the user registration data
-     * @return ResponseEntity containing success message with user details or error message
+     * @return future ResponseEntity containing success message with user details or error message
      */
+    @QueryBudget(2)
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
-            return ResponseEntity.badRequest().body(Map.of("message", "Email already exists"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("message", "Email already exists")));
         }
 
         // Hash password before persisting to database
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User savedUser = userRepository.save(user);
-
-        return ResponseEntity.ok(Map.of(
-                "message", "Registration successful",
-                "user", Map.of(
-                        "id", savedUser.getId(),
-                        "name", savedUser.getName(),
-                        "email", savedUser.getEmail()
-                )
-        ));
+        return passwordHashingService.encode(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            User savedUser = userRepository.save(user);
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "Registration successful",
+                    "user", Map.of(
+                            "id", savedUser.getId(),
+                            "name", savedUser.getName(),
+                            "email", savedUser.getEmail()
+                    )
+            ));
+        });
     }
 
     /**
      * Authenticates an existing user with email and password.
-     * Establishes a session-based authentication context on successful login.
+     * In session mode, establishes a session-based authentication context; in token mode,
+     * returns a signed bearer token and creates no session.
+     * Verification runs on the bounded password-hashing executor, so the request thread
+     * is released while BCrypt runs.
      *
      * @param credentials map containing email and password
-     * @param session HTTP session for storing authentication context
-     * @return ResponseEntity containing success message with user details or error message
+     * @param request the HTTP request, used to create the session in session mode once the password matches
+     * @return future ResponseEntity containing success message with user details or error message
      */
+    @QueryBudget(1)
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials, HttpSession session) {
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            credentials.get("email"),
-                            credentials.get("password")
-                    )
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials,
+                                                      HttpServletRequest request) {
+        String email = credentials.get("email");
+        String password = credentials.get("password");
+        User user = email == null || password == null ? null : userRepository.findActiveByEmail(email).orElse(null);
+        if (user == null) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+
+        return passwordHashingService.matches(password, user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                return invalidCredentials();
+            }
+
+            AuthenticatedUser principal = AuthenticatedUser.of(user);
+            Map<String, Object> userDetails = Map.of(
+                    "id", user.getId(),
+                    "name", user.getName(),
+                    "email", user.getEmail()
             );
 
-            // Persist authentication in security context and HTTP session
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
-                    SecurityContextHolder.getContext());
+            if (authProperties.mode() == AuthProperties.Mode.TOKEN) {
+                TokenService.IssuedToken token = tokenService.issue(principal);
+                return ResponseEntity.ok(Map.of(
+                        "message", "Login successful",
+                        "token", token.token(),
+                        "expiresAt", token.expiresAt().toString(),
+                        "user", userDetails
+                ));
+            }
+
+            // Persist authentication in a session created only now, so failed attempts leave none
+            // behind. This runs off the request thread while the request is in async mode and its
+            // response uncommitted, so the thread-bound SecurityContextHolder is left alone
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(principal, null, user.getAuthorities()));
+            request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
 
-            User user = (User) authentication.getPrincipal();
             return ResponseEntity.ok(Map.of(
                     "message", "Login successful",
-                    "user", Map.of(
-                            "id", user.getId(),
-                            "name", user.getName(),
-                            "email", user.getEmail()
-                    )
+                    "user", userDetails
             ));
+        });
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("message", "Invalid email or password"));
-        }
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.badRequest().body(Map.of("message", "Invalid email or password"));
     }
 
     /**
      * Logs out the current authenticated user.
-     * Invalidates the HTTP session and clears the security context.
+     * Invalidates the HTTP session, if any, and clears the security context.
+     * Tokens are not tracked by the server; clients discard them and they lapse when they expire.
      *
-     * @param session HTTP session to invalidate
+     * @param request the HTTP request whose session is invalidated
      * @return ResponseEntity with logout confirmation message
      */
+    @QueryBudget(0)
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpSession session) {
-        session.invalidate();
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(Map.of("message", "Logout successful"));
     }
@@ -113,17 +157,20 @@ public class AuthController {
      *
      * @return ResponseEntity containing user details if authenticated, or 401 error if not
      */
+    @QueryBudget(1)
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
-            User user = (User) auth.getPrincipal();
-            return ResponseEntity.ok(Map.of(
-                    "id", user.getId(),
-                    "name", user.getName(),
-                    "email", user.getEmail()
-            ));
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            Optional<User> user = userRepository.findById(principal.id());
+            if (user.isPresent()) {
+                return ResponseEntity.ok(Map.of(
+                        "id", user.get().getId(),
+                        "name", user.get().getName(),
+                        "email", user.get().getEmail()
+                ));
+            }
         }
         return ResponseEntity.status(401).body(Map.of("message", "Not authenticated"));
     }
-}
\ No newline at end of file
+}
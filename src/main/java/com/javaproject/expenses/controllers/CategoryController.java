@@ -1,38 +1,49 @@
 package com.javaproject.expenses.controllers;
 
 import com.javaproject.expenses.dtos.CategoryDto;
-import com.javaproject.expenses.mappers.CategoryMapper;
-import com.javaproject.expenses.repositories.CategoryRepository;
+import com.javaproject.expenses.services.CategoryRegistry;
+import com.javaproject.expenses.telemetry.QueryBudget;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
+import java.time.Duration;
 
 /**
  * REST Controller for managing category operations.
- * Provides read-only access to expense categories.
+ * Provides read-only access to expense categories, served from {@link CategoryRegistry}.
  */
 @AllArgsConstructor
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
 
-    private final CategoryRepository categoryRepository;
-    private final CategoryMapper categoryMapper;
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+
+    private final CategoryRegistry categoryRegistry;
 
     /**
      * Retrieves all available categories.
+     * Returns the pre-serialized list, or 304 when the client's ETag is current.
      *
+     * @param request the current request, used for the If-None-Match check
      * @param authentication the current user's authentication context
-     * @return list of all category DTOs
+     * @return ResponseEntity containing the JSON array of all categories
      */
+    @QueryBudget(0)
     @GetMapping
-    public List<CategoryDto> getAllCategories(Authentication authentication) {
-        return categoryRepository.findAll()
-                .stream()
-                .map(categoryMapper::toDto)
-                .toList();
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request, Authentication authentication) {
+        if (request.checkNotModified(categoryRegistry.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CACHE_CONTROL)
+                .eTag(categoryRegistry.etag())
+                .body(categoryRegistry.json());
     }
 
     /**
@@ -42,10 +53,11 @@ public class CategoryController {
      * @param authentication the current user's authentication context
      * @return ResponseEntity containing the category DTO if found, or 404 if not found
      */
+    @QueryBudget(0)
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id, Authentication authentication) {
-        return categoryRepository.findById(id)
-                .map(category -> ResponseEntity.ok(categoryMapper.toDto(category)))
+        return categoryRegistry.find(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.javaproject.expenses.controllers;
+
+import com.javaproject.expenses.dtos.RecurringTransactionDto;
+import com.javaproject.expenses.dtos.RecurringTransactionPatch;
+import com.javaproject.expenses.dtos.RecurringTransactionRequest;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.services.RecurringTransactionService;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for managing recurring transaction rules.
+ * The transactions of a rule are created in the background as they fall due.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/transactions/recurring")
+public class RecurringTransactionController {
+    private final RecurringTransactionService recurringTransactionService;
+
+    /**
+     * Retrieves all recurring transaction rules of the authenticated user.
+     *
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the list of rules
+     */
+    @QueryBudget(1)
+    @GetMapping
+    public ResponseEntity<List<RecurringTransactionDto>> getAllRecurring(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(recurringTransactionService.findAll(currentUser.id()));
+    }
+
+    /**
+     * Retrieves a specific recurring transaction rule by ID for the authenticated user.
+     *
+     * @param id the rule ID
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the rule or error message
+     */
+    @QueryBudget(1)
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRecurringById(@PathVariable Long id, Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Optional<RecurringTransactionDto> rule = recurringTransactionService.find(id, currentUser.id());
+        if (rule.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Recurring transaction not found"));
+        }
+        return ResponseEntity.ok(rule.get());
+    }
+
+    /**
+     * Creates a recurring transaction rule for the authenticated user.
+     *
+     * @param request the transaction fields and the schedule
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the created rule or error message
+     */
+    @QueryBudget(1)
+    @PostMapping
+    public ResponseEntity<?> createRecurring(
+            @Valid @RequestBody RecurringTransactionRequest request,
+            Authentication authentication
+    ) {
+        try {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(recurringTransactionService.create(currentUser.id(), request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Partially updates a recurring transaction rule of the authenticated user.
+     * PUT is accepted as a synonym for PATCH.
+     *
+     * @param id the rule ID to update
+     * @param patch the fields to change (any of categoryId, amount, description, endDate)
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the updated rule or error message
+     */
+    @QueryBudget(2) // the locking read and the update
+    @RequestMapping(value = "/{id}", method = {RequestMethod.PATCH, RequestMethod.PUT})
+    public ResponseEntity<?> updateRecurring(
+            @PathVariable Long id,
+            @Valid @RequestBody RecurringTransactionPatch patch,
+            Authentication authentication
+    ) {
+        try {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Optional<RecurringTransactionDto> updated = recurringTransactionService.update(id, currentUser.id(), patch);
+            if (updated.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "Recurring transaction not found"));
+            }
+            return ResponseEntity.ok(updated.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Deletes a recurring transaction rule of the authenticated user. Transactions it already
+     * created are kept.
+     *
+     * @param id the rule ID to delete
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity with success message or error message
+     */
+    @QueryBudget(1)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteRecurring(@PathVariable Long id, Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        if (!recurringTransactionService.delete(id, currentUser.id())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Recurring transaction not found");
+        }
+        return ResponseEntity.ok("Recurring transaction deleted successfully");
+    }
+}
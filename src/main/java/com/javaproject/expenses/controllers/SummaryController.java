@@ -0,0 +1,115 @@
+package com.javaproject.expenses.controllers;
+
+import com.javaproject.expenses.dtos.BalanceDto;
+import com.javaproject.expenses.dtos.CategorySummaryDto;
+import com.javaproject.expenses.dtos.MonthlySummaryDto;
+import com.javaproject.expenses.dtos.TypeSummaryDto;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST Controller for dashboard summaries of the authenticated user's transactions.
+ * Served from the monthly rollup table; {@code from} and {@code to} are inclusive months (yyyy-MM).
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/summary")
+public class SummaryController {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 1);
+
+    private final TransactionRollupRepository rollupRepository;
+
+    /**
+     * Retrieves income, expense and net totals per month.
+     *
+     * @param from first month to include, or null for no lower bound
+     * @param to last month to include, or null for no upper bound
+     * @param authentication the current user's authentication context
+     * @return list of monthly totals in chronological order
+     */
+    @QueryBudget(1)
+    @GetMapping("/monthly")
+    public List<MonthlySummaryDto> getMonthlyTotals(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return rollupRepository.findMonthlyTotals(currentUser.id(), lower(from), upper(to));
+    }
+
+    /**
+     * Retrieves totals per category.
+     *
+     * @param from first month to include, or null for no lower bound
+     * @param to last month to include, or null for no upper bound
+     * @param authentication the current user's authentication context
+     * @return list of category totals ordered by category ID
+     */
+    @QueryBudget(1)
+    @GetMapping("/categories")
+    public List<CategorySummaryDto> getCategoryTotals(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return rollupRepository.findCategoryTotals(currentUser.id(), lower(from), upper(to));
+    }
+
+    /**
+     * Retrieves totals per category type (INCOME, EXPENSE).
+     *
+     * @param from first month to include, or null for no lower bound
+     * @param to last month to include, or null for no upper bound
+     * @param authentication the current user's authentication context
+     * @return list of category type totals
+     */
+    @QueryBudget(1)
+    @GetMapping("/types")
+    public List<TypeSummaryDto> getTypeTotals(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return rollupRepository.findTypeTotals(currentUser.id(), lower(from), upper(to));
+    }
+
+    /**
+     * Retrieves income versus expense and the resulting net amount.
+     *
+     * @param from first month to include, or null for no lower bound
+     * @param to last month to include, or null for no upper bound
+     * @param authentication the current user's authentication context
+     * @return the income, expense and net totals
+     */
+    @QueryBudget(1)
+    @GetMapping("/net")
+    public BalanceDto getNet(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return rollupRepository.findBalance(currentUser.id(), lower(from), upper(to));
+    }
+
+    private static LocalDate lower(YearMonth from) {
+        return from == null ? EARLIEST : from.atDay(1);
+    }
+
+    private static LocalDate upper(YearMonth to) {
+        return to == null ? LATEST : to.atDay(1);
+    }
+}
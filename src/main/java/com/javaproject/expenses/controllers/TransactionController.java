@@ -1,17 +1,56 @@
 package com.javaproject.expenses.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.config.BatchProperties;
+import com.javaproject.expenses.config.PaginationProperties;
+import com.javaproject.expenses.dtos.TransactionBatchRequest;
+import com.javaproject.expenses.dtos.TransactionChangesDto;
 import com.javaproject.expenses.dtos.TransactionDto;
+import com.javaproject.expenses.dtos.TransactionFilter;
+import com.javaproject.expenses.dtos.TransactionPageDto;
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.exports.ExportFormat;
+import com.javaproject.expenses.imports.CsvTransactionReader;
+import com.javaproject.expenses.imports.NdjsonTransactionReader;
+import com.javaproject.expenses.imports.TransactionRecordReader;
 import com.javaproject.expenses.mappers.TransactionMapper;
-import com.javaproject.expenses.models.Category;
 import com.javaproject.expenses.models.Transaction;
-import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.pagination.SearchCursor;
+import com.javaproject.expenses.pagination.SyncToken;
+import com.javaproject.expenses.pagination.TransactionCursor;
+import com.javaproject.expenses.pagination.TransactionSort;
 import com.javaproject.expenses.repositories.TransactionRepository;
-import com.javaproject.expenses.repositories.CategoryRepository;
+import com.javaproject.expenses.repositories.TransactionSearchRepository;
+import com.javaproject.expenses.repositories.TransactionSpecifications;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.services.BatchOperationException;
+import com.javaproject.expenses.services.ChangeFeedService;
+import com.javaproject.expenses.services.DataVersionService;
+import com.javaproject.expenses.services.SyncTokenExpiredException;
+import com.javaproject.expenses.services.TransactionBatchService;
+import com.javaproject.expenses.services.TransactionImportService;
+import com.javaproject.expenses.services.TransactionService;
+import com.javaproject.expenses.services.TransactionStreamService;
+import com.javaproject.expenses.services.TransactionSyncService;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.math.BigDecimal;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -25,39 +64,274 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    // Clients may keep responses but must revalidate them with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final TransactionSearchRepository transactionSearchRepository;
+    private final TransactionService transactionService;
     private final TransactionMapper transactionMapper;
+    private final TransactionStreamService transactionStreamService;
+    private final TransactionImportService transactionImportService;
+    private final TransactionBatchService transactionBatchService;
+    private final DataVersionService dataVersionService;
+    private final ChangeFeedService changeFeedService;
+    private final TransactionSyncService transactionSyncService;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all transactions for the authenticated user.
+     * Retrieves one page of the authenticated user's transactions matching the given filters.
+     * Pages are keyset-paginated on the sort key and id; pass the returned nextCursor
+     * back, together with the same filters and sort, to fetch the following page.
+     * Answers 304 without querying when the client's ETag matches the user's data version.
      *
+     * @param filter optional date, category, category type and amount restrictions
+     * @param sort ordering of the listing (date_desc, date_asc, amount_desc, amount_asc)
+     * @param cursor opaque token from a previous page, or null for the first page
+     * @param limit requested page size, clamped to the configured maximum
+     * @param request the current request, used for the If-None-Match check
      * @param authentication the current user's authentication context
-     * @return list of transaction DTOs belonging to the authenticated user
+     * @return ResponseEntity containing the page of transaction DTOs or error message
      */
+    @QueryBudget(2) // the data version, unless cached, and the page
     @GetMapping
-    public List<TransactionDto> getAllTransactions(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        return transactionRepository.findByUserId(currentUser.getId())
-                .stream()
+    public ResponseEntity<?> getAllTransactions(
+            TransactionFilter filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        String etag = dataVersionService.etag(currentUser.id());
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        int pageSize = paginationProperties.resolve(limit);
+
+        TransactionSort order;
+        Specification<Transaction> spec;
+        try {
+            order = TransactionSort.fromParameter(sort);
+            spec = TransactionSpecifications.ownedBy(currentUser.id())
+                    .and(TransactionSpecifications.matching(filter));
+            if (cursor != null) {
+                TransactionCursor position = TransactionCursor.decode(cursor);
+                if (position.sort() != order) {
+                    throw new IllegalArgumentException("Cursor does not match the requested sort");
+                }
+                spec = spec.and(TransactionSpecifications.after(position));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Transaction> rows = transactionRepository.findBy(spec, query -> query
+                .sortBy(order.toSort())
+                .limit(pageSize + 1)
+                .all());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = TransactionCursor.after(order, rows.get(pageSize - 1)).encode();
+        }
+
+        List<TransactionDto> items = rows.stream()
                 .map(transactionMapper::toDto)
                 .toList();
+        return revalidated(etag).body(new TransactionPageDto(items, nextCursor));
+    }
+
+    /**
+     * Searches the authenticated user's transaction descriptions for every word of {@code q}.
+     * Words also match as prefixes; results are ordered by relevance and keyset-paginated
+     * like the listing.
+     *
+     * @param q the words to search for
+     * @param filter optional date, category, category type and amount restrictions
+     * @param cursor opaque token from a previous page, or null for the first page
+     * @param limit requested page size, clamped to the configured maximum
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the page of transaction DTOs or error message
+     */
+    @QueryBudget(1)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTransactions(
+            @RequestParam String q,
+            TransactionFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        int pageSize = paginationProperties.resolve(limit);
+
+        List<TransactionSearchRepository.Match> matches;
+        try {
+            SearchCursor after = cursor == null ? null : SearchCursor.decode(cursor);
+            // Fetch one extra row to learn whether another page exists
+            matches = transactionSearchRepository.search(currentUser.id(), q, filter, after, pageSize + 1);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            matches = matches.subList(0, pageSize);
+            TransactionSearchRepository.Match last = matches.get(pageSize - 1);
+            nextCursor = new SearchCursor(last.rank(), last.row().id()).encode();
+        }
+
+        List<TransactionDto> items = matches.stream()
+                .map(match -> transactionMapper.toDto(match.row(), currentUser.id()))
+                .toList();
+        return ResponseEntity.ok(new TransactionPageDto(items, nextCursor));
+    }
+
+    /**
+     * Streams every transaction of the authenticated user as a single JSON array.
+     * Rows are written as the database cursor returns them instead of being collected first.
+     *
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity whose body writes the transactions to the response
+     */
+    @QueryBudget(1)
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllTransactions(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(transactionStreamService.streamAsJsonArray(currentUser.id()));
+    }
+
+    /**
+     * Pushes the authenticated user's transaction changes as server-sent events: created, updated
+     * and deleted with the row as data, or resync when the client should reload instead.
+     * A client reconnecting with {@code Last-Event-ID} first receives the events it missed.
+     * The connection holds no request thread while idle.
+     *
+     * @param lastEventId id of the last event the client received, or null to start with new events
+     * @param authentication the current user's authentication context
+     * @return the event stream
+     */
+    @QueryBudget(1) // the data version when resuming, unless cached
+    @GetMapping("/stream")
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return changeFeedService.subscribe(currentUser.id(), lastEventId);
+    }
+
+    /**
+     * Returns the changes to the authenticated user's transactions since a sync token: created and
+     * updated transactions as they are now, and the ids of deleted ones. Without a token, returns
+     * no changes and a token to keep while loading the transactions through the listing.
+     * Answers 410 when the token is too old for the deletes since it to be known.
+     *
+     * @param since token from a previous response, or null to start syncing
+     * @param limit maximum number of changes, clamped to the configured maximum page size
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the changes and the next token, or error message
+     */
+    @QueryBudget(2) // the snapshot and the changes
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        if (since == null) {
+            String token = transactionSyncService.start().encode();
+            return ResponseEntity.ok(new TransactionChangesDto(List.of(), List.of(), token, false));
+        }
+
+        TransactionSyncService.Changes changes;
+        try {
+            changes = transactionSyncService.changesSince(currentUser.id(), SyncToken.decode(since),
+                    paginationProperties.resolve(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (SyncTokenExpiredException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("message", e.getMessage()));
+        }
+
+        List<TransactionDto> changed = changes.changed().stream()
+                .map(row -> transactionMapper.toDto(row, currentUser.id()))
+                .toList();
+        return ResponseEntity.ok(new TransactionChangesDto(changed, changes.deleted(),
+                changes.next().encode(), changes.hasMore()));
+    }
+
+    /**
+     * Exports the authenticated user's transactions as CSV or NDJSON, newest first.
+     * Rows are streamed from a server-side database cursor without building the full list.
+     *
+     * @param format csv or ndjson
+     * @param from inclusive lower bound on the transaction date, or null for none
+     * @param to exclusive upper bound on the transaction date, or null for none
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity whose body writes the export, or error message
+     */
+    @QueryBudget(1)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            // The streaming handler only accepts StreamingResponseBody, so the error map is written through it
+            Map<String, String> error = Map.of("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        StreamingResponseBody body = transactionStreamService.export(currentUser.id(), exportFormat, from, to);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(body);
     }
 
     /**
      * Retrieves a specific transaction by ID for the authenticated user.
+     * Answers 304 without querying when the client's ETag matches the user's data version.
      *
      * @param id the transaction ID
+     * @param request the current request, used for the If-None-Match check
      * @param authentication the current user's authentication context
      * @return ResponseEntity containing the transaction DTO or error message
      */
+    @QueryBudget(2) // the data version, unless cached, and the row
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTransactionById(@PathVariable Long id, Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        Optional<Transaction> optional = transactionRepository.findByIdAndUserId(id, currentUser.getId());
+    public ResponseEntity<?> getTransactionById(@PathVariable Long id, WebRequest request, Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        String etag = dataVersionService.etag(currentUser.id());
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        Optional<Transaction> optional = transactionRepository.findByIdAndUserId(id, currentUser.id());
 
         if (optional.isPresent()) {
-            return ResponseEntity.ok(transactionMapper.toDto(optional.get()));
+            return revalidated(etag).body(transactionMapper.toDto(optional.get()));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "Transaction not found"));
@@ -66,29 +340,21 @@ public class TransactionController {
 
     /**
      * Creates a new transaction for the authenticated user.
+     * The body is bound straight into a validated {@link TransactionRequest}.
      *
-     * @param payload the transaction data containing categoryId, amount, and description
+     * @param request the transaction data containing categoryId, amount, and description
      * @param authentication the current user's authentication context
      * @return ResponseEntity containing the created transaction DTO or error message
      */
+    @QueryBudget(5)
     @PostMapping
     public ResponseEntity<?> createTransaction(
-            @RequestBody Map<String, Object> payload,
+            @Valid @RequestBody TransactionRequest request,
             Authentication authentication
     ) {
         try {
-            User currentUser = (User) authentication.getPrincipal();
-            Long categoryId = Long.valueOf(payload.get("categoryId").toString());
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid category"));
-
-            Transaction transaction = new Transaction();
-            transaction.setUser(currentUser);
-            transaction.setCategory(category);
-            transaction.setAmount(new BigDecimal(payload.get("amount").toString()));
-            transaction.setDescription(payload.get("description").toString());
-
-            Transaction saved = transactionRepository.save(transaction);
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Transaction saved = transactionService.create(currentUser.id(), request);
             return ResponseEntity.status(HttpStatus.CREATED).body(transactionMapper.toDto(saved));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
@@ -96,53 +362,89 @@ public class TransactionController {
     }
 
     /**
-     * Updates an existing transaction for the authenticated user.
-     * Only updates fields that are present in the payload.
+     * Imports transactions for the authenticated user from a CSV or NDJSON upload.
+     * The body is parsed incrementally and valid rows are inserted in committed chunks;
+     * rejected rows are reported with their line numbers.
+     *
+     * @param contentType text/csv (with a header row) or application/x-ndjson
+     * @param body the uploaded file
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing the import summary or error message
+     */
+    @QueryBudget(4) // per chunk of expenses.import.chunk-size rows
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importTransactions(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            Authentication authentication
+    ) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+
+        TransactionRecordReader records = mediaType.isCompatibleWith(TEXT_CSV)
+                ? new CsvTransactionReader(reader)
+                : new NdjsonTransactionReader(reader, objectMapper);
+        try {
+            return ResponseEntity.ok(transactionImportService.importTransactions(currentUser.id(), records));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Applies an ordered list of create, update and delete operations for the authenticated user
+     * in one database transaction. Either every operation is applied or none is; the failing
+     * operation is reported by its index.
+     *
+     * @param request the operations, each tagged with op = create, update or delete
+     * @param authentication the current user's authentication context
+     * @return ResponseEntity containing one result per operation or error message
+     */
+    @QueryBudget(9) // one lock, the id sequence, one batch per write kind, the rollup, the data version and the change notification
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(
+            @Valid @RequestBody TransactionBatchRequest request,
+            Authentication authentication
+    ) {
+        if (request.operations().size() > batchProperties.maxOperations()) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "A batch holds at most " + batchProperties.maxOperations() + " operations"));
+        }
+        try {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            return ResponseEntity.ok(transactionBatchService.apply(currentUser.id(), request.operations()));
+        } catch (BatchOperationException e) {
+            return ResponseEntity.status(e.isNotFound() ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage(), "index", e.getIndex()));
+        }
+    }
+
+    /**
+     * Partially updates an existing transaction for the authenticated user.
+     * Only fields present in the body are changed; PUT is accepted as a synonym for PATCH.
      *
      * @param id the transaction ID to update
-     * @param payload the transaction data to update (can contain categoryId, amount, description, transactionDate)
+     * @param patch the fields to change (any of categoryId, amount, description, transactionDate)
      * @param authentication the current user's authentication context
      * @return ResponseEntity containing the updated transaction DTO or error message
      */
-    @PutMapping("/{id}")
+    @QueryBudget(5)
+    @RequestMapping(value = "/{id}", method = {RequestMethod.PATCH, RequestMethod.PUT})
     public ResponseEntity<?> updateTransaction(
             @PathVariable Long id,
-            @RequestBody Map<String, Object> payload,
+            @Valid @RequestBody TransactionPatch patch,
             Authentication authentication
     ) {
         try {
-            User currentUser = (User) authentication.getPrincipal();
-            Optional<Transaction> optionalTransaction = transactionRepository.findByIdAndUserId(id, currentUser.getId());
-
-            if (optionalTransaction.isEmpty()) {
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+            Optional<TransactionRow> updated = transactionService.update(id, currentUser.id(), patch);
+            if (updated.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "Transaction not found"));
             }
-
-            Transaction transaction = optionalTransaction.get();
-
-            // Update fields conditionally based on payload content
-            if (payload.containsKey("categoryId")) {
-                Long categoryId = Long.valueOf(payload.get("categoryId").toString());
-                Category category = categoryRepository.findById(categoryId)
-                        .orElseThrow(() -> new IllegalArgumentException("Invalid category"));
-                transaction.setCategory(category);
-            }
-
-            if (payload.containsKey("amount")) {
-                transaction.setAmount(new BigDecimal(payload.get("amount").toString()));
-            }
-
-            if (payload.containsKey("description")) {
-                transaction.setDescription(payload.get("description").toString());
-            }
-
-            if (payload.containsKey("transactionDate")) {
-                transaction.setTransactionDate(LocalDateTime.parse(payload.get("transactionDate").toString()));
-            }
-
-            Transaction updated = transactionRepository.save(transaction);
-            return ResponseEntity.ok(transactionMapper.toDto(updated));
+            return ResponseEntity.ok(transactionMapper.toDto(updated.get(), currentUser.id()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
@@ -155,20 +457,25 @@ public class TransactionController {
      * @param authentication the current user's authentication context
      * @return ResponseEntity with success message or error message
      */
+    @QueryBudget(5)
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteTransaction(
             @PathVariable Long id,
             Authentication authentication
     ) {
-        User currentUser = (User) authentication.getPrincipal();
-        Optional<Transaction> optionalTransaction = transactionRepository.findByIdAndUserId(id, currentUser.getId());
-
-        if (optionalTransaction.isEmpty()) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        if (!transactionService.delete(id, currentUser.id())) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Transaction not found");
         }
-
-        transactionRepository.delete(optionalTransaction.get());
         return ResponseEntity.ok("Transaction deleted successfully");
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts a 200 response that clients must revalidate, tagged with the given ETag if there is one.
+     */
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(REVALIDATE);
+        return etag == null ? builder : builder.eTag(etag);
+    }
+}
@@ -1,15 +1,29 @@
 package com.javaproject.expenses.controllers;
 
+import com.javaproject.expenses.dtos.AccountDeletionJobDto;
+import com.javaproject.expenses.dtos.BalanceDto;
 import com.javaproject.expenses.mappers.UserMapper;
 import com.javaproject.expenses.models.User;
 import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.security.TokenVersions;
+import com.javaproject.expenses.services.AccountDeletionService;
+import com.javaproject.expenses.services.BalanceService;
+import com.javaproject.expenses.services.PasswordHashingService;
+import com.javaproject.expenses.telemetry.QueryBudget;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.net.URI;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for managing user profile operations.
@@ -21,7 +35,10 @@ import java.util.Map;
 public class UserController {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final BalanceService balanceService;
+    private final AccountDeletionService accountDeletionService;
+    private final TokenVersions tokenVersions;
 
     /**
      * Retrieves the current authenticated user's profile information.
@@ -29,69 +46,123 @@ public class UserController {
      * @param authentication the current user's authentication context
      * @return ResponseEntity containing the user's profile DTO
      */
+    @QueryBudget(1)
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        return ResponseEntity.ok(userMapper.toDto(currentUser));
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        Optional<User> user = userRepository.findById(currentUser.id());
+        if (user.isEmpty()) {
+            return userNotFound();
+        }
+        return ResponseEntity.ok(userMapper.toDto(user.get()));
+    }
+
+    /**
+     * Retrieves the current authenticated user's all-time income, expense and net totals.
+     * Served from an in-process cache that transaction writes keep up to date.
+     *
+     * @param authentication the current user's authentication context
+     * @return the user's balance
+     */
+    @QueryBudget(1)
+    @GetMapping("/me/balance")
+    public BalanceDto getBalance(Authentication authentication) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return balanceService.getBalance(currentUser.id());
     }
 
     /**
      * Updates the current authenticated user's profile information.
      * Supports partial updates for name, email, and password fields.
+     * A new password is hashed on the bounded password-hashing executor, which answers 429 when full.
+     * A new email or password ends every token signed before the change, including the caller's.
      *
      * @param updates map containing fields to update (name, email, password)
      * @param authentication the current user's authentication context
-     * @return ResponseEntity containing success message with updated user details or error message
+     * @return future ResponseEntity containing success message with updated user details or error message
      */
+    @QueryBudget(3)
     @PutMapping("/me")
-    public ResponseEntity<?> updateProfile(
+    public CompletableFuture<ResponseEntity<?>> updateProfile(
             @Valid @RequestBody Map<String, String> updates,
             Authentication authentication
     ) {
-        User currentUser = (User) authentication.getPrincipal();
-
-        // Update name if provided
-        if (updates.containsKey("name")) {
-            currentUser.setName(updates.get("name"));
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        Optional<User> user = userRepository.findById(principal.id());
+        if (user.isEmpty()) {
+            return CompletableFuture.completedFuture(userNotFound());
         }
+        User currentUser = user.get();
 
-        // Update email with uniqueness validation
-        if (updates.containsKey("email")) {
-            String newEmail = updates.get("email").toLowerCase();
-            if (userRepository.existsByEmail(newEmail) && !newEmail.equals(currentUser.getEmail().toLowerCase())) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Email already in use"));
-            }
-            currentUser.setEmail(newEmail);
+        // Check email uniqueness before doing any hashing work
+        String newEmail = updates.containsKey("email") ? updates.get("email").toLowerCase() : null;
+        if (newEmail != null && userRepository.existsByEmail(newEmail)
+                && !newEmail.equals(currentUser.getEmail().toLowerCase())) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("message", "Email already in use")));
         }
 
-        // Update password with secure hashing
-        if (updates.containsKey("password")) {
-            String newPassword = updates.get("password");
-            currentUser.setPassword(passwordEncoder.encode(newPassword));
-        }
+        // Hash a new password off the request thread
+        CompletableFuture<String> passwordHash = updates.containsKey("password")
+                ? passwordHashingService.encode(updates.get("password"))
+                : CompletableFuture.completedFuture(null);
 
-        userRepository.save(currentUser);
+        return passwordHash.thenApply(hash -> {
+            // Update name if provided
+            if (updates.containsKey("name")) {
+                currentUser.setName(updates.get("name"));
+            }
+            if (newEmail != null && !newEmail.equals(currentUser.getEmail())) {
+                currentUser.setEmail(newEmail);
+                currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
+            }
+            if (hash != null) {
+                currentUser.setPassword(hash);
+                currentUser.setTokenVersion(currentUser.getTokenVersion() + 1);
+            }
+
+            userRepository.save(currentUser);
+            if (currentUser.getTokenVersion() != principal.version()) {
+                tokenVersions.advance(currentUser.getId(), currentUser.getTokenVersion());
+            }
 
-        return ResponseEntity.ok(Map.of(
-                "message", "Profile updated successfully",
-                "user", Map.of(
-                        "id", currentUser.getId(),
-                        "name", currentUser.getName(),
-                        "email", currentUser.getEmail()
-                )
-        ));
+            return ResponseEntity.ok(Map.of(
+                    "message", "Profile updated successfully",
+                    "user", Map.of(
+                            "id", currentUser.getId(),
+                            "name", currentUser.getName(),
+                            "email", currentUser.getEmail()
+                    )
+            ));
+        });
     }
 
     /**
-     * Deletes the current authenticated user's account permanently.
+     * Starts deleting the current authenticated user's account permanently.
+     * Every session and token of the user stops working at once; the transactions and the
+     * user are then deleted in the background. Poll the returned Location for progress.
      *
      * @param authentication the current user's authentication context
-     * @return ResponseEntity with account deletion confirmation message
+     * @param request the HTTP request whose session is invalidated
+     * @return 202 Accepted with the deletion job
      */
+    @QueryBudget(2)
     @DeleteMapping("/me")
-    public ResponseEntity<?> deleteOwnAccount(Authentication authentication) {
-        User currentUser = (User) authentication.getPrincipal();
-        userRepository.delete(currentUser);
-        return ResponseEntity.ok(Map.of("message", "Account deleted successfully"));
+    public ResponseEntity<?> deleteOwnAccount(Authentication authentication, HttpServletRequest request) {
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        AccountDeletionJobDto job = accountDeletionService.request(currentUser.id());
+
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/account-deletions/" + job.getId()))
+                .body(Map.of("message", "Account deletion started", "job", job));
+    }
+
+    private static ResponseEntity<?> userNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.javaproject.expenses.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+
+/**
+ * Post-processor that wraps the application data source in one layer of the wrapper stack.
+ * Layers are applied in ascending order, so the first one wraps the connection pool itself
+ * and the last one is what the application sees:
+ * concurrency limit, then replica routing, then statement counting.
+ *
+ * <p>Post-processors are only sorted when they implement {@link Ordered}; an {@code @Order}
+ * on their {@code @Bean} method is ignored.
+ */
+public abstract class DataSourceWrapper implements BeanPostProcessor, Ordered {
+
+    /**
+     * Caps the connections checked out of the primary pool, so replica connections do not use up its permits.
+     */
+    public static final int CONCURRENCY_LIMIT = Ordered.LOWEST_PRECEDENCE - 30;
+
+    /**
+     * Routes read-only transactions to the replicas, over the limited primary.
+     */
+    public static final int REPLICA_ROUTING = Ordered.LOWEST_PRECEDENCE - 20;
+
+    /**
+     * Counts statements outermost, whichever pool ends up serving them.
+     */
+    public static final int STATEMENT_COUNTING = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private final int order;
+
+    protected DataSourceWrapper(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public final Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+    }
+
+    /**
+     * Returns the data source wrapped in this layer, or {@code dataSource} itself to leave it as it is.
+     */
+    protected abstract DataSource wrap(DataSource dataSource);
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,108 @@
+package com.javaproject.expenses.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the primary.
+ * A read still goes to the primary when the current user committed a write within the
+ * read-your-writes window, when no replica is within the allowed lag, or when the chosen
+ * replica refuses the connection. Replicas are taken round-robin.
+ *
+ * <p>The read-only flag is only known once the transaction has begun, but transaction managers
+ * fetch the connection while beginning it; wrap this in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the connection
+ * is fetched at the first statement instead.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Supplier<Long> currentUserId;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param currentUserId returns the id of the user the current thread acts for, or null
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWritesTracker readYourWrites, Supplier<Long> currentUserId) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        this.currentUserId = currentUserId;
+
+        Map<Object, Object> targets = new HashMap<>(lagMonitor.replicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = determineCurrentLookupKey();
+        if (key.equals(PRIMARY)) {
+            return primary.getConnection();
+        }
+        try {
+            return lagMonitor.replicas().get(key).getConnection();
+        } catch (SQLException e) {
+            log.warn("Reading from the primary, replica {} refused a connection: {}", key, e.getMessage());
+            lagMonitor.markDown(key);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    protected String determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit();
+            return PRIMARY;
+        }
+
+        Long userId = currentUserId.get();
+        if (userId != null && readYourWrites.isRecentWriter(userId)) {
+            return PRIMARY;
+        }
+        List<String> usable = lagMonitor.usableReplicas();
+        if (usable.isEmpty()) {
+            return PRIMARY;
+        }
+        return usable.get(Math.floorMod(next.getAndIncrement(), usable.size()));
+    }
+
+    /**
+     * Starts the user's read-your-writes window when the current read-write transaction commits.
+     */
+    private void rememberWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long userId = currentUserId.get();
+        if (userId == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.javaproject.expenses.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which users committed a write recently, so their reads can skip replicas that may
+ * not have replayed it yet. Entries older than the window are dropped as they are found, and
+ * all of them every {@value #PRUNE_EVERY} writes.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int PRUNE_EVERY = 1024;
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Long, Long> lastWrite = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void recordWrite(Long userId) {
+        long now = nanoClock.getAsLong();
+        lastWrite.put(userId, now);
+        if (writes.incrementAndGet() % PRUNE_EVERY == 0) {
+            lastWrite.values().removeIf(at -> now - at >= windowNanos);
+        }
+    }
+
+    /**
+     * Returns true if the user committed a write less than the window ago.
+     */
+    public boolean isRecentWriter(Long userId) {
+        Long at = lastWrite.get(userId);
+        if (at == null) {
+            return false;
+        }
+        if (nanoClock.getAsLong() - at < windowNanos) {
+            return true;
+        }
+        lastWrite.remove(userId, at);
+        return false;
+    }
+}
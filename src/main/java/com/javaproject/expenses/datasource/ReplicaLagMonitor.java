@@ -0,0 +1,133 @@
+package com.javaproject.expenses.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the replica data sources and measures how far each one lags behind the primary.
+ * A replica is usable once a check has found it within {@code maxLag}; it stops being usable
+ * when a check finds it further behind or cannot reach it, or when a connection to it fails,
+ * until the next good check. Closing the monitor closes the replicas.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    // Zero when the replica has replayed everything it received: an idle primary is not lag
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    // Last measured lag of each reachable replica; absent while unknown or unreachable
+    private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+    private volatile List<String> usable = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.maxLag = maxLag;
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Returns the names of the replicas reads may use right now, in a stable order.
+     */
+    public List<String> usableReplicas() {
+        return usable;
+    }
+
+    /**
+     * Returns the last measured lag of the replica in seconds, or NaN if it is unknown or unreachable.
+     */
+    public double lagSeconds(String replica) {
+        Duration lag = lags.get(replica);
+        return lag == null ? Double.NaN : lag.toNanos() / 1e9;
+    }
+
+    /**
+     * Measures every replica once.
+     */
+    public void check() {
+        replicas.forEach((name, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                update(name, Duration.ofNanos((long) (rs.getDouble(1) * 1e9)));
+            } catch (SQLException e) {
+                log.warn("Replica {} is unreachable: {}", name, e.getMessage());
+                markDown(name);
+            }
+        });
+    }
+
+    /**
+     * Stops sending reads to the replica until a check finds it healthy again.
+     */
+    public void markDown(String replica) {
+        lags.remove(replica);
+        refresh();
+    }
+
+    /**
+     * Checks every replica now and then every {@code interval} on a daemon thread.
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler == null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-");
+            threadFactory.setDaemon(true);
+            scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            scheduler.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    void update(String replica, Duration lag) {
+        lags.put(replica, lag);
+        refresh();
+    }
+
+    private synchronized void refresh() {
+        List<String> within = new ArrayList<>();
+        for (String name : replicas.keySet()) {
+            Duration lag = lags.get(name);
+            if (lag != null && lag.compareTo(maxLag) <= 0) {
+                within.add(name);
+            }
+        }
+        usable = List.copyOf(within);
+    }
+}
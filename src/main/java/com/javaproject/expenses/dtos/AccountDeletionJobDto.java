@@ -0,0 +1,20 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the progress of a background account deletion.
+ * {@code status} is PENDING, RUNNING or COMPLETED; a failed attempt goes back to PENDING and is retried.
+ */
+@AllArgsConstructor
+@Getter
+public class AccountDeletionJobDto {
+    private UUID id;
+    private String status;
+    private long deletedTransactions;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a user's income and expense totals.
+ * Amounts are always positive; the category type decides which side they count towards.
+ */
+@AllArgsConstructor
+@Getter
+public class BalanceDto {
+    private BigDecimal income;
+    private BigDecimal expense;
+    private BigDecimal net; // income minus expense
+    private long count;
+}
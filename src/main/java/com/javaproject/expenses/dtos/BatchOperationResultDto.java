@@ -0,0 +1,17 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data Transfer Object for the outcome of one batch operation.
+ * {@code transaction} is the row as that operation left it, and null for a delete.
+ */
+@AllArgsConstructor
+@Getter
+public class BatchOperationResultDto {
+    private int index; // 0-based position in the request
+    private String op;
+    private Long id;
+    private TransactionDto transaction;
+}
@@ -0,0 +1,14 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Data Transfer Object for an applied transaction batch: one result per operation, in request order.
+ */
+@AllArgsConstructor
+@Getter
+public class BatchResultDto {
+    private List<BatchOperationResultDto> results;
+}
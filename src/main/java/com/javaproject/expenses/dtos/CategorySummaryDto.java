@@ -0,0 +1,18 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a user's total in one category.
+ */
+@AllArgsConstructor
+@Getter
+public class CategorySummaryDto {
+    private Long categoryId;
+    private String name;
+    private String type;
+    private BigDecimal total;
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data Transfer Object for one rejected row of a bulk import.
+ */
+@AllArgsConstructor
+@Getter
+public class ImportErrorDto {
+    private long line; // 1-based line number in the uploaded file
+    private String message;
+}
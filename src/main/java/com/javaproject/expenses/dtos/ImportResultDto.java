@@ -0,0 +1,17 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Data Transfer Object summarizing a bulk import.
+ * {@code errors} lists at most the configured number of rejected rows; {@code failed} counts all of them.
+ */
+@AllArgsConstructor
+@Getter
+public class ImportResultDto {
+    private long imported;
+    private long failed;
+    private List<ImportErrorDto> errors;
+}
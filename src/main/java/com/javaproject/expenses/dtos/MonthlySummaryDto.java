@@ -0,0 +1,19 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for a user's income and expense totals in one calendar month.
+ */
+@AllArgsConstructor
+@Getter
+public class MonthlySummaryDto {
+    private LocalDate month; // first day of the month
+    private BigDecimal income;
+    private BigDecimal expense;
+    private BigDecimal net;
+    private long count;
+}
@@ -0,0 +1,28 @@
+package com.javaproject.expenses.dtos;
+
+import com.javaproject.expenses.recurring.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a recurring transaction rule.
+ * {@code occurrences} counts the transactions created so far; {@code nextRun} is the date of the
+ * next one, or null once the rule has ended.
+ */
+@AllArgsConstructor
+@Getter
+public class RecurringTransactionDto {
+    private Long id;
+    private Long categoryId;
+    private BigDecimal amount;
+    private String description;
+    private RecurrenceFrequency frequency;
+    private int every;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private LocalDateTime nextRun;
+    private long occurrences;
+    private LocalDateTime createdAt;
+}
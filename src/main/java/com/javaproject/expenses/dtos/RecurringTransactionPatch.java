@@ -0,0 +1,29 @@
+package com.javaproject.expenses.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Partial update of a recurring transaction. Absent (null) fields are left unchanged.
+ * Only occurrences created from then on are affected. The schedule itself cannot change, except
+ * for its end; delete the rule and create another instead. The end date has the same bounds as
+ * on creation.
+ */
+public record RecurringTransactionPatch(
+        Long categoryId,
+
+        @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
+        @Digits(integer = 8, fraction = 2, message = "Amount must have at most 8 integer digits and 2 decimals")
+        BigDecimal amount,
+
+        @Pattern(regexp = ".*\\S.*", message = "Description is required")
+        @Size(max = 255, message = "Description cannot exceed 255 characters")
+        String description,
+
+        LocalDateTime endDate
+) {
+}
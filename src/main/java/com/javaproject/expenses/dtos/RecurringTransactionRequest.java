@@ -0,0 +1,45 @@
+package com.javaproject.expenses.dtos;
+
+import com.javaproject.expenses.recurring.RecurrenceFrequency;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fields a client supplies when creating a recurring transaction.
+ * The transaction fields have the same constraints as {@link TransactionRequest}. The rule repeats
+ * every {@code every} (default 1) days, weeks, months or years from {@code startDate} (default now)
+ * until {@code endDate}, if given. A start in the past creates the occurrences since then, up to
+ * {@code expenses.recurring.max-backfill} of them. Dates must fall within years 1900 to 9999.
+ */
+public record RecurringTransactionRequest(
+        @NotNull(message = "Category is required")
+        Long categoryId,
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
+        @Digits(integer = 8, fraction = 2, message = "Amount must have at most 8 integer digits and 2 decimals")
+        BigDecimal amount,
+
+        @NotBlank(message = "Description is required")
+        @Size(max = 255, message = "Description cannot exceed 255 characters")
+        String description,
+
+        @NotNull(message = "Frequency is required")
+        RecurrenceFrequency frequency,
+
+        @Min(value = 1, message = "Every must be at least 1")
+        @Max(value = 1000, message = "Every must be at most 1000")
+        Integer every,
+
+        LocalDateTime startDate,
+
+        LocalDateTime endDate
+) {
+}
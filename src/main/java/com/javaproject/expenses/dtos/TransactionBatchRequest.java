@@ -0,0 +1,15 @@
+package com.javaproject.expenses.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Ordered list of operations applied together by {@code POST /api/transactions/batch}.
+ */
+public record TransactionBatchRequest(
+        @NotEmpty(message = "Operations are required")
+        List<@NotNull(message = "Operation is required") @Valid TransactionOperation> operations
+) {
+}
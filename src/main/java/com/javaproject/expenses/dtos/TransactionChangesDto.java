@@ -0,0 +1,20 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the changes to a user's transactions since a sync token.
+ * {@code changed} holds created and updated transactions as they are now, {@code deleted} the
+ * ids of deleted ones. {@code next} is the token for the following request; when
+ * {@code hasMore} is true it can be sent at once for the rest of the changes.
+ */
+@AllArgsConstructor
+@Getter
+public class TransactionChangesDto {
+    private List<TransactionDto> changed;
+    private List<Long> deleted;
+    private String next;
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+package com.javaproject.expenses.dtos;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Query parameters accepted by the transaction listing.
+ * Every field is optional; absent fields do not restrict the result.
+ *
+ * @param from inclusive lower bound on the transaction date
+ * @param to exclusive upper bound on the transaction date
+ * @param categoryId category ids to include
+ * @param type category type to include (INCOME or EXPENSE)
+ * @param minAmount inclusive lower bound on the amount
+ * @param maxAmount inclusive upper bound on the amount
+ */
+public record TransactionFilter(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        List<Long> categoryId,
+        String type,
+        BigDecimal minAmount,
+        BigDecimal maxAmount
+) {
+}
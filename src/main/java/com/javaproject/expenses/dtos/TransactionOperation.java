@@ -0,0 +1,43 @@
+package com.javaproject.expenses.dtos;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One entry of a transaction batch, tagged by its {@code op} field:
+ * {@code create} carries a full transaction, {@code update} an id and the fields to change,
+ * {@code delete} just an id.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "op")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = TransactionOperation.Create.class, name = "create"),
+        @JsonSubTypes.Type(value = TransactionOperation.Update.class, name = "update"),
+        @JsonSubTypes.Type(value = TransactionOperation.Delete.class, name = "delete")
+})
+public sealed interface TransactionOperation {
+
+    record Create(
+            @NotNull(message = "Transaction is required")
+            @Valid
+            TransactionRequest transaction
+    ) implements TransactionOperation {
+    }
+
+    record Update(
+            @NotNull(message = "Transaction id is required")
+            Long id,
+
+            @NotNull(message = "Transaction is required")
+            @Valid
+            TransactionPatch transaction
+    ) implements TransactionOperation {
+    }
+
+    record Delete(
+            @NotNull(message = "Transaction id is required")
+            Long id
+    ) implements TransactionOperation {
+    }
+}
@@ -0,0 +1,16 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a cursor-paginated transaction listing.
+ * {@code nextCursor} is null when there are no further pages.
+ */
+@AllArgsConstructor
+@Getter
+public class TransactionPageDto {
+    private List<TransactionDto> items;
+    private String nextCursor;
+}
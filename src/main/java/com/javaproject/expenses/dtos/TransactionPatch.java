@@ -0,0 +1,27 @@
+package com.javaproject.expenses.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Partial update of a transaction. Absent (null) fields are left unchanged;
+ * present fields must satisfy the same constraints as on create.
+ */
+public record TransactionPatch(
+        Long categoryId,
+
+        @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
+        @Digits(integer = 8, fraction = 2, message = "Amount must have at most 8 integer digits and 2 decimals")
+        BigDecimal amount,
+
+        @Pattern(regexp = ".*\\S.*", message = "Description is required")
+        @Size(max = 255, message = "Description cannot exceed 255 characters")
+        String description,
+
+        LocalDateTime transactionDate
+) {
+}
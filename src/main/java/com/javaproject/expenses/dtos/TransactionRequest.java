@@ -0,0 +1,30 @@
+package com.javaproject.expenses.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fields a client supplies when creating a transaction.
+ * Bound directly from the JSON body; the constraints mirror the {@code transactions} columns.
+ */
+public record TransactionRequest(
+        @NotNull(message = "Category is required")
+        Long categoryId,
+
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
+        @Digits(integer = 8, fraction = 2, message = "Amount must have at most 8 integer digits and 2 decimals")
+        BigDecimal amount,
+
+        @NotBlank(message = "Description is required")
+        @Size(max = 255, message = "Description cannot exceed 255 characters")
+        String description,
+
+        LocalDateTime transactionDate
+) {
+}
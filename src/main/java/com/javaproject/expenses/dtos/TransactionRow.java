@@ -0,0 +1,18 @@
+package com.javaproject.expenses.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only projection of a transaction row, selected directly by JPQL.
+ * Used on streaming paths so no entity or {@link TransactionDto} is materialized per row.
+ */
+public record TransactionRow(
+        Long id,
+        Long categoryId,
+        BigDecimal amount,
+        String description,
+        LocalDateTime transactionDate,
+        LocalDateTime createdAt
+) {
+}
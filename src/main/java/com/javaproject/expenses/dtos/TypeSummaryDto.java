@@ -0,0 +1,16 @@
+package com.javaproject.expenses.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a user's total across all categories of one type.
+ */
+@AllArgsConstructor
+@Getter
+public class TypeSummaryDto {
+    private String type; // "INCOME" or "EXPENSE"
+    private BigDecimal total;
+    private long count;
+}
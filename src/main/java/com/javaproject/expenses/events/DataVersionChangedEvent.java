@@ -0,0 +1,15 @@
+package com.javaproject.expenses.events;
+
+import java.util.List;
+
+/**
+ * Published inside the writing database transaction once {@code users.data_version} has been
+ * bumped for a {@link TransactionsChangedEvent}. Versions are unique per user, and a user's
+ * versions commit in increasing order, since the bump locks the user's row.
+ *
+ * @param userId the owner of the changed transactions
+ * @param version the user's data version after the writes
+ * @param changes the writes, in the order they were applied
+ */
+public record DataVersionChangedEvent(Long userId, long version, List<TransactionChange> changes) {
+}
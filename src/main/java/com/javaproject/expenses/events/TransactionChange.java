@@ -0,0 +1,20 @@
+package com.javaproject.expenses.events;
+
+/**
+ * One transaction write: the row before and after it.
+ * {@code before} is null for a create and {@code after} is null for a delete.
+ */
+public record TransactionChange(TransactionSnapshot before, TransactionSnapshot after) {
+
+    public static TransactionChange created(TransactionSnapshot after) {
+        return new TransactionChange(null, after);
+    }
+
+    public static TransactionChange updated(TransactionSnapshot before, TransactionSnapshot after) {
+        return new TransactionChange(before, after);
+    }
+
+    public static TransactionChange deleted(TransactionSnapshot before) {
+        return new TransactionChange(before, null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.javaproject.expenses.events;
+
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.models.Transaction;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the fields of a transaction that derived data depends on.
+ *
+ * @param id the transaction id
+ * @param categoryId the category the transaction is filed under
+ * @param categoryType INCOME or EXPENSE
+ * @param amount the transaction amount
+ * @param transactionDate when the transaction happened
+ * @param description the description, for the change feed
+ */
+public record TransactionSnapshot(
+        Long id,
+        Long categoryId,
+        String categoryType,
+        BigDecimal amount,
+        LocalDateTime transactionDate,
+        String description
+) {
+
+    /**
+     * Captures the current state of a transaction entity.
+     * The category type is passed in so an uninitialized category proxy is not loaded.
+     */
+    public static TransactionSnapshot of(Transaction transaction, String categoryType) {
+        return new TransactionSnapshot(
+                transaction.getId(),
+                transaction.getCategory().getId(),
+                categoryType,
+                transaction.getAmount(),
+                transaction.getTransactionDate(),
+                transaction.getDescription()
+        );
+    }
+
+    /**
+     * Captures a transaction row read without an entity.
+     */
+    public static TransactionSnapshot of(TransactionRow row, String categoryType) {
+        return new TransactionSnapshot(
+                row.id(),
+                row.categoryId(),
+                categoryType,
+                row.amount(),
+                row.transactionDate(),
+                row.description()
+        );
+    }
+}
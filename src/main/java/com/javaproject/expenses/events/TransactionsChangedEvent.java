@@ -0,0 +1,14 @@
+package com.javaproject.expenses.events;
+
+import java.util.List;
+
+/**
+ * Published inside the database transaction that wrote one or more of a user's transactions.
+ * Plain {@code @EventListener}s run in that same transaction; use
+ * {@code @TransactionalEventListener} to react only once it has committed.
+ *
+ * @param userId the owner of the changed transactions
+ * @param changes the writes, in the order they were applied
+ */
+public record TransactionsChangedEvent(Long userId, List<TransactionChange> changes) {
+}
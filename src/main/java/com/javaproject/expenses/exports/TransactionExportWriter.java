@@ -0,0 +1,129 @@
+package com.javaproject.expenses.exports;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.javaproject.expenses.dtos.TransactionRow;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes transaction rows to an output stream one at a time, holding no row after it is written.
+ * Field names and date formats match {@code TransactionDto} as serialized by the REST API.
+ */
+public class TransactionExportWriter {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String CSV_HEADER = "id,userId,categoryId,amount,description,transactionDate,createdAt\n";
+
+    private final JsonFactory jsonFactory;
+
+    public TransactionExportWriter(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Writes the rows in the given format and flushes, without closing the output stream.
+     */
+    public void write(ExportFormat format, Long userId, Stream<TransactionRow> rows, OutputStream out)
+            throws IOException {
+        switch (format) {
+            case CSV -> writeCsv(userId, rows, out);
+            case NDJSON -> writeJson(userId, rows, out, false);
+        }
+    }
+
+    /**
+     * Writes the rows as a single JSON array of transaction objects.
+     */
+    public void writeJsonArray(Long userId, Stream<TransactionRow> rows, OutputStream out) throws IOException {
+        writeJson(userId, rows, out, true);
+    }
+
+    private void writeCsv(Long userId, Stream<TransactionRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        String owner = String.valueOf(userId);
+
+        Iterator<TransactionRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            TransactionRow row = iterator.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(owner);
+            writer.write(',');
+            writer.write(String.valueOf(row.categoryId()));
+            writer.write(',');
+            writer.write(row.amount().toPlainString());
+            writer.write(',');
+            writeCsvField(writer, row.description());
+            writer.write(',');
+            writer.write(DATE_TIME.format(row.transactionDate()));
+            writer.write(',');
+            if (row.createdAt() != null) {
+                writer.write(DATE_TIME.format(row.createdAt()));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJson(Long userId, Stream<TransactionRow> rows, OutputStream out, boolean asArray)
+            throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!asArray) {
+                generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            }
+            if (asArray) {
+                generator.writeStartArray();
+            }
+            rows.forEach(row -> writeJsonRow(generator, userId, row));
+            if (asArray) {
+                generator.writeEndArray();
+            } else {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private static void writeJsonRow(JsonGenerator generator, Long userId, TransactionRow row) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.id());
+            generator.writeNumberField("userId", userId);
+            generator.writeNumberField("categoryId", row.categoryId());
+            generator.writeNumberField("amount", row.amount());
+            generator.writeStringField("description", row.description());
+            generator.writeStringField("transactionDate", DATE_TIME.format(row.transactionDate()));
+            generator.writeStringField("createdAt",
+                    row.createdAt() == null ? null : DATE_TIME.format(row.createdAt()));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
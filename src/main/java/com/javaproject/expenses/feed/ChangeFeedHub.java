@@ -0,0 +1,231 @@
+package com.javaproject.expenses.feed;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of change-feed events to the open connections of each user.
+ *
+ * <p>The last {@code historySize} events of each user are kept, so a client that reconnects with
+ * a {@code Last-Event-ID} gets what it missed. When the history cannot show that nothing was
+ * missed, because it has been trimmed or a version never reached this node, the client gets a
+ * single {@link FeedEvent#resync} event instead. Histories of up to {@code maxUsers} users are
+ * kept; beyond that, users without open connections lose theirs.
+ */
+public class ChangeFeedHub {
+
+    private final int historySize;
+    private final int bufferSize;
+    private final int maxUsers;
+    private final Executor executor;
+    private final Map<Long, UserFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicLong subscribers = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+
+    private static final class UserFeed {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Ordered by event position
+        private final ArrayDeque<FeedEvent> history = new ArrayDeque<>();
+        private final List<FeedSubscriber> subscribers = new ArrayList<>();
+        private boolean evicted;
+    }
+
+    /**
+     * @param historySize events kept per user for resuming
+     * @param bufferSize events queued per connection before it is dropped as too slow
+     * @param maxUsers users whose history is kept while they have no open connection
+     * @param executor runs the writes to the clients
+     */
+    public ChangeFeedHub(int historySize, int bufferSize, int maxUsers, Executor executor) {
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.maxUsers = maxUsers;
+        this.executor = executor;
+    }
+
+    /**
+     * Records the events in the user's history and queues them on every open connection.
+     */
+    public void publish(Long userId, List<FeedEvent> events) {
+        UserFeed feed = lockedFeed(userId);
+        try {
+            for (FeedEvent event : events) {
+                addToHistory(feed, event);
+                feed.subscribers.removeIf(subscriber -> {
+                    if (subscriber.offer(event)) {
+                        return false;
+                    }
+                    subscribers.decrementAndGet();
+                    return true;
+                });
+            }
+        } finally {
+            feed.lock.unlock();
+        }
+        evictIdleUsers();
+    }
+
+    /**
+     * Sends a resync event without an id to every open connection, for when events may have
+     * been lost, e.g. while the cross-node listener was disconnected.
+     */
+    public void resyncAll() {
+        forEachSubscriber(subscriber -> subscriber.offer(FeedSubscriber.RESYNC_WITHOUT_ID));
+    }
+
+    /**
+     * Opens the user's feed on the emitter, first replaying the events after {@code last}.
+     *
+     * @param last the position the client has seen, or null to start with new events
+     * @param currentVersion the user's current data version, or null if unknown
+     */
+    public void subscribe(Long userId, SseEmitter emitter, FeedEvent.Position last, Long currentVersion) {
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, bufferSize, executor, slowDisconnects::incrementAndGet);
+        UserFeed feed = lockedFeed(userId);
+        try {
+            if (last != null) {
+                for (FeedEvent event : missedEvents(feed, last, currentVersion)) {
+                    subscriber.offer(event);
+                }
+            }
+            feed.subscribers.add(subscriber);
+            subscribers.incrementAndGet();
+        } finally {
+            feed.lock.unlock();
+        }
+
+        Runnable remove = () -> remove(userId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+    }
+
+    /**
+     * Writes a comment to every open connection so proxies do not close idle ones.
+     */
+    public void heartbeat() {
+        forEachSubscriber(subscriber -> subscriber.offer(FeedSubscriber.HEARTBEAT));
+    }
+
+    /**
+     * Ends every open connection; clients reconnect with their {@code Last-Event-ID}.
+     */
+    public void disconnectAll() {
+        forEachSubscriber(FeedSubscriber::disconnect);
+    }
+
+    public long subscriberCount() {
+        return subscribers.get();
+    }
+
+    public long slowDisconnectCount() {
+        return slowDisconnects.get();
+    }
+
+    /**
+     * Returns the events after {@code last}, or a single resync event when the history does not
+     * prove that they are all there: every version up to the current one must be present, and a
+     * client that saw only part of a version needs the history to reach back to that part.
+     */
+    private List<FeedEvent> missedEvents(UserFeed feed, FeedEvent.Position last, Long currentVersion) {
+        List<FeedEvent> missed = feed.history.stream().filter(event -> event.isAfter(last)).toList();
+        long latest = currentVersion != null ? currentVersion : last.version();
+        for (FeedEvent event : missed) {
+            latest = Math.max(latest, event.version());
+        }
+        if (latest == last.version() && last.coversVersion()) {
+            return missed;
+        }
+
+        long versions = missed.stream().mapToLong(FeedEvent::version).filter(v -> v > last.version()).distinct().count();
+        boolean reachesBack = last.coversVersion()
+                || !feed.history.isEmpty() && !feed.history.peekFirst().isAfter(last);
+        boolean complete = versions == latest - last.version() && reachesBack
+                && missed.stream().noneMatch(event -> FeedEvent.RESYNC.equals(event.name()));
+        return complete ? missed : List.of(FeedEvent.resync(latest));
+    }
+
+    private void addToHistory(UserFeed feed, FeedEvent event) {
+        // Events from other nodes can arrive out of order; keep the history sorted
+        List<FeedEvent> later = new ArrayList<>();
+        while (!feed.history.isEmpty() && feed.history.peekLast().isAfter(
+                new FeedEvent.Position(event.version(), event.index()))) {
+            later.add(0, feed.history.pollLast());
+        }
+        feed.history.addLast(event);
+        feed.history.addAll(later);
+        while (feed.history.size() > historySize) {
+            feed.history.pollFirst();
+        }
+    }
+
+    private void remove(Long userId, FeedSubscriber subscriber) {
+        subscriber.close();
+        UserFeed feed = feeds.get(userId);
+        if (feed == null) {
+            return;
+        }
+        feed.lock.lock();
+        try {
+            if (feed.subscribers.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+        } finally {
+            feed.lock.unlock();
+        }
+    }
+
+    private void forEachSubscriber(Consumer<FeedSubscriber> action) {
+        for (UserFeed feed : feeds.values()) {
+            List<FeedSubscriber> open;
+            feed.lock.lock();
+            try {
+                open = List.copyOf(feed.subscribers);
+            } finally {
+                feed.lock.unlock();
+            }
+            open.forEach(action);
+        }
+    }
+
+    private void evictIdleUsers() {
+        Iterator<UserFeed> iterator = feeds.values().iterator();
+        while (feeds.size() > maxUsers && iterator.hasNext()) {
+            UserFeed feed = iterator.next();
+            if (!feed.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (feed.subscribers.isEmpty()) {
+                    feed.evicted = true;
+                    iterator.remove();
+                }
+            } finally {
+                feed.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the user's feed with its lock held; a feed evicted meanwhile is replaced.
+     */
+    private UserFeed lockedFeed(Long userId) {
+        while (true) {
+            UserFeed feed = feeds.computeIfAbsent(userId, id -> new UserFeed());
+            feed.lock.lock();
+            if (!feed.evicted) {
+                return feed;
+            }
+            feed.lock.unlock();
+        }
+    }
+}
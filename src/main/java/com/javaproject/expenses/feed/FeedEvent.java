@@ -0,0 +1,60 @@
+package com.javaproject.expenses.feed;
+
+/**
+ * One server-sent event of a user's change feed.
+ * Events are identified by the user's data version and their index within that version, written
+ * as {@code <version>.<index>}. A {@link #resync} event stands for a whole version and is written
+ * as just {@code <version>}; it tells the client to reload instead of applying changes.
+ *
+ * @param version the user's data version after the write
+ * @param index position of the change within the write
+ * @param name created, updated, deleted or resync
+ * @param data JSON body of the event
+ */
+public record FeedEvent(long version, int index, String name, String data) {
+
+    public static final String RESYNC = "resync";
+
+    private static final int WHOLE_VERSION = Integer.MAX_VALUE;
+
+    /**
+     * An event telling the client that changes up to {@code version} cannot be replayed.
+     */
+    public static FeedEvent resync(long version) {
+        return new FeedEvent(version, WHOLE_VERSION, RESYNC, "{}");
+    }
+
+    public String id() {
+        return index == WHOLE_VERSION ? Long.toString(version) : version + "." + index;
+    }
+
+    /**
+     * Whether this event comes after the given position in the feed.
+     */
+    public boolean isAfter(Position position) {
+        return version > position.version() || version == position.version() && index > position.index();
+    }
+
+    /**
+     * Last position a client has seen, parsed from its {@code Last-Event-ID}.
+     */
+    public record Position(long version, int index) {
+
+        public boolean coversVersion() {
+            return index == WHOLE_VERSION;
+        }
+
+        /**
+         * Parses an event id produced by {@link FeedEvent#id()}.
+         *
+         * @throws IllegalArgumentException if the id is malformed
+         */
+        public static Position parse(String id) {
+            int dot = id.indexOf('.');
+            if (dot < 0) {
+                return new Position(Long.parseLong(id), WHOLE_VERSION);
+            }
+            return new Position(Long.parseLong(id.substring(0, dot)), Integer.parseInt(id.substring(dot + 1)));
+        }
+    }
+}
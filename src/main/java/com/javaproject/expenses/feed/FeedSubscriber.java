@@ -0,0 +1,103 @@
+package com.javaproject.expenses.feed;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * One open change-feed connection with a bounded queue of events not yet written.
+ * Publishers only enqueue; a task on the executor writes the queue to the client, so a slow
+ * client never blocks them. A client that falls {@code capacity} events behind is disconnected
+ * and can resume from its {@code Last-Event-ID}.
+ */
+class FeedSubscriber {
+
+    // Queued in place of an event to write an SSE comment, which keeps idle connections open
+    static final FeedEvent HEARTBEAT = new FeedEvent(0, 0, null, null);
+    // A resync that leaves the client's Last-Event-ID as it is
+    static final FeedEvent RESYNC_WITHOUT_ID = new FeedEvent(0, 0, FeedEvent.RESYNC, "{}");
+
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Executor executor;
+    private final Runnable onOverflow;
+    private final ArrayDeque<FeedEvent> queue = new ArrayDeque<>();
+    private boolean draining;
+    private boolean closed;
+
+    FeedSubscriber(SseEmitter emitter, int capacity, Executor executor, Runnable onOverflow) {
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.onOverflow = onOverflow;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Queues the event for writing, disconnecting the client if its queue is full.
+     *
+     * @return false if the subscriber is closed, now or already
+     */
+    boolean offer(FeedEvent event) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (queue.size() < capacity) {
+                queue.add(event);
+                if (!draining) {
+                    draining = true;
+                    executor.execute(this::drain);
+                }
+                return true;
+            }
+            closed = true;
+            queue.clear();
+        }
+        onOverflow.run();
+        emitter.complete();
+        return false;
+    }
+
+    /**
+     * Stops writing and ends the response.
+     */
+    void disconnect() {
+        close();
+        emitter.complete();
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void drain() {
+        while (true) {
+            FeedEvent event;
+            synchronized (this) {
+                event = closed ? null : queue.poll();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment(""));
+                } else if (event == RESYNC_WITHOUT_ID) {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                } else {
+                    emitter.send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone; the container reports it through the emitter's callbacks
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.javaproject.expenses.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Carries change-feed events between nodes over Postgres {@code LISTEN/NOTIFY}.
+ * Notifications are sent on the caller's connection, so one sent inside a database transaction
+ * is delivered only if it commits. Listening uses a dedicated connection outside the pool, on a
+ * thread of its own, and reconnects after a failure; since notifications sent meanwhile are
+ * lost, {@code onReconnect} runs once listening has resumed.
+ */
+@Slf4j
+public class PgChangeChannel implements AutoCloseable {
+
+    static final String CHANNEL = "transaction_changes";
+    // Postgres rejects payloads of 8000 bytes or more
+    public static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private volatile boolean running;
+    private Thread listener;
+
+    public PgChangeChannel(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    /**
+     * Sends a notification on the current connection; inside a transaction it is delivered on commit.
+     */
+    public void send(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> {
+        }, CHANNEL, payload);
+    }
+
+    /**
+     * Starts listening; every notification's payload is passed to {@code onNotification},
+     * this node's own included.
+     */
+    public synchronized void start(Consumer<String> onNotification, Runnable onReconnect) {
+        if (listener != null) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("change-feed-listener").daemon().start(() -> listen(onNotification, onReconnect));
+    }
+
+    private void listen(Consumer<String> onNotification, Runnable onReconnect) {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                if (reconnecting) {
+                    log.info("Change feed listener reconnected");
+                    onReconnect.run();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            onNotification.accept(notification.getParameter());
+                        } catch (RuntimeException e) {
+                            log.warn("Ignoring change notification that could not be handled", e);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Change feed listener lost its connection, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(RETRY_DELAY);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.join(POLL_TIMEOUT.multipliedBy(2).toMillis());
+            listener = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.javaproject.expenses.imports;
+
+import com.javaproject.expenses.dtos.TransactionRequest;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One parsed row of an import file: either a request or the reason it could not be parsed.
+ *
+ * @param line 1-based line number of the row in the input
+ * @param request the parsed row, or null if parsing failed
+ * @param error the parse error, or null if parsing succeeded
+ */
+public record ImportRecord(long line, TransactionRequest request, String error) {
+
+    public static ImportRecord failed(long line, String error) {
+        return new ImportRecord(line, null, error);
+    }
+
+    /**
+     * Converts raw field text into a request, reporting the first field that does not parse.
+     * The transaction date may be an ISO date-time or a plain ISO date.
+     */
+    public static ImportRecord parse(long line, String categoryId, String amount, String description,
+                                     String transactionDate) {
+        if (isBlank(categoryId)) {
+            return failed(line, "categoryId is required");
+        }
+        if (isBlank(amount)) {
+            return failed(line, "amount is required");
+        }
+
+        Long parsedCategoryId;
+        try {
+            parsedCategoryId = Long.valueOf(categoryId.trim());
+        } catch (NumberFormatException e) {
+            return failed(line, "Invalid categoryId: " + categoryId);
+        }
+
+        BigDecimal parsedAmount;
+        try {
+            parsedAmount = new BigDecimal(amount.trim());
+        } catch (NumberFormatException e) {
+            return failed(line, "Invalid amount: " + amount);
+        }
+
+        LocalDateTime parsedDate = null;
+        if (!isBlank(transactionDate)) {
+            String value = transactionDate.trim();
+            try {
+                parsedDate = value.length() == 10
+                        ? LocalDate.parse(value).atStartOfDay()
+                        : LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                return failed(line, "Invalid transactionDate: " + transactionDate);
+            }
+        }
+
+        return new ImportRecord(line,
+                new TransactionRequest(parsedCategoryId, parsedAmount, description, parsedDate), null);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
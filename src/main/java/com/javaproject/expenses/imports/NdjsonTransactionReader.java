@@ -0,0 +1,57 @@
+package com.javaproject.expenses.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads transactions from newline-delimited JSON, one object per line.
+ * Each line is parsed on its own, so a malformed line is reported without aborting the import.
+ */
+public class NdjsonTransactionReader implements TransactionRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader jsonReader;
+    private long line;
+
+    public NdjsonTransactionReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.jsonReader = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = jsonReader.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ImportRecord.failed(line, "Malformed JSON");
+        }
+        if (!node.isObject()) {
+            return ImportRecord.failed(line, "Expected a JSON object");
+        }
+        return ImportRecord.parse(line,
+                text(node, "categoryId"),
+                text(node, "amount"),
+                text(node, "description"),
+                text(node, "transactionDate"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,17 @@
+package com.javaproject.expenses.imports;
+
+import java.io.IOException;
+
+/**
+ * Incremental reader over an import file; holds at most one row in memory at a time.
+ */
+public interface TransactionRecordReader {
+
+    /**
+     * Reads the next row.
+     *
+     * @return the next row, or null at the end of the input
+     * @throws IOException if the underlying stream fails
+     */
+    ImportRecord next() throws IOException;
+}
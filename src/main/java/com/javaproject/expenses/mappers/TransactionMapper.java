@@ -1,6 +1,7 @@
 package com.javaproject.expenses.mappers;
 
 import com.javaproject.expenses.dtos.TransactionDto;
+import com.javaproject.expenses.dtos.TransactionRow;
 import com.javaproject.expenses.models.Transaction;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -13,4 +14,9 @@ public interface TransactionMapper {
     @Mapping(source = "user.id", target = "userId")
     @Mapping(source = "category.id", target = "categoryId")
     TransactionDto toDto(Transaction transaction);
-}
\ No newline at end of file
+
+    /**
+     * Maps a row read without an entity; the owner is passed in since the row does not carry it.
+     */
+    TransactionDto toDto(TransactionRow row, Long userId);
+}
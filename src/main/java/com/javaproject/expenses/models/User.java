@@ -48,6 +48,12 @@ public class User implements UserDetails {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * Incremented whenever the email or password changes; carried in auth tokens.
+     */
+    @Column(name = "token_version")
+    private long tokenVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Transaction> transactions = new ArrayList<>();
 
@@ -0,0 +1,70 @@
+package com.javaproject.expenses.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * A client's position in the changes to its transactions, serialized as an opaque URL-safe
+ * token like {@link TransactionCursor}.
+ * The client has every change visible in the database snapshot {@code since}. While the changes
+ * are returned in several pages, {@code until} is the snapshot the pages read up to, and
+ * {@code afterXid} and {@code afterId} are the last change returned.
+ */
+public record SyncToken(Snapshot since, Snapshot until, String afterXid, Long afterId) {
+
+    private static final String SEPARATOR = "|";
+    private static final Pattern SNAPSHOT = Pattern.compile("\\d+:\\d+:[\\d,]*");
+    private static final Pattern XID = Pattern.compile("\\d+");
+
+    /**
+     * A database snapshot in its {@code pg_snapshot} text form, and when it was taken.
+     */
+    public record Snapshot(String value, LocalDateTime takenAt) {
+    }
+
+    /**
+     * A token for a client that has everything visible in the snapshot.
+     */
+    public static SyncToken at(Snapshot snapshot) {
+        return new SyncToken(snapshot, null, null, null);
+    }
+
+    /**
+     * Encodes this position as an opaque token.
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                since.value(), since.takenAt().toString(),
+                until == null ? "" : until.value(), until == null ? "" : until.takenAt().toString(),
+                afterXid == null ? "" : afterXid, afterId == null ? "" : afterId.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 6 || !SNAPSHOT.matcher(parts[0]).matches()) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            Snapshot since = new Snapshot(parts[0], LocalDateTime.parse(parts[1]));
+            if (parts[2].isEmpty()) {
+                return at(since);
+            }
+            if (!SNAPSHOT.matcher(parts[2]).matches() || !XID.matcher(parts[4]).matches()) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return new SyncToken(since, new Snapshot(parts[2], LocalDateTime.parse(parts[3])),
+                    parts[4], Long.valueOf(parts[5]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.javaproject.expenses.pagination;
+
+import com.javaproject.expenses.models.Transaction;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a transaction listing: the sort key and id of the last row returned.
+ * Serialized to clients as an opaque URL-safe token that also records the ordering it belongs to.
+ */
+public record TransactionCursor(TransactionSort sort, String key, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Builds the cursor that continues a listing after the given row.
+     */
+    public static TransactionCursor after(TransactionSort sort, Transaction last) {
+        return new TransactionCursor(sort, sort.keyOf(last), last.getId());
+    }
+
+    /**
+     * Returns the sort key parsed into the attribute's Java type.
+     */
+    public Comparable<?> parsedKey() {
+        return sort.parseKey(key);
+    }
+
+    /**
+     * Encodes this position as an opaque token.
+     */
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            TransactionCursor cursor = new TransactionCursor(
+                    TransactionSort.valueOf(parts[0]), parts[1], Long.valueOf(parts[2]));
+            cursor.parsedKey();
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
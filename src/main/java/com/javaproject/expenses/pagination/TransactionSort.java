@@ -0,0 +1,77 @@
+package com.javaproject.expenses.pagination;
+
+import com.javaproject.expenses.models.Transaction;
+import org.springframework.data.domain.Sort;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Supported orderings for transaction listings.
+ * Every ordering breaks ties on {@code id} in the same direction, which keeps keyset pagination stable.
+ */
+public enum TransactionSort {
+    DATE_DESC("transactionDate", Sort.Direction.DESC),
+    DATE_ASC("transactionDate", Sort.Direction.ASC),
+    AMOUNT_DESC("amount", Sort.Direction.DESC),
+    AMOUNT_ASC("amount", Sort.Direction.ASC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    TransactionSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return direction.isAscending();
+    }
+
+    /**
+     * Returns the Spring Data sort including the {@code id} tie-breaker.
+     */
+    public Sort toSort() {
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Extracts the sort key of a transaction in its cursor representation.
+     */
+    public String keyOf(Transaction transaction) {
+        return switch (this) {
+            case DATE_DESC, DATE_ASC -> transaction.getTransactionDate().toString();
+            case AMOUNT_DESC, AMOUNT_ASC -> transaction.getAmount().toPlainString();
+        };
+    }
+
+    /**
+     * Parses a cursor sort key back into the attribute's Java type.
+     */
+    public Comparable<?> parseKey(String key) {
+        return switch (this) {
+            case DATE_DESC, DATE_ASC -> LocalDateTime.parse(key);
+            case AMOUNT_DESC, AMOUNT_ASC -> new BigDecimal(key);
+        };
+    }
+
+    /**
+     * Parses a request parameter such as {@code date_desc} or {@code amount_asc}.
+     *
+     * @throws IllegalArgumentException if the value is not a supported ordering
+     */
+    public static TransactionSort fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return DATE_DESC;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + value);
+        }
+    }
+}
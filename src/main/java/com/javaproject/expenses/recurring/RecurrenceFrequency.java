@@ -0,0 +1,53 @@
+package com.javaproject.expenses.recurring;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * How often a recurring transaction repeats.
+ */
+public enum RecurrenceFrequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS),
+    YEARLY(ChronoUnit.YEARS);
+
+    private final ChronoUnit unit;
+
+    RecurrenceFrequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the date of occurrence {@code n}, counting from 0 at {@code start}.
+     * Computed from the start rather than the previous occurrence, so a rule on the 31st
+     * falls on the last day of shorter months and returns to the 31st after them.
+     */
+    public LocalDateTime occurrence(LocalDateTime start, int every, long n) {
+        return start.plus(n * every, unit);
+    }
+
+    /**
+     * Returns the date of occurrence {@code n}, or null if it falls after {@code end}.
+     */
+    public LocalDateTime occurrenceUntil(LocalDateTime start, int every, long n, LocalDateTime end) {
+        LocalDateTime date = occurrence(start, every, n);
+        return end != null && date.isAfter(end) ? null : date;
+    }
+
+    /**
+     * Parses a frequency in any case, from a request body or a database column.
+     *
+     * @throws IllegalArgumentException if the frequency is not supported
+     */
+    @JsonCreator
+    public static RecurrenceFrequency fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid frequency: " + value);
+        }
+    }
+}
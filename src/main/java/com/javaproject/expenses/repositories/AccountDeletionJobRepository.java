@@ -0,0 +1,127 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.AccountDeletionJobDto;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads and writes {@code account_deletion_jobs}, the progress of background account deletions.
+ * A node works on a job only while it holds the job's lease (see V15); leases are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so nodes starting together never take the same job.
+ */
+@AllArgsConstructor
+@Repository
+public class AccountDeletionJobRepository {
+
+    private static final String COLUMNS = "id, status, deleted_transactions, created_at, finished_at";
+
+    private static final String LEASE_END = "now() + CAST(? AS bigint) * INTERVAL '1 millisecond'";
+
+    private static final RowMapper<AccountDeletionJobDto> JOB = (rs, rowNum) -> new AccountDeletionJobDto(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            rs.getLong(3),
+            rs.getObject(4, LocalDateTime.class),
+            rs.getObject(5, LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A job that has not finished yet and the user it deletes.
+     */
+    public record UnfinishedJob(UUID id, Long userId) {
+    }
+
+    /**
+     * Records a new PENDING job for the user, leased to {@code node}, unless one is already unfinished.
+     *
+     * @return the new job, or empty if the user already has an unfinished one
+     */
+    public Optional<AccountDeletionJobDto> create(Long userId, UUID node, Duration lease) {
+        return jdbcTemplate.query(
+                "INSERT INTO account_deletion_jobs (id, user_id, status, claimed_by, claimed_until)"
+                        + " VALUES (?, ?, 'PENDING', ?, " + LEASE_END + ")"
+                        + " ON CONFLICT (user_id) WHERE status IN ('PENDING', 'RUNNING') DO NOTHING"
+                        + " RETURNING " + COLUMNS,
+                JOB, UUID.randomUUID(), userId, node, lease.toMillis()).stream().findFirst();
+    }
+
+    public Optional<AccountDeletionJobDto> findUnfinished(Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM account_deletion_jobs"
+                + " WHERE user_id = ? AND status IN ('PENDING', 'RUNNING')", JOB, userId).stream().findFirst();
+    }
+
+    public Optional<AccountDeletionJobDto> find(UUID id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM account_deletion_jobs WHERE id = ?", JOB, id)
+                .stream().findFirst();
+    }
+
+    /**
+     * Leases up to {@code limit} unfinished jobs whose lease has run out to {@code node}, oldest first,
+     * skipping jobs another node is claiming at the same moment.
+     */
+    public List<UnfinishedJob> claimUnfinished(UUID node, Duration lease, int limit) {
+        return jdbcTemplate.query("UPDATE account_deletion_jobs SET claimed_by = ?, claimed_until = " + LEASE_END
+                        + " WHERE id IN (SELECT id FROM account_deletion_jobs"
+                        + " WHERE status IN ('PENDING', 'RUNNING') AND (claimed_until IS NULL OR claimed_until < now())"
+                        + " ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED)"
+                        + " RETURNING id, user_id",
+                (rs, rowNum) -> new UnfinishedJob(rs.getObject(1, UUID.class), rs.getLong(2)),
+                node, lease.toMillis(), limit);
+    }
+
+    /**
+     * Marks the job RUNNING and extends its lease, if it is unfinished and {@code node} holds the
+     * lease or the lease has run out.
+     *
+     * @return false if the job has finished or another node holds it
+     */
+    public boolean markRunning(UUID id, UUID node, Duration lease) {
+        return jdbcTemplate.update("UPDATE account_deletion_jobs"
+                        + " SET status = 'RUNNING', claimed_by = ?, claimed_until = " + LEASE_END
+                        + " WHERE id = ? AND status IN ('PENDING', 'RUNNING')"
+                        + " AND (claimed_by = ? OR claimed_until IS NULL OR claimed_until < now())",
+                node, lease.toMillis(), id, node) > 0;
+    }
+
+    /**
+     * Adds to the job's count and extends its lease, if {@code node} still holds it.
+     *
+     * @return false if another node has taken the job over
+     */
+    public boolean addDeletedTransactions(UUID id, long count, UUID node, Duration lease) {
+        return jdbcTemplate.update("UPDATE account_deletion_jobs"
+                        + " SET deleted_transactions = deleted_transactions + ?, claimed_until = " + LEASE_END
+                        + " WHERE id = ? AND claimed_by = ?",
+                count, lease.toMillis(), id, node) > 0;
+    }
+
+    public void markCompleted(UUID id) {
+        jdbcTemplate.update("UPDATE account_deletion_jobs SET status = 'COMPLETED', finished_at = now() WHERE id = ?",
+                id);
+    }
+
+    /**
+     * Records a failed attempt and returns the job to PENDING, unclaimed until a backoff has passed:
+     * {@code backoff} doubled for every earlier attempt, at most {@code maxBackoff}. Only if
+     * {@code node} still holds the job.
+     *
+     * @return false if another node has taken the job over
+     */
+    public boolean retryLater(UUID id, String error, UUID node, Duration backoff, Duration maxBackoff) {
+        return jdbcTemplate.update("UPDATE account_deletion_jobs"
+                        + " SET status = 'PENDING', error = ?, attempts = attempts + 1, claimed_by = NULL,"
+                        + " claimed_until = now() + LEAST(CAST(? AS bigint) * power(2, LEAST(attempts, 30)),"
+                        + " CAST(? AS bigint)) * INTERVAL '1 millisecond'"
+                        + " WHERE id = ? AND claimed_by = ? AND status IN ('PENDING', 'RUNNING')",
+                error, backoff.toMillis(), maxBackoff.toMillis(), id, node) > 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.javaproject.expenses.repositories;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+/**
+ * Reads and bumps {@code users.data_version} (see V12).
+ * The column is not mapped on {@code User}, so saving the entity never writes an old value back.
+ */
+@AllArgsConstructor
+@Repository
+public class DataVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Increments the user's version; the row stays locked until the database transaction ends.
+     *
+     * @return the new version
+     */
+    public long increment(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "UPDATE users SET data_version = data_version + 1 WHERE id = ? RETURNING data_version",
+                Long.class, userId);
+    }
+
+    /**
+     * Returns the user's current version, or empty if the user does not exist.
+     */
+    public Optional<Long> find(Long userId) {
+        return jdbcTemplate.queryForList("SELECT data_version FROM users WHERE id = ?", Long.class, userId)
+                .stream().findFirst();
+    }
+}
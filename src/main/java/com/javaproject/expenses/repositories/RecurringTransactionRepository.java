@@ -0,0 +1,153 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.RecurringTransactionDto;
+import com.javaproject.expenses.recurring.RecurrenceFrequency;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and writes {@code recurring_transactions} (see V14), and claims due rules for the
+ * scheduler with {@code FOR UPDATE SKIP LOCKED}, so several nodes can work through them at once
+ * without running a rule twice.
+ */
+@AllArgsConstructor
+@Repository
+public class RecurringTransactionRepository {
+
+    private static final String COLUMNS = "id, category_id, amount, description, frequency, every,"
+            + " start_date, end_date, next_run, occurrences, created_at";
+
+    private static final RowMapper<RecurringTransactionDto> RULE = (rs, rowNum) -> new RecurringTransactionDto(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getBigDecimal(3),
+            rs.getString(4),
+            RecurrenceFrequency.fromParameter(rs.getString(5)),
+            rs.getInt(6),
+            rs.getObject(7, LocalDateTime.class),
+            rs.getObject(8, LocalDateTime.class),
+            rs.getObject(9, LocalDateTime.class),
+            rs.getLong(10),
+            rs.getObject(11, LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A due rule, locked until the claiming database transaction ends.
+     */
+    public record DueRule(Long id, Long userId, Long categoryId, BigDecimal amount, String description,
+                          RecurrenceFrequency frequency, int every, LocalDateTime startDate, LocalDateTime endDate,
+                          long occurrences) {
+    }
+
+    /**
+     * How far the scheduler has brought a rule.
+     */
+    public record Progress(Long id, long occurrences, LocalDateTime nextRun) {
+    }
+
+    /**
+     * Inserts a rule for the user.
+     *
+     * @param nextRun the date of its first occurrence, or null if it ends before it
+     * @return the new rule
+     */
+    public RecurringTransactionDto create(Long userId, Long categoryId, BigDecimal amount, String description,
+                                          RecurrenceFrequency frequency, int every, LocalDateTime startDate,
+                                          LocalDateTime endDate, LocalDateTime nextRun) {
+        return jdbcTemplate.queryForObject("INSERT INTO recurring_transactions (user_id, category_id, amount,"
+                        + " description, frequency, every, start_date, end_date, next_run)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING " + COLUMNS,
+                RULE, userId, categoryId, amount, description, frequency.name(), every,
+                Timestamp.valueOf(startDate), timestamp(endDate), timestamp(nextRun));
+    }
+
+    public List<RecurringTransactionDto> findAll(Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM recurring_transactions WHERE user_id = ? ORDER BY id",
+                RULE, userId);
+    }
+
+    public Optional<RecurringTransactionDto> find(Long id, Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM recurring_transactions WHERE id = ? AND user_id = ?",
+                RULE, id, userId).stream().findFirst();
+    }
+
+    /**
+     * Reads one of the user's rules and locks it for the rest of the database transaction,
+     * waiting for the scheduler if it holds the rule.
+     */
+    public Optional<RecurringTransactionDto> lock(Long id, Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM recurring_transactions"
+                + " WHERE id = ? AND user_id = ? FOR UPDATE", RULE, id, userId).stream().findFirst();
+    }
+
+    /**
+     * Writes the mutable columns of a rule locked with {@link #lock}.
+     *
+     * @return the updated rule
+     */
+    public RecurringTransactionDto update(Long id, Long categoryId, BigDecimal amount, String description,
+                                         LocalDateTime endDate, LocalDateTime nextRun) {
+        return jdbcTemplate.queryForObject("UPDATE recurring_transactions"
+                        + " SET category_id = ?, amount = ?, description = ?, end_date = ?, next_run = ?"
+                        + " WHERE id = ? RETURNING " + COLUMNS,
+                RULE, categoryId, amount, description, timestamp(endDate), timestamp(nextRun), id);
+    }
+
+    /**
+     * Deletes one of the user's rules; the transactions it created stay.
+     *
+     * @return false if the user owns no such rule
+     */
+    public boolean delete(Long id, Long userId) {
+        return jdbcTemplate.update("DELETE FROM recurring_transactions WHERE id = ? AND user_id = ?", id, userId) > 0;
+    }
+
+    /**
+     * Locks up to {@code limit} rules due at {@code now}, most overdue first, skipping rules
+     * another node has claimed.
+     */
+    public List<DueRule> claimDue(LocalDateTime now, int limit) {
+        return jdbcTemplate.query("SELECT id, user_id, category_id, amount, description, frequency, every,"
+                        + " start_date, end_date, occurrences FROM recurring_transactions"
+                        + " WHERE next_run IS NOT NULL AND next_run <= ?"
+                        + " ORDER BY next_run LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new DueRule(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getLong(3),
+                        rs.getBigDecimal(4),
+                        rs.getString(5),
+                        RecurrenceFrequency.fromParameter(rs.getString(6)),
+                        rs.getInt(7),
+                        rs.getObject(8, LocalDateTime.class),
+                        rs.getObject(9, LocalDateTime.class),
+                        rs.getLong(10)
+                ),
+                Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Records the progress of claimed rules in one JDBC batch.
+     */
+    public void advanceAll(List<Progress> progress) {
+        jdbcTemplate.batchUpdate("UPDATE recurring_transactions SET occurrences = ?, next_run = ? WHERE id = ?",
+                progress, progress.size(), (ps, step) -> {
+                    ps.setLong(1, step.occurrences());
+                    ps.setTimestamp(2, timestamp(step.nextRun()));
+                    ps.setLong(3, step.id());
+                });
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.javaproject.expenses.repositories;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Manages the monthly partitions of {@code transactions} (see V10).
+ */
+@AllArgsConstructor
+@Repository
+public class TransactionPartitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates the partition for the month containing {@code month}, moving that month's rows out of
+     * the default partition.
+     *
+     * @return true if the partition was created, false if it already existed
+     */
+    public boolean ensureMonth(LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT ensure_transactions_partition(?)", Boolean.class, Date.valueOf(month)));
+    }
+
+    /**
+     * Months, as their first day, that have rows in the default partition.
+     */
+    public List<LocalDate> findMonthsInDefault() {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', transaction_date) AS date) FROM transactions_default ORDER BY 1",
+                Date.class).stream().map(Date::toLocalDate).toList();
+    }
+}
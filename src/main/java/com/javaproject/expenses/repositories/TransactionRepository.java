@@ -1,24 +1,49 @@
 package com.javaproject.expenses.repositories;
 
+import com.javaproject.expenses.dtos.TransactionRow;
 import com.javaproject.expenses.models.Transaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.List;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for Transaction entity operations.
  * Provides transaction queries with user-based filtering for security.
+ * Filtered listings are built with {@link TransactionSpecifications}.
  */
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-
-    /**
-     * Finds all transactions belonging to a specific user.
-     */
-    List<Transaction> findByUserId(Long userId);
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
 
     /**
      * Finds a transaction by ID that belongs to a specific user.
      * Used for security to ensure users can only access their own transactions.
+     * Read-only, like the inherited finders, so it can be served by a read replica.
      */
+    @Transactional(readOnly = true)
     Optional<Transaction> findByIdAndUserId(Long id, Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Streams a user's transactions within {@code [from, to)}, newest first, through a
+     * forward-only server-side cursor. Rows are projected straight into {@link TransactionRow},
+     * so no entity enters the persistence context. Must be consumed inside a transaction
+     * and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.javaproject.expenses.dtos.TransactionRow("
+            + "t.id, t.category.id, t.amount, t.description, t.transactionDate, t.createdAt) "
+            + "FROM Transaction t WHERE t.user.id = :userId "
+            + "AND t.transactionDate >= :from AND t.transactionDate < :to "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    Stream<TransactionRow> streamRows(Long userId, LocalDateTime from, LocalDateTime to);
+}
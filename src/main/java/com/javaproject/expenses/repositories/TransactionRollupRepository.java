@@ -0,0 +1,177 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.BalanceDto;
+import com.javaproject.expenses.dtos.CategorySummaryDto;
+import com.javaproject.expenses.dtos.MonthlySummaryDto;
+import com.javaproject.expenses.dtos.TypeSummaryDto;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for the {@code transaction_monthly_rollup} table.
+ * Holds per-user totals by month and category, so summaries cost O(months x categories).
+ * The summary reads are read-only transactions, so they can be served by a read replica.
+ */
+@AllArgsConstructor
+@Repository
+public class TransactionRollupRepository {
+
+    /**
+     * Advisory lock key of a user's rollup rows. Writers hold it shared while they apply deltas and
+     * a rebuild holds it exclusively, so a rebuild waits only for that user's writes, and they for it.
+     */
+    private static final String USER_LOCK_KEY =
+            "hashtext('transaction_monthly_rollup'), CAST(CAST(? AS bigint) % 2147483647 AS integer)";
+
+    // The shared lock is taken in the upsert itself, so applying deltas stays one statement
+    private static final String UPSERT = """
+            INSERT INTO transaction_monthly_rollup (user_id, month, category_id, total_amount, transaction_count)
+            SELECT CAST(? AS bigint), CAST(? AS date), CAST(? AS bigint), CAST(? AS numeric), CAST(? AS bigint)
+            FROM pg_advisory_xact_lock_shared(%s) AS user_lock
+            ON CONFLICT (user_id, month, category_id) DO UPDATE
+            SET total_amount = transaction_monthly_rollup.total_amount + EXCLUDED.total_amount,
+                transaction_count = transaction_monthly_rollup.transaction_count + EXCLUDED.transaction_count
+            """.formatted(USER_LOCK_KEY);
+
+    private static final String REBUILD_SELECT = """
+            SELECT user_id, CAST(date_trunc('month', transaction_date) AS date), category_id, SUM(amount), COUNT(*)
+            FROM transactions
+            """;
+
+    private static final String REBUILD_INSERT =
+            "INSERT INTO transaction_monthly_rollup (user_id, month, category_id, total_amount, transaction_count) ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One delta to apply to a rollup row.
+     */
+    public record Delta(LocalDate month, Long categoryId, BigDecimal amount, long count) {
+    }
+
+    /**
+     * Adds the deltas to the user's rollup rows, creating rows as needed,
+     * then removes rows whose count has dropped to zero.
+     * Callers should pass deltas in a stable order to avoid lock-order deadlocks.
+     */
+    public void apply(Long userId, List<Delta> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, userId);
+            ps.setDate(2, Date.valueOf(delta.month()));
+            ps.setLong(3, delta.categoryId());
+            ps.setBigDecimal(4, delta.amount());
+            ps.setLong(5, delta.count());
+            ps.setLong(6, userId);
+        });
+        if (deltas.stream().anyMatch(delta -> delta.count() < 0)) {
+            jdbcTemplate.update(
+                    "DELETE FROM transaction_monthly_rollup WHERE user_id = ? AND transaction_count <= 0", userId);
+        }
+    }
+
+    /**
+     * Recomputes one user's rollup rows from the raw transactions table.
+     * Waits for the user's writes in progress, and holds off new ones until the transaction ends;
+     * other users' writes are not held up.
+     */
+    public void rebuild(Long userId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(" + USER_LOCK_KEY + ")", rs -> {
+        }, userId);
+        jdbcTemplate.update("DELETE FROM transaction_monthly_rollup WHERE user_id = ?", userId);
+        jdbcTemplate.update(REBUILD_INSERT + REBUILD_SELECT + "WHERE user_id = ? GROUP BY 1, 2, 3", userId);
+    }
+
+    /**
+     * Ids of all users, for rebuilding their rollups one at a time.
+     */
+    public List<Long> findUserIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+    }
+
+    /**
+     * Sums income and expense per month within the inclusive month range.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlySummaryDto> findMonthlyTotals(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                SELECT r.month,
+                       COALESCE(SUM(r.total_amount) FILTER (WHERE c.type = 'INCOME'), 0),
+                       COALESCE(SUM(r.total_amount) FILTER (WHERE c.type = 'EXPENSE'), 0),
+                       SUM(r.transaction_count)
+                FROM transaction_monthly_rollup r
+                JOIN categories c ON c.id = r.category_id
+                WHERE r.user_id = ? AND r.month BETWEEN ? AND ?
+                GROUP BY r.month
+                ORDER BY r.month
+                """,
+                (rs, rowNum) -> {
+                    BigDecimal income = rs.getBigDecimal(2);
+                    BigDecimal expense = rs.getBigDecimal(3);
+                    return new MonthlySummaryDto(rs.getDate(1).toLocalDate(), income, expense,
+                            income.subtract(expense), rs.getLong(4));
+                },
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Sums amounts per category within the inclusive month range.
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySummaryDto> findCategoryTotals(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                SELECT r.category_id, c.name, c.type, SUM(r.total_amount), SUM(r.transaction_count)
+                FROM transaction_monthly_rollup r
+                JOIN categories c ON c.id = r.category_id
+                WHERE r.user_id = ? AND r.month BETWEEN ? AND ?
+                GROUP BY r.category_id, c.name, c.type
+                ORDER BY r.category_id
+                """,
+                (rs, rowNum) -> new CategorySummaryDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getBigDecimal(4), rs.getLong(5)),
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Sums amounts per category type within the inclusive month range.
+     */
+    @Transactional(readOnly = true)
+    public List<TypeSummaryDto> findTypeTotals(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                SELECT c.type, SUM(r.total_amount), SUM(r.transaction_count)
+                FROM transaction_monthly_rollup r
+                JOIN categories c ON c.id = r.category_id
+                WHERE r.user_id = ? AND r.month BETWEEN ? AND ?
+                GROUP BY c.type
+                ORDER BY c.type
+                """,
+                (rs, rowNum) -> new TypeSummaryDto(rs.getString(1), rs.getBigDecimal(2), rs.getLong(3)),
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Computes income, expense and net within the inclusive month range.
+     */
+    @Transactional(readOnly = true)
+    public BalanceDto findBalance(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(r.total_amount) FILTER (WHERE c.type = 'INCOME'), 0),
+                       COALESCE(SUM(r.total_amount) FILTER (WHERE c.type = 'EXPENSE'), 0),
+                       COALESCE(SUM(r.transaction_count), 0)
+                FROM transaction_monthly_rollup r
+                JOIN categories c ON c.id = r.category_id
+                WHERE r.user_id = ? AND r.month BETWEEN ? AND ?
+                """,
+                (rs, rowNum) -> {
+                    BigDecimal income = rs.getBigDecimal(1);
+                    BigDecimal expense = rs.getBigDecimal(2);
+                    return new BalanceDto(income, expense, income.subtract(expense), rs.getLong(3));
+                },
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,120 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.TransactionFilter;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.pagination.SearchCursor;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over transaction descriptions, served by the V11 GIN index.
+ * Matches are ranked with {@code ts_rank} and keyset-paginated on (rank, id).
+ */
+@AllArgsConstructor
+@Repository
+public class TransactionSearchRepository {
+
+    // Must match the V11 index expression for the index to be used
+    private static final String DOCUMENT = "to_tsvector('simple', COALESCE(description, ''))";
+
+    private static final int MAX_TERMS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A matching row and its rank.
+     */
+    public record Match(TransactionRow row, float rank) {
+    }
+
+    /**
+     * Finds the user's transactions whose description contains every word of {@code text},
+     * each also matching as a prefix, best matches first. The filter's fields restrict the
+     * result as in the listing.
+     *
+     * @param after position of the last row of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the text has no words or the filter is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<Match> search(Long userId, String text, TransactionFilter filter, SearchCursor after, int limit) {
+        String type = TransactionSpecifications.categoryType(filter);
+        List<Object> args = new ArrayList<>();
+        args.add(toQuery(text));
+        args.add(userId);
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT id, category_id, amount, description,"
+                + " transaction_date, created_at, ts_rank(" + DOCUMENT + ", query) AS rank"
+                + " FROM transactions, to_tsquery('simple', ?) query"
+                + " WHERE user_id = ? AND " + DOCUMENT + " @@ query");
+        if (filter.from() != null) {
+            sql.append(" AND transaction_date >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND transaction_date < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (filter.categoryId() != null && !filter.categoryId().isEmpty()) {
+            sql.append(" AND category_id IN (")
+                    .append(filter.categoryId().stream().map(id -> "?").collect(Collectors.joining(", ")))
+                    .append(')');
+            args.addAll(filter.categoryId());
+        }
+        if (type != null) {
+            sql.append(" AND category_id IN (SELECT id FROM categories WHERE type = ?)");
+            args.add(type);
+        }
+        if (filter.minAmount() != null) {
+            sql.append(" AND amount >= ?");
+            args.add(filter.minAmount());
+        }
+        if (filter.maxAmount() != null) {
+            sql.append(" AND amount <= ?");
+            args.add(filter.maxAmount());
+        }
+        sql.append(") matches");
+        if (after != null) {
+            sql.append(" WHERE rank < CAST(? AS real) OR (rank = CAST(? AS real) AND id < ?)");
+            args.add(after.rank());
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY rank DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new Match(new TransactionRow(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getBigDecimal(3),
+                rs.getString(4),
+                rs.getObject(5, LocalDateTime.class),
+                rs.getObject(6, LocalDateTime.class)
+        ), rs.getFloat(7)), args.toArray());
+    }
+
+    /**
+     * Turns free text into a tsquery that requires every word as a prefix, e.g. "Uber eats" into
+     * {@code uber:* & eats:*}. Anything but letters and digits separates words, so the text cannot
+     * inject tsquery operators.
+     */
+    static String toQuery(String text) {
+        List<String> terms = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain a letter or digit");
+        }
+        return String.join(" & ", terms);
+    }
+}
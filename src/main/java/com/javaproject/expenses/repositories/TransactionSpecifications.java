@@ -0,0 +1,98 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.TransactionFilter;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.pagination.TransactionCursor;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Criteria building blocks for transaction queries.
+ * Filters are combined into one SQL statement so only matching rows leave the database.
+ */
+public final class TransactionSpecifications {
+
+    private static final Set<String> CATEGORY_TYPES = Set.of("INCOME", "EXPENSE");
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Restricts the query to transactions owned by the given user.
+     */
+    public static Specification<Transaction> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    /**
+     * Applies every non-null field of the filter.
+     *
+     * @throws IllegalArgumentException if the category type is not INCOME or EXPENSE
+     */
+    public static Specification<Transaction> matching(TransactionFilter filter) {
+        String type = categoryType(filter);
+
+        return (root, query, cb) -> {
+            Predicate predicate = cb.conjunction();
+            if (filter.from() != null) {
+                predicate = cb.and(predicate,
+                        cb.greaterThanOrEqualTo(root.<LocalDateTime>get("transactionDate"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicate = cb.and(predicate,
+                        cb.lessThan(root.<LocalDateTime>get("transactionDate"), filter.to()));
+            }
+            if (filter.categoryId() != null && !filter.categoryId().isEmpty()) {
+                predicate = cb.and(predicate, root.get("category").get("id").in(filter.categoryId()));
+            }
+            if (type != null) {
+                predicate = cb.and(predicate, cb.equal(root.join("category").get("type"), type));
+            }
+            if (filter.minAmount() != null) {
+                predicate = cb.and(predicate,
+                        cb.greaterThanOrEqualTo(root.<BigDecimal>get("amount"), filter.minAmount()));
+            }
+            if (filter.maxAmount() != null) {
+                predicate = cb.and(predicate,
+                        cb.lessThanOrEqualTo(root.<BigDecimal>get("amount"), filter.maxAmount()));
+            }
+            return predicate;
+        };
+    }
+
+    /**
+     * Returns the filter's category type in upper case, or null if it has none.
+     *
+     * @throws IllegalArgumentException if the category type is not INCOME or EXPENSE
+     */
+    static String categoryType(TransactionFilter filter) {
+        String type = filter.type() == null ? null : filter.type().trim().toUpperCase(Locale.ROOT);
+        if (type != null && !CATEGORY_TYPES.contains(type)) {
+            throw new IllegalArgumentException("Invalid category type: " + filter.type());
+        }
+        return type;
+    }
+
+    /**
+     * Restricts the query to rows that come after the cursor in the cursor's ordering.
+     * Expands to {@code key > k OR (key = k AND id > i)}, flipped for descending orderings.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Specification<Transaction> after(TransactionCursor cursor) {
+        return (root, query, cb) -> {
+            Expression<Comparable> key = root.get(cursor.sort().property());
+            Expression<Long> id = root.get("id");
+            Comparable value = cursor.parsedKey();
+            boolean ascending = cursor.sort().isAscending();
+
+            Predicate beyondKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            Predicate beyondId = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            return cb.or(beyondKey, cb.and(cb.equal(key, value), beyondId));
+        };
+    }
+}
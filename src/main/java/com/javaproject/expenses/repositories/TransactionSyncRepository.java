@@ -0,0 +1,112 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.pagination.SyncToken;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the changes to a user's transactions between two database snapshots, from the change
+ * stamps and tombstones of V13, and compacts old tombstones.
+ */
+@AllArgsConstructor
+@Repository
+public class TransactionSyncRepository {
+
+    // Stamps written after the first snapshot and visible in the second; the bounds let the index narrow the scan
+    private static final String BETWEEN = " >= pg_snapshot_xmin(CAST(? AS pg_snapshot))"
+            + " AND %1$s < pg_snapshot_xmax(CAST(? AS pg_snapshot))"
+            + " AND NOT pg_visible_in_snapshot(%1$s, CAST(? AS pg_snapshot))"
+            + " AND pg_visible_in_snapshot(%1$s, CAST(? AS pg_snapshot))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A changed row, or with a null row, the id of a deleted one.
+     *
+     * @param xid the database transaction that made the change
+     */
+    public record Change(String xid, Long id, TransactionRow row) {
+    }
+
+    /**
+     * Returns the current database snapshot.
+     */
+    public SyncToken.Snapshot currentSnapshot() {
+        return jdbcTemplate.queryForObject("SELECT CAST(pg_current_snapshot() AS text), LOCALTIMESTAMP",
+                (rs, rowNum) -> new SyncToken.Snapshot(rs.getString(1), rs.getObject(2, LocalDateTime.class)));
+    }
+
+    /**
+     * Returns up to {@code limit} of the user's changes that are visible in {@code until} but not
+     * in {@code since}, ordered by change and id, starting after the given change.
+     * A row is returned as it is now, once, however often it changed.
+     *
+     * @param afterXid the change to start after, or null to start at the first
+     */
+    public List<Change> findChanges(Long userId, String since, String until, String afterXid, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT CAST(xid AS text), id, category_id, amount, description,"
+                + " transaction_date, created_at FROM (")
+                .append("SELECT change_xid AS xid, id, category_id, amount, description, transaction_date, created_at"
+                        + " FROM transactions WHERE user_id = ? AND change_xid")
+                .append(BETWEEN.formatted("change_xid"));
+        addBounds(args, userId, since, until);
+        if (afterXid != null) {
+            sql.append(" AND (change_xid, id) > (CAST(? AS xid8), ?)");
+            args.add(afterXid);
+            args.add(afterId);
+        }
+        sql.append(" UNION ALL SELECT deleted_xid, transaction_id, NULL, NULL, NULL, NULL, NULL"
+                        + " FROM transaction_tombstones WHERE user_id = ? AND deleted_xid")
+                .append(BETWEEN.formatted("deleted_xid"));
+        addBounds(args, userId, since, until);
+        if (afterXid != null) {
+            sql.append(" AND (deleted_xid, transaction_id) > (CAST(? AS xid8), ?)");
+            args.add(afterXid);
+            args.add(afterId);
+        }
+        // Qualified, so the order is that of the xid8 column rather than of the text output column of the same name
+        sql.append(") changes ORDER BY changes.xid, changes.id LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            long id = rs.getLong(2);
+            TransactionRow row = rs.getObject(3) == null ? null : new TransactionRow(
+                    id,
+                    rs.getLong(3),
+                    rs.getBigDecimal(4),
+                    rs.getString(5),
+                    rs.getObject(6, LocalDateTime.class),
+                    rs.getObject(7, LocalDateTime.class)
+            );
+            return new Change(rs.getString(1), id, row);
+        }, args.toArray());
+    }
+
+    /**
+     * Deletes up to {@code limit} tombstones older than {@code cutoff}, skipping any another node
+     * is deleting.
+     *
+     * @return the number deleted; less than {@code limit} once none are left
+     */
+    public int deleteTombstonesBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM transaction_tombstones WHERE transaction_id IN ("
+                        + "SELECT transaction_id FROM transaction_tombstones WHERE deleted_at < ?"
+                        + " LIMIT ? FOR UPDATE SKIP LOCKED)",
+                Timestamp.valueOf(cutoff), limit);
+    }
+
+    private static void addBounds(List<Object> args, Long userId, String since, String until) {
+        args.add(userId);
+        args.add(since);
+        args.add(until);
+        args.add(since);
+        args.add(until);
+    }
+}
@@ -0,0 +1,170 @@
+package com.javaproject.expenses.repositories;
+
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRow;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-statement writes to the {@code transactions} table.
+ * The ownership check and the write happen in one round trip, and the affected row comes back
+ * through {@code RETURNING}, so no entity is loaded or merged first.
+ */
+@AllArgsConstructor
+@Repository
+public class TransactionWriteRepository {
+
+    private static final String COLUMNS = "id, category_id, amount, description, transaction_date, created_at";
+    // Reads a "deleted" CTE returning user_id and id; see V13
+    private static final String INSERT_TOMBSTONES =
+            "INSERT INTO transaction_tombstones (user_id, transaction_id) SELECT user_id, id FROM deleted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A row as it was before and after an update.
+     */
+    public record Change(TransactionRow before, TransactionRow after) {
+    }
+
+    /**
+     * Sets the non-null fields of the patch on one of the user's transactions.
+     * Only those columns are written. The old values are read from a locked sub-select in the same statement.
+     *
+     * @return the row before and after, or empty if the user owns no such transaction
+     */
+    public Optional<Change> update(Long id, Long userId, TransactionPatch patch) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (patch.categoryId() != null) {
+            assignments.add("category_id = ?");
+            args.add(patch.categoryId());
+        }
+        if (patch.amount() != null) {
+            assignments.add("amount = ?");
+            args.add(patch.amount());
+        }
+        if (patch.description() != null) {
+            assignments.add("description = ?");
+            args.add(patch.description());
+        }
+        if (patch.transactionDate() != null) {
+            assignments.add("transaction_date = ?");
+            args.add(Timestamp.valueOf(patch.transactionDate()));
+        }
+        if (assignments.isEmpty()) {
+            return find(id, userId).map(row -> new Change(row, row));
+        }
+
+        args.add(id);
+        args.add(userId);
+        String sql = "UPDATE transactions t SET " + String.join(", ", assignments)
+                + " FROM (SELECT " + COLUMNS + " FROM transactions WHERE id = ? AND user_id = ? FOR UPDATE) old"
+                + " WHERE t.id = old.id"
+                + " RETURNING old.id, old.category_id, old.amount, old.description, old.transaction_date, old.created_at,"
+                + " t.id, t.category_id, t.amount, t.description, t.transaction_date, t.created_at";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Change(row(rs, 1), row(rs, 7)), args.toArray())
+                .stream().findFirst();
+    }
+
+    /**
+     * Deletes one of the user's transactions, leaving a tombstone for delta sync.
+     *
+     * @return the deleted row, or empty if the user owns no such transaction
+     */
+    public Optional<TransactionRow> delete(Long id, Long userId) {
+        return jdbcTemplate.query("WITH deleted AS (DELETE FROM transactions WHERE id = ? AND user_id = ?"
+                        + " RETURNING user_id, " + COLUMNS + "), tombstones AS (" + INSERT_TOMBSTONES + ")"
+                        + " SELECT " + COLUMNS + " FROM deleted",
+                (rs, rowNum) -> row(rs, 1), id, userId).stream().findFirst();
+    }
+
+    /**
+     * Locks the user's transactions among the given ids for the rest of the database transaction.
+     *
+     * @return the locked rows by id; ids the user does not own are absent
+     */
+    public Map<Long, TransactionRow> lockAll(Long userId, Collection<Long> ids) {
+        Map<Long, TransactionRow> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM transactions WHERE user_id = ? AND id = ANY(?) FOR UPDATE",
+                ps -> {
+                    ps.setLong(1, userId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+                },
+                rs -> {
+                    TransactionRow row = row(rs, 1);
+                    rows.put(row.id(), row);
+                });
+        return rows;
+    }
+
+    /**
+     * Writes every mutable column of the given rows of the user's transactions in one JDBC batch.
+     */
+    public void updateAll(Long userId, List<TransactionRow> rows) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE transactions SET category_id = ?, amount = ?, description = ?, transaction_date = ?"
+                        + " WHERE id = ? AND user_id = ?",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setLong(1, row.categoryId());
+                    ps.setBigDecimal(2, row.amount());
+                    ps.setString(3, row.description());
+                    ps.setTimestamp(4, Timestamp.valueOf(row.transactionDate()));
+                    ps.setLong(5, row.id());
+                    ps.setLong(6, userId);
+                });
+    }
+
+    /**
+     * Deletes the user's transactions among the given ids in one statement, leaving tombstones for delta sync.
+     */
+    public void deleteAll(Long userId, Collection<Long> ids) {
+        jdbcTemplate.update("WITH deleted AS (DELETE FROM transactions WHERE user_id = ? AND id = ANY(?)"
+                + " RETURNING user_id, id) " + INSERT_TOMBSTONES, ps -> {
+            ps.setLong(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+
+    /**
+     * Deletes up to {@code limit} of the user's transactions.
+     * Leaves no tombstones: this is for deleting the account, whose tombstones would go with it.
+     *
+     * @return the number of rows deleted; less than {@code limit} once none are left
+     */
+    public int deleteChunk(Long userId, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM transactions WHERE id IN (SELECT id FROM transactions WHERE user_id = ? LIMIT ?)",
+                userId, limit);
+    }
+
+    private Optional<TransactionRow> find(Long id, Long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transactions WHERE id = ? AND user_id = ?",
+                (rs, rowNum) -> row(rs, 1), id, userId).stream().findFirst();
+    }
+
+    /**
+     * Reads the six {@link #COLUMNS} starting at the given column index.
+     */
+    private static TransactionRow row(ResultSet rs, int first) throws SQLException {
+        return new TransactionRow(
+                rs.getLong(first),
+                rs.getLong(first + 1),
+                rs.getBigDecimal(first + 2),
+                rs.getString(first + 3),
+                rs.getObject(first + 4, LocalDateTime.class),
+                rs.getObject(first + 5, LocalDateTime.class)
+        );
+    }
+}
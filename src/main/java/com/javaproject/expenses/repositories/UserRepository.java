@@ -2,6 +2,8 @@ package com.javaproject.expenses.repositories;
 
 import com.javaproject.expenses.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -23,4 +25,37 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Used for registration validation to prevent duplicate emails.
      */
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Finds a user by email, unless the account is being or has been deleted.
+     * Used for sign-in, so that a deletion requested on any node refuses it.
+     */
+    @Query(value = """
+            SELECT u.* FROM users u
+            WHERE u.email = :email
+              AND NOT EXISTS (SELECT 1 FROM account_deletion_jobs j WHERE j.user_id = u.id)
+            """, nativeQuery = true)
+    Optional<User> findActiveByEmail(String email);
+
+    /**
+     * Returns the user's current token version, or empty if the user does not exist or its
+     * deletion has been requested. Used to refuse tokens signed before the version was bumped,
+     * and every sign-in of a deleted account.
+     */
+    @Query(value = """
+            SELECT u.token_version FROM users u
+            WHERE u.id = :id
+              AND NOT EXISTS (SELECT 1 FROM account_deletion_jobs j WHERE j.user_id = u.id)
+            """, nativeQuery = true)
+    Optional<Long> findTokenVersionById(Long id);
+
+    /**
+     * Deletes the user row with one statement, without loading the user or its transactions.
+     * Rows that reference the user are removed by the database's {@code ON DELETE CASCADE}.
+     *
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteRowById(Long id);
+}
@@ -0,0 +1,26 @@
+package com.javaproject.expenses.security;
+
+import com.javaproject.expenses.models.User;
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * Security principal for a signed-in user.
+ * Holds only what is needed to authorize a request, so it fits in a signed token
+ * and keeps sessions small; load the {@link User} entity when more is needed.
+ *
+ * @param id the user's id
+ * @param email the user's email at sign-in time
+ * @param version the user's token version at sign-in time
+ */
+public record AuthenticatedUser(Long id, String email, long version) implements Principal, Serializable {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getTokenVersion());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,40 @@
+package com.javaproject.expenses.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Drops the authentication of requests from users whose deletion has been requested (see
+ * {@link TokenVersions#isRevoked}), invalidating their session if they have one. The request then continues unauthenticated and is rejected by the
+ * authorization rules if it needs a user.
+ */
+public class RevokedUserFilter extends OncePerRequestFilter {
+
+    private final TokenVersions tokenVersions;
+
+    public RevokedUserFilter(TokenVersions tokenVersions) {
+        this.tokenVersions = tokenVersions;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && tokenVersions.isRevoked(user.id())) {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.invalidate();
+            }
+            SecurityContextHolder.clearContext();
+        }
+        chain.doFilter(request, response);
+    }
+}
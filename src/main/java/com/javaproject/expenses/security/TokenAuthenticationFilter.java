@@ -0,0 +1,67 @@
+package com.javaproject.expenses.security;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} without an HTTP session.
+ * The signature and expiry are checked from the token alone; the token version is checked against
+ * {@link TokenVersions}, which reads the database only when its cached version has expired.
+ * Requests without a valid token pass through unauthenticated and are rejected by the
+ * authorization rules if they need a user.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final TokenService tokenService;
+    private final TokenVersions tokenVersions;
+
+    public TokenAuthenticationFilter(TokenService tokenService, TokenVersions tokenVersions) {
+        this.tokenService = tokenService;
+        this.tokenVersions = tokenVersions;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            tokenService.verify(header.substring(BEARER_PREFIX.length()).trim())
+                    .filter(user -> request.getDispatcherType() != DispatcherType.REQUEST
+                            || tokenVersions.isCurrent(user))
+                    .ifPresent(user -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, AUTHORITIES));
+                        SecurityContextHolder.setContext(context);
+                    });
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Async and error dispatches carry the same header and need the same user. They continue a
+    // request already admitted, so the token version is not checked again: the request that
+    // changes the password completes even though its own token is no longer current.
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.javaproject.expenses.security;
+
+import com.javaproject.expenses.config.AuthProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed bearer tokens.
+ * A token is {@code base64url(payload).base64url(signature)} where the payload is
+ * {@code id:version:expiresAtEpochSeconds:email}; verification needs only the shared secret.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final AuthProperties properties;
+    private final SecretKeySpec key;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(AuthProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    TokenService(AuthProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.key = keyOf(properties);
+    }
+
+    /**
+     * Signs a token for the user that expires after the configured time to live.
+     */
+    public IssuedToken issue(AuthenticatedUser user) {
+        Instant expiresAt = clock.instant().plus(properties.tokenTtl());
+        String payload = user.id() + ":" + user.version() + ":" + expiresAt.getEpochSecond() + ":" + user.email();
+        String encodedPayload = encode(payload.getBytes(StandardCharsets.UTF_8));
+        return new IssuedToken(encodedPayload + "." + encode(sign(encodedPayload)), expiresAt);
+    }
+
+    /**
+     * Returns the user a token was issued for, or empty if it is malformed, forged or expired.
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+
+            String payload = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8);
+            String[] parts = payload.split(":", 4);
+            if (parts.length != 4 || Long.parseLong(parts[2]) <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf(parts[0]), parts[3], Long.parseLong(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        if (key == null) {
+            throw new IllegalStateException("expenses.auth.token-secret is not configured");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is unavailable", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static SecretKeySpec keyOf(AuthProperties properties) {
+        String secret = properties.tokenSecret();
+        if (secret == null || secret.isBlank()) {
+            if (properties.mode() == AuthProperties.Mode.TOKEN) {
+                throw new IllegalStateException("expenses.auth.token-secret is required in token mode");
+            }
+            return null;
+        }
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("expenses.auth.token-secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    /**
+     * A signed token and the instant it stops being accepted.
+     */
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+}
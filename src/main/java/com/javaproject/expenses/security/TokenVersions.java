@@ -0,0 +1,64 @@
+package com.javaproject.expenses.security;
+
+import com.javaproject.expenses.config.AuthProperties;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.services.UserVersionCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells whether a signed-in user's token version is still the user's current one.
+ * Changing the email or password bumps {@code users.token_version}, which ends every token
+ * signed before the change. Requesting the account's deletion ends every sign-in, tokens and
+ * sessions alike: a user with a row in {@code account_deletion_jobs} has no current version.
+ * Versions are cached per node: changes made on this node are seen at once, changes made on
+ * other nodes within {@code expenses.auth.token-version-ttl}.
+ */
+@Component
+public class TokenVersions {
+
+    /**
+     * Version of users that cannot sign in; no token carries it, and no load can replace it.
+     */
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final UserVersionCache cache;
+
+    public TokenVersions(UserRepository userRepository, AuthProperties properties) {
+        this.userRepository = userRepository;
+        this.cache = new UserVersionCache(properties.tokenVersionCacheSize(), properties.tokenVersionTtl());
+    }
+
+    /**
+     * Returns whether the user still exists and was signed in at the current token version.
+     */
+    public boolean isCurrent(AuthenticatedUser user) {
+        return current(user.id()) == user.version();
+    }
+
+    /**
+     * Returns whether the user no longer exists or its deletion has been requested.
+     */
+    public boolean isRevoked(Long userId) {
+        return current(userId) == REVOKED;
+    }
+
+    /**
+     * Records a version this node has just committed, so that older tokens stop working here at once.
+     */
+    public void advance(Long userId, long version) {
+        cache.advance(userId, version);
+    }
+
+    /**
+     * Ends every sign-in of the user on this node at once; other nodes see the deletion job.
+     */
+    public void revoke(Long userId) {
+        cache.advance(userId, REVOKED);
+    }
+
+    private long current(Long userId) {
+        // Cached like any version, so requests from a user that is gone do not each reach the database
+        return cache.get(userId, id -> userRepository.findTokenVersionById(id).orElse(REVOKED));
+    }
+}
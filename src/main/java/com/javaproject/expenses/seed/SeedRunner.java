@@ -0,0 +1,31 @@
+package com.javaproject.expenses.seed;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link SyntheticDataGenerator} at startup under the {@code seed} profile, then exits.
+ */
+@Slf4j
+@AllArgsConstructor
+@Component
+@Profile("seed")
+public class SeedRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator generator;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SyntheticDataGenerator.Summary summary = generator.generate();
+        log.info("Generated {} users with {} transactions in {} s",
+                summary.users(), summary.transactions(), summary.elapsed().toSeconds());
+        System.exit(SpringApplication.exit(context));
+    }
+}
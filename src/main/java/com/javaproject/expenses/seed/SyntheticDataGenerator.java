@@ -0,0 +1,238 @@
+package com.javaproject.expenses.seed;
+
+import com.javaproject.expenses.config.SeedProperties;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the database with generated users and transactions for load testing.
+ * Each user gets a monthly salary and a mix of everyday expenses and occasional income spread
+ * over {@code months} months, with amounts scattered around a typical value per category.
+ * Every user's data comes from its own random stream, so the same settings always produce the
+ * same rows and the first N users are the same whatever the total. Users are written one database
+ * transaction at a time, including their monthly rollups; users left over from an earlier run with
+ * the same email are deleted first. Registered only under the {@code seed} profile.
+ */
+@Slf4j
+@Service
+@Profile("seed")
+public class SyntheticDataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (user_id, category_id, amount, description, transaction_date) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String[] MERCHANTS = {
+            "Corner Market", "City Center", "Main Street", "Riverside", "Online", "Airport", "Station",
+            "Old Town", "Harbor", "North Mall", "Westside", "Downtown", "Campus", "Lakeside", "Uptown"
+    };
+
+    /**
+     * Relative frequency and typical amount of each category, by name.
+     * Salary is not listed: every user receives it once a month.
+     */
+    private static final Map<String, Profile> PROFILES = Map.ofEntries(
+            Map.entry("Freelance", new Profile(1.5, 600)),
+            Map.entry("Investment", new Profile(1, 150)),
+            Map.entry("Business", new Profile(0.5, 900)),
+            Map.entry("Rental Income", new Profile(0.5, 1100)),
+            Map.entry("Gifts Received", new Profile(0.5, 100)),
+            Map.entry("Other Income", new Profile(0.5, 80)),
+            Map.entry("Groceries", new Profile(20, 55)),
+            Map.entry("Food & Dining", new Profile(15, 25)),
+            Map.entry("Transportation", new Profile(10, 12)),
+            Map.entry("Car", new Profile(3, 80)),
+            Map.entry("Housing", new Profile(1, 1200)),
+            Map.entry("Utilities", new Profile(3, 90)),
+            Map.entry("Clothing", new Profile(3, 60)),
+            Map.entry("Toiletry", new Profile(3, 15)),
+            Map.entry("Entertainment", new Profile(5, 30)),
+            Map.entry("Health", new Profile(2, 70)),
+            Map.entry("Insurance", new Profile(1, 150)),
+            Map.entry("Education", new Profile(1, 200)),
+            Map.entry("Travel", new Profile(1, 400)),
+            Map.entry("Fitness & Sports", new Profile(2, 40)),
+            Map.entry("Personal Care", new Profile(2, 35)),
+            Map.entry("Gifts Given", new Profile(2, 50)),
+            Map.entry("Charity", new Profile(1, 30)),
+            Map.entry("Taxes", new Profile(0.5, 500)),
+            Map.entry("Other Expenses", new Profile(2, 40))
+    );
+    private static final Profile DEFAULT_PROFILE = new Profile(1, 50);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRollupRepository rollupRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final SeedProperties properties;
+
+    private record Profile(double weight, double typicalAmount) {
+    }
+
+    private record Category(long id, String name, Profile profile) {
+    }
+
+    /**
+     * Categories to pick from by weight, with the weights summed once rather than per pick.
+     */
+    private record WeightedCategories(List<Category> categories, double totalWeight) {
+
+        static WeightedCategories of(List<Category> categories) {
+            double total = 0;
+            for (Category category : categories) {
+                total += category.profile().weight();
+            }
+            return new WeightedCategories(categories, total);
+        }
+    }
+
+    /**
+     * What one run wrote.
+     */
+    public record Summary(int users, long transactions, Duration elapsed) {
+    }
+
+    public SyntheticDataGenerator(
+            JdbcTemplate jdbcTemplate,
+            TransactionRollupRepository rollupRepository,
+            PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager,
+            SeedProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Generates the configured number of users and transactions.
+     */
+    public Summary generate() {
+        return generate(properties.users(), properties.transactionsPerUser());
+    }
+
+    /**
+     * Generates users {@code 0..users-1} with the given number of transactions each,
+     * taking the remaining settings from {@link SeedProperties}.
+     */
+    public Summary generate(int users, int transactionsPerUser) {
+        long start = System.nanoTime();
+        List<Category> categories = jdbcTemplate.query("SELECT id, name FROM categories ORDER BY id",
+                (rs, row) -> new Category(rs.getLong(1), rs.getString(2),
+                        PROFILES.getOrDefault(rs.getString(2), DEFAULT_PROFILE)));
+        Category salary = categories.stream()
+                .filter(category -> category.name().equals("Salary"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Category Salary not found"));
+        WeightedCategories others = WeightedCategories.of(
+                categories.stream().filter(category -> category != salary).toList());
+
+        // One hash for everyone: BCrypt per user would dominate the run
+        String passwordHash = passwordEncoder.encode(properties.password());
+        for (int n = 0; n < users; n++) {
+            int userNumber = n;
+            transactionTemplate.executeWithoutResult(status ->
+                    generateUser(userNumber, transactionsPerUser, passwordHash, salary, others));
+            if ((n + 1) % 10 == 0 || n + 1 == users) {
+                log.info("Generated {}/{} users", n + 1, users);
+            }
+        }
+        return new Summary(users, (long) users * transactionsPerUser, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Returns the email of generated user {@code n}.
+     */
+    public String email(int n) {
+        return properties.emailPrefix() + n + "@example.com";
+    }
+
+    private void generateUser(int n, int transactionCount, String passwordHash, Category salary,
+                              WeightedCategories others) {
+        String email = email(n);
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", email);
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email, password) VALUES (?, ?, ?) RETURNING id",
+                Long.class, "Load User " + n, email, passwordHash);
+
+        SplittableRandom random = new SplittableRandom(properties.randomSeed() * 1_000_003L + n);
+        YearMonth first = properties.lastMonth().minusMonths(properties.months() - 1L);
+        BigDecimal monthlySalary = BigDecimal.valueOf(2500 + random.nextInt(4500));
+        int salaries = Math.min(properties.months(), transactionCount / 10);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < transactionCount; i++) {
+            if (i < salaries) {
+                YearMonth month = first.plusMonths(i);
+                batch.add(row(userId, salary.id(), monthlySalary, "Salary " + month,
+                        month.atDay(25).atTime(9, 0)));
+            } else {
+                Category category = pick(others, random);
+                batch.add(row(userId, category.id(), amount(category.profile(), random),
+                        category.name() + " - " + MERCHANTS[random.nextInt(MERCHANTS.length)],
+                        date(first, random)));
+            }
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+        }
+        rollupRepository.rebuild(userId);
+    }
+
+    private static Object[] row(Long userId, long categoryId, BigDecimal amount, String description,
+                                LocalDateTime date) {
+        return new Object[]{userId, categoryId, amount, description, Timestamp.valueOf(date)};
+    }
+
+    private static Category pick(WeightedCategories weighted, SplittableRandom random) {
+        double target = random.nextDouble(weighted.totalWeight());
+        for (Category category : weighted.categories()) {
+            target -= category.profile().weight();
+            if (target < 0) {
+                return category;
+            }
+        }
+        return weighted.categories().get(weighted.categories().size() - 1);
+    }
+
+    /**
+     * Log-normal around the typical amount: most values near it, a long tail of large ones.
+     */
+    private static BigDecimal amount(Profile profile, SplittableRandom random) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        double value = profile.typicalAmount() * Math.exp(0.6 * gaussian);
+        return BigDecimal.valueOf(Math.min(Math.max(value, 0.5), 999_999)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Any day in the range, between 07:00 and 22:59.
+     */
+    private LocalDateTime date(YearMonth first, SplittableRandom random) {
+        YearMonth month = first.plusMonths(random.nextInt(properties.months()));
+        return month.atDay(1 + random.nextInt(month.lengthOfMonth()))
+                .atTime(7 + random.nextInt(16), random.nextInt(60), random.nextInt(60));
+    }
+}
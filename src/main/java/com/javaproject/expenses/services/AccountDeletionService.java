@@ -0,0 +1,142 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.AccountDeletionProperties;
+import com.javaproject.expenses.dtos.AccountDeletionJobDto;
+import com.javaproject.expenses.repositories.AccountDeletionJobRepository;
+import com.javaproject.expenses.repositories.TransactionWriteRepository;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.TokenVersions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes accounts in the background.
+ * A request records a job, which revokes the user's sign-ins on every node (see {@link TokenVersions});
+ * a single worker thread then deletes the user's transactions {@code chunkSize} rows per database
+ * transaction, and finally the user row, letting the database cascade remove the rollups. No entity
+ * is loaded, so memory and lock time stay flat however many transactions the user has. Progress is
+ * kept in {@code account_deletion_jobs}. A node holds a lease on the jobs it works on and renews it
+ * with every chunk; jobs whose lease runs out, such as those of a node that stopped, are claimed by
+ * the next node that looks, every {@code lease}. A failed attempt returns the job to PENDING, to be
+ * claimed again after {@code retryBackoff}, doubled with every attempt up to {@code maxRetryBackoff};
+ * the user is already signed out everywhere, so the deletion is retried rather than left half done.
+ * No sync tombstones are written: they would be removed with the user row, and the account's
+ * sync clients lose access as soon as its sign-ins are revoked.
+ */
+@Slf4j
+@Service
+public class AccountDeletionService {
+
+    private final AccountDeletionJobRepository jobRepository;
+    private final TransactionWriteRepository transactionWriteRepository;
+    private final UserRepository userRepository;
+    private final BalanceService balanceService;
+    private final TokenVersions tokenVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountDeletionProperties properties;
+    private final UUID node = UUID.randomUUID();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("account-deletion-"));
+
+    public AccountDeletionService(
+            AccountDeletionJobRepository jobRepository,
+            TransactionWriteRepository transactionWriteRepository,
+            UserRepository userRepository,
+            BalanceService balanceService,
+            TokenVersions tokenVersions,
+            PlatformTransactionManager transactionManager,
+            AccountDeletionProperties properties
+    ) {
+        this.jobRepository = jobRepository;
+        this.transactionWriteRepository = transactionWriteRepository;
+        this.userRepository = userRepository;
+        this.balanceService = balanceService;
+        this.tokenVersions = tokenVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Revokes the user's sign-ins and starts deleting the account, unless a deletion is already under way.
+     *
+     * @return the user's deletion job
+     */
+    public AccountDeletionJobDto request(Long userId) {
+        Optional<AccountDeletionJobDto> created = jobRepository.create(userId, node, properties.lease());
+        tokenVersions.revoke(userId);
+        created.ifPresent(job -> executor.execute(() -> run(job.getId(), userId)));
+        return created.or(() -> jobRepository.findUnfinished(userId))
+                .orElseThrow(() -> new IllegalStateException("Deletion job of user " + userId + " not found"));
+    }
+
+    public Optional<AccountDeletionJobDto> find(UUID id) {
+        return jobRepository.find(id);
+    }
+
+    /**
+     * Claims unfinished jobs nobody holds a lease on, such as those left by a node that stopped, and resumes them.
+     * Claims one job at a time, so that queued jobs do not sit out their lease behind a long one.
+     */
+    @Scheduled(fixedDelayString = "${expenses.account-deletion.lease:2m}")
+    public void resume() {
+        for (AccountDeletionJobRepository.UnfinishedJob job : jobRepository.claimUnfinished(node, properties.lease(), 1)) {
+            log.info("Resuming deletion of user {} (job {})", job.userId(), job.id());
+            executor.execute(() -> run(job.id(), job.userId()));
+        }
+    }
+
+    private void run(UUID jobId, Long userId) {
+        try {
+            if (!jobRepository.markRunning(jobId, node, properties.lease())) {
+                log.info("Deletion of user {} (job {}) is finished or held by another node", userId, jobId);
+                return;
+            }
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> {
+                    int count = transactionWriteRepository.deleteChunk(userId, properties.chunkSize());
+                    if (!jobRepository.addDeletedTransactions(jobId, count, node, properties.lease())) {
+                        status.setRollbackOnly();
+                        return -1;
+                    }
+                    return count;
+                });
+                if (deleted < 0) {
+                    log.warn("Deletion of user {} (job {}) was taken over by another node", userId, jobId);
+                    return;
+                }
+            } while (deleted == properties.chunkSize());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.deleteRowById(userId);
+                jobRepository.markCompleted(jobId);
+            });
+            balanceService.invalidate(userId);
+        } catch (RuntimeException e) {
+            log.error("Deletion of user {} failed (job {}); it will be retried", userId, jobId, e);
+            try {
+                if (!jobRepository.retryLater(jobId, e.getMessage(), node, properties.retryBackoff(),
+                        properties.maxRetryBackoff())) {
+                    log.warn("Deletion of user {} (job {}) was taken over by another node", userId, jobId);
+                }
+            } catch (RuntimeException recordFailure) {
+                // The lease runs out instead, and the job is claimed again after it
+                log.error("Could not record the failure of job {}", jobId, recordFailure);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,153 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.BalanceDto;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU cache of per-user balances with a time-to-live.
+ *
+ * <p>Writers call {@link #beginWrite} before their database transaction commits and
+ * {@link #completeWrite} once it has finished, which adjusts a cached balance in place.
+ * A balance loaded while a write for the same user was in flight, or that finished
+ * during the load, is returned but not cached, so a cached entry never misses or
+ * double-counts a committed write.
+ */
+public class BalanceCache {
+
+    private static final int STRIPES = 256;
+
+    /**
+     * Income and expense totals; amounts are positive and the category type decides the side.
+     */
+    public record Balance(BigDecimal income, BigDecimal expense, long count) {
+        public static final Balance ZERO = new Balance(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+        public Balance plus(Balance other) {
+            return new Balance(income.add(other.income), expense.add(other.expense), count + other.count);
+        }
+
+        public BalanceDto toDto() {
+            return new BalanceDto(income, expense, income.subtract(expense), count);
+        }
+    }
+
+    private record Entry(Balance balance, long loadedAt) {
+    }
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final Map<Long, Integer> writesInFlight = new HashMap<>();
+    // Bumped whenever a write for a user hashing to the stripe begins or completes
+    private final long[] stripeVersions = new long[STRIPES];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BalanceCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    BalanceCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached balance, loading it with {@code loader} on a miss.
+     * The loader runs outside the cache lock.
+     */
+    public Balance get(Long userId, Function<Long, Balance> loader) {
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                if (nanoClock.getAsLong() - entry.loadedAt() < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.balance();
+                }
+                entries.remove(userId);
+            }
+            misses.incrementAndGet();
+            version = stripeVersions[stripe(userId)];
+        }
+
+        Balance loaded = loader.apply(userId);
+
+        synchronized (this) {
+            if (stripeVersions[stripe(userId)] == version && !writesInFlight.containsKey(userId)) {
+                entries.put(userId, new Entry(loaded, nanoClock.getAsLong()));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Marks the start of a write for the user; must be followed by {@link #completeWrite}.
+     */
+    public synchronized void beginWrite(Long userId) {
+        writesInFlight.merge(userId, 1, Integer::sum);
+        stripeVersions[stripe(userId)]++;
+    }
+
+    /**
+     * Marks the end of a write and, if it committed, adds its delta to the cached balance.
+     */
+    public synchronized void completeWrite(Long userId, Balance delta, boolean committed) {
+        stripeVersions[stripe(userId)]++;
+        writesInFlight.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (!committed) {
+            return;
+        }
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            entries.put(userId, new Entry(entry.balance().plus(delta), entry.loadedAt()));
+        }
+    }
+
+    /**
+     * Drops the user's entry so the next read reloads it.
+     */
+    public synchronized void invalidate(Long userId) {
+        stripeVersions[stripe(userId)]++;
+        entries.remove(userId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.BalanceCacheProperties;
+import com.javaproject.expenses.dtos.BalanceDto;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.services.BalanceCache.Balance;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Serves per-user balances from {@link BalanceCache}.
+ * Misses are loaded with one aggregate query over the rollup table; writes adjust
+ * cached entries by their delta once the database transaction commits.
+ */
+@Service
+public class BalanceService {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 1);
+
+    private final TransactionRollupRepository rollupRepository;
+    private final BalanceCache cache;
+
+    public BalanceService(TransactionRollupRepository rollupRepository, BalanceCacheProperties properties) {
+        this.rollupRepository = rollupRepository;
+        this.cache = new BalanceCache(properties.maxSize(), properties.ttl());
+    }
+
+    /**
+     * Returns the user's all-time income, expense, net and transaction count.
+     */
+    public BalanceDto getBalance(Long userId) {
+        return cache.get(userId, this::load).toDto();
+    }
+
+    /**
+     * Drops the user's cached balance, for writes that bypass {@link TransactionsChangedEvent} or were made
+     * on another node.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public BalanceCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Registers the write with the cache and applies its delta when the transaction completes.
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(event.userId());
+            return;
+        }
+
+        Long userId = event.userId();
+        Balance delta = deltaOf(event.changes());
+        cache.beginWrite(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.completeWrite(userId, delta, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Folds a list of changes into the net change of the owner's balance.
+     */
+    static Balance deltaOf(List<TransactionChange> changes) {
+        Balance delta = Balance.ZERO;
+        for (TransactionChange change : changes) {
+            if (change.before() != null) {
+                delta = delta.plus(signed(change.before(), -1));
+            }
+            if (change.after() != null) {
+                delta = delta.plus(signed(change.after(), 1));
+            }
+        }
+        return delta;
+    }
+
+    private static Balance signed(TransactionSnapshot snapshot, int sign) {
+        BigDecimal amount = sign > 0 ? snapshot.amount() : snapshot.amount().negate();
+        if ("INCOME".equals(snapshot.categoryType())) {
+            return new Balance(amount, BigDecimal.ZERO, sign);
+        }
+        return new Balance(BigDecimal.ZERO, amount, sign);
+    }
+
+    private Balance load(Long userId) {
+        BalanceDto totals = rollupRepository.findBalance(userId, EARLIEST, LATEST);
+        return new Balance(totals.getIncome(), totals.getExpense(), totals.getCount());
+    }
+}
@@ -0,0 +1,30 @@
+package com.javaproject.expenses.services;
+
+/**
+ * Thrown when one operation of a transaction batch cannot be applied, so none of them are.
+ */
+public class BatchOperationException extends RuntimeException {
+
+    private final int index;
+    private final boolean notFound;
+
+    public BatchOperationException(int index, String message, boolean notFound) {
+        super(message);
+        this.index = index;
+        this.notFound = notFound;
+    }
+
+    /**
+     * Returns the 0-based position of the failing operation.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns true if the operation names a transaction the user does not own.
+     */
+    public boolean isNotFound() {
+        return notFound;
+    }
+}
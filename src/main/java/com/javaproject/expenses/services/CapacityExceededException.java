@@ -0,0 +1,28 @@
+package com.javaproject.expenses.services;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is refused because a bounded resource is full.
+ * Mapped to 429 Too Many Requests with a {@code Retry-After} header.
+ */
+public class CapacityExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CapacityExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * The suggested delay rounded up to whole seconds, at least one, as {@code Retry-After} takes it.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
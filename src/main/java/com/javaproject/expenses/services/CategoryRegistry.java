@@ -0,0 +1,123 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.dtos.CategoryDto;
+import com.javaproject.expenses.mappers.CategoryMapper;
+import com.javaproject.expenses.models.Category;
+import com.javaproject.expenses.repositories.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable in-memory copy of the fixed category table, indexed by id.
+ * Loaded once at startup, after Flyway has migrated; categories only change through migrations,
+ * so a new list takes effect when the nodes restart with it.
+ */
+@Slf4j
+@Service
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final ObjectMapper objectMapper;
+
+    private Snapshot snapshot;
+
+    /**
+     * The registry's contents, built together from one read of the table.
+     */
+    private record Snapshot(CategoryDto[] byId, List<CategoryDto> all, byte[] json, String etag) {
+    }
+
+    public CategoryRegistry(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                            ObjectMapper objectMapper) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the categories table and builds the lookup array and the serialized list.
+     */
+    @PostConstruct
+    void load() {
+        List<CategoryDto> all = categoryRepository.findAll().stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .map(categoryMapper::toDto)
+                .toList();
+
+        int size = all.isEmpty() ? 0 : Math.toIntExact(all.get(all.size() - 1).getId()) + 1;
+        CategoryDto[] byId = new CategoryDto[size];
+        for (CategoryDto category : all) {
+            byId[Math.toIntExact(category.getId())] = category;
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(all);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            snapshot = new Snapshot(byId, all, json, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize categories", e);
+        }
+        log.info("Loaded {} categories", all.size());
+    }
+
+    /**
+     * Looks up a category without touching the database.
+     */
+    public Optional<CategoryDto> find(Long id) {
+        CategoryDto[] byId = snapshot.byId();
+        if (id == null || id < 0 || id >= byId.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId[(int) id.longValue()]);
+    }
+
+    /**
+     * Returns the type (INCOME or EXPENSE) of a category known to exist.
+     *
+     * @throws IllegalArgumentException if the category does not exist
+     */
+    public String typeOf(Long id) {
+        return find(id)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid category"))
+                .getType();
+    }
+
+    /**
+     * Returns a JPA reference to a validated category, which does not issue a SELECT.
+     *
+     * @throws IllegalArgumentException if the category does not exist
+     */
+    public Category reference(Long id) {
+        if (find(id).isEmpty()) {
+            throw new IllegalArgumentException("Invalid category");
+        }
+        return categoryRepository.getReferenceById(id);
+    }
+
+    public List<CategoryDto> all() {
+        return snapshot.all();
+    }
+
+    /**
+     * Returns the JSON array of all categories, serialized once per load.
+     * Callers must not modify the returned array.
+     */
+    public byte[] json() {
+        return snapshot.json();
+    }
+
+    /**
+     * Returns the strong ETag of {@link #json()}.
+     */
+    public String etag() {
+        return snapshot.etag();
+    }
+}
@@ -0,0 +1,151 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.config.ChangeFeedProperties;
+import com.javaproject.expenses.events.DataVersionChangedEvent;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.feed.ChangeFeedHub;
+import com.javaproject.expenses.feed.FeedEvent;
+import com.javaproject.expenses.feed.PgChangeChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Turns committed transaction writes into change-feed events.
+ * Events of writes on this node are handed to the {@link ChangeFeedHub} once their database
+ * transaction commits. They are also sent to the other nodes through the {@link PgChangeChannel},
+ * inside the same transaction, so a rolled-back write is never announced. Notifications from this
+ * node are ignored when they come back. A write too large for one notification reaches the other
+ * nodes as a resync event. A notification also advances the receiving node's cached data version,
+ * so its ETags change as soon as the write is announced rather than when the cache entry expires,
+ * and drops the user's cached balance there, which only writes on its own node keep up to date.
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    /**
+     * The body of a notification; {@code events} is null for a resync.
+     */
+    record Notification(String node, Long userId, long version, List<FeedEvent> events) {
+    }
+
+    private final ChangeFeedHub hub;
+    private final PgChangeChannel channel;
+    private final DataVersionService dataVersionService;
+    private final BalanceService balanceService;
+    private final ObjectMapper objectMapper;
+    private final ChangeFeedProperties properties;
+    private final String node = UUID.randomUUID().toString();
+
+    public ChangeFeedService(ChangeFeedHub hub, ObjectProvider<PgChangeChannel> channel,
+                             DataVersionService dataVersionService, BalanceService balanceService,
+                             ObjectMapper objectMapper, ChangeFeedProperties properties) {
+        this.hub = hub;
+        this.channel = channel.getIfAvailable();
+        this.dataVersionService = dataVersionService;
+        this.balanceService = balanceService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Opens the user's change feed, replaying the events after {@code lastEventId} first.
+     * An unparseable id is answered with a resync event.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        FeedEvent.Position last = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                last = FeedEvent.Position.parse(lastEventId.trim());
+            } catch (IllegalArgumentException e) {
+                last = new FeedEvent.Position(-1, 0);
+            }
+        }
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        hub.subscribe(userId, emitter, last, last == null ? null : dataVersionService.version(userId));
+        return emitter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (channel != null) {
+            channel.start(this::onNotification, hub::resyncAll);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${expenses.change-feed.heartbeat:15s}")
+    public void heartbeat() {
+        hub.heartbeat();
+    }
+
+    /**
+     * Announces the write to other nodes within its database transaction and to this node's
+     * subscribers once it commits.
+     */
+    @EventListener
+    public void onDataVersionChanged(DataVersionChangedEvent event) throws JsonProcessingException {
+        List<FeedEvent> events = toFeedEvents(event);
+        if (channel != null) {
+            channel.send(notificationPayload(event, events));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            hub.publish(event.userId(), events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hub.publish(event.userId(), events);
+            }
+        });
+    }
+
+    void onNotification(String payload) {
+        Notification notification;
+        try {
+            notification = objectMapper.readValue(payload, Notification.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed change notification: {}", e.getMessage());
+            return;
+        }
+        if (node.equals(notification.node())) {
+            return;
+        }
+        dataVersionService.getCache().advance(notification.userId(), notification.version());
+        balanceService.invalidate(notification.userId());
+        hub.publish(notification.userId(), notification.events() != null
+                ? notification.events()
+                : List.of(FeedEvent.resync(notification.version())));
+    }
+
+    private List<FeedEvent> toFeedEvents(DataVersionChangedEvent event) throws JsonProcessingException {
+        List<FeedEvent> events = new ArrayList<>(event.changes().size());
+        for (TransactionChange change : event.changes()) {
+            String name = change.before() == null ? "created" : change.after() == null ? "deleted" : "updated";
+            String data = objectMapper.writeValueAsString(change.after() != null ? change.after() : change.before());
+            events.add(new FeedEvent(event.version(), events.size(), name, data));
+        }
+        return events;
+    }
+
+    private String notificationPayload(DataVersionChangedEvent event, List<FeedEvent> events) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(new Notification(node, event.userId(), event.version(), events));
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= PgChangeChannel.MAX_PAYLOAD_BYTES) {
+            return payload;
+        }
+        return objectMapper.writeValueAsString(new Notification(node, event.userId(), event.version(), null));
+    }
+}
@@ -0,0 +1,76 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.DataVersionProperties;
+import com.javaproject.expenses.events.DataVersionChangedEvent;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.repositories.DataVersionRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps a per-user data version that changes with every write to the user's transactions,
+ * and derives the ETag of transaction reads from it.
+ * The version lives in {@code users.data_version}, so it survives restarts and is shared by
+ * all nodes; each node caches it in a {@link UserVersionCache} so that a poll with a current
+ * ETag is answered without SQL. Writes on this node are seen at once, writes on other nodes
+ * when their change notification arrives (see {@link ChangeFeedService}), and at the latest
+ * within {@code expenses.data-version.ttl}.
+ */
+@Service
+public class DataVersionService {
+
+    private final DataVersionRepository dataVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserVersionCache cache;
+
+    public DataVersionService(DataVersionRepository dataVersionRepository, ApplicationEventPublisher eventPublisher,
+                              DataVersionProperties properties) {
+        this.dataVersionRepository = dataVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = new UserVersionCache(properties.maxSize(), properties.ttl());
+    }
+
+    /**
+     * Returns the weak ETag for the user's current data, or null if the user no longer exists.
+     * Read before the data it labels, so a response is never tagged newer than its body.
+     */
+    public String etag(Long userId) {
+        Long version = version(userId);
+        return version == null ? null : "W/\"" + userId + "." + version + "\"";
+    }
+
+    /**
+     * Returns the user's current data version, or null if the user no longer exists.
+     */
+    public Long version(Long userId) {
+        return cache.get(userId, id -> dataVersionRepository.find(id).orElse(null));
+    }
+
+    public UserVersionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Bumps the version in the writing database transaction, and in the cache once it commits.
+     * Publishes a {@link DataVersionChangedEvent} with the new version.
+     */
+    @EventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Long userId = event.userId();
+        long version = dataVersionRepository.increment(userId);
+        eventPublisher.publishEvent(new DataVersionChangedEvent(userId, version, event.changes()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.advance(userId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.advance(userId, version);
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.PasswordHashingProperties;
+import com.javaproject.expenses.telemetry.SqlStatementCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated, size-capped executor.
+ * BCrypt is deliberately slow, so running it on request threads lets a burst of logins
+ * occupy every servlet worker. Here at most {@code poolSize} hashes run at once,
+ * {@code queueCapacity} more may wait, and anything beyond that is refused immediately
+ * with {@link CapacityExceededException}.
+ * Stages chained onto the returned futures run on the application task executor (virtual threads
+ * under the {@code virtual} profile), so one that waits for a database connection, such as saving
+ * the user, never holds a hashing thread.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Executor continuations;
+    private final Duration retryAfter;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            PasswordHashingProperties properties,
+            MeterRegistry meterRegistry,
+            @Qualifier("applicationTaskExecutor") Executor continuations
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.continuations = continuations;
+        this.retryAfter = properties.retryAfter();
+        this.executor = new ThreadPoolExecutor(
+                properties.poolSize(), properties.poolSize(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("expenses.password.hashing")
+                .description("Time spent computing a password hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("expenses.password.hashing")
+                .description("Time spent verifying a password against its hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("expenses.password.hashing.queue.wait")
+                .description("Time a hashing task waited for a free thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("expenses.password.hashing.rejected")
+                .description("Hashing tasks refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("expenses.password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Hashing tasks waiting for a free thread")
+                .register(meterRegistry);
+        Gauge.builder("expenses.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes a raw password.
+     *
+     * @throws CapacityExceededException if the executor cannot accept more work
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a raw password against a stored hash.
+     *
+     * @throws CapacityExceededException if the executor cannot accept more work
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> hashed;
+        try {
+            hashed = CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(work);
+            }, task -> executor.execute(asCaller(task)));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new CapacityExceededException("Too many authentication requests, try again later", retryAfter);
+        }
+        // Hand the result over so that chained stages run off the hashing pool, still as the calling user
+        return hashed.thenApplyAsync(Function.identity(), task -> continuations.execute(asCaller(task)));
+    }
+
+    /**
+     * Runs the task with the security context and SQL statement scope of the thread that submits it.
+     */
+    private static Runnable asCaller(Runnable task) {
+        return SqlStatementCounter.propagate(new DelegatingSecurityContextRunnable(task));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,161 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.RecurringProperties;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.RecurringTransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the transactions of due recurring rules.
+ * Each run claims up to {@code claimSize} due rules with {@code FOR UPDATE SKIP LOCKED}, creates
+ * their occurrences up to now in one Hibernate batch of at most {@code chunkSize}, records how far
+ * each rule got, and commits; then claims again until no unclaimed rule is due. Nodes running at
+ * the same time share the rules and never create an occurrence twice. Occurrences missed while no
+ * node was running are created on the next run, with their scheduled dates.
+ * The new transactions are published as a {@link TransactionsChangedEvent} per user, like any
+ * other write, in user order so that two nodes never wait on each other's users.
+ * A rule whose next occurrence cannot be computed, such as one whose dates run past the supported
+ * range, is ended with a warning rather than failing the chunk, which would stop every run.
+ * Runs every {@code expenses.recurring.poll-interval}.
+ */
+@Slf4j
+@Service
+public class RecurringTransactionScheduler {
+
+    private final RecurringTransactionRepository recurringRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final RecurringProperties properties;
+    private final Timer runTimer;
+    private final DistributionSummary createdPerRun;
+
+    public RecurringTransactionScheduler(
+            RecurringTransactionRepository recurringRepository,
+            CategoryRegistry categoryRegistry,
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            RecurringProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.recurringRepository = recurringRepository;
+        this.categoryRegistry = categoryRegistry;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.runTimer = Timer.builder("expenses.recurring.run")
+                .description("Time a node spent creating due recurring transactions")
+                .register(meterRegistry);
+        this.createdPerRun = DistributionSummary.builder("expenses.recurring.run.created")
+                .description("Recurring transactions a node created in one run")
+                .baseUnit("transactions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A chunk's claimed rules and the transactions created for them.
+     */
+    private record Chunk(int claimed, int created) {
+    }
+
+    /**
+     * Creates every occurrence due now that no other node is creating.
+     *
+     * @return the number of transactions created
+     */
+    @Scheduled(fixedDelayString = "${expenses.recurring.poll-interval:1m}")
+    public long run() {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        long created = 0;
+        int rules = 0;
+        Chunk chunk;
+        do {
+            chunk = chunkTransaction.execute(status -> createChunk(now));
+            created += chunk.created();
+            rules += chunk.claimed();
+        } while (chunk.claimed() > 0);
+
+        long elapsed = System.nanoTime() - start;
+        runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        createdPerRun.record(created);
+        if (created > 0) {
+            log.info("Created {} recurring transactions for {} rules in {} ms", created, rules,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return created;
+    }
+
+    private Chunk createChunk(LocalDateTime now) {
+        List<RecurringTransactionRepository.DueRule> rules = new ArrayList<>(
+                recurringRepository.claimDue(now, properties.claimSize()));
+        if (rules.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        rules.sort(Comparator.comparing(RecurringTransactionRepository.DueRule::userId));
+
+        Map<Long, List<TransactionChange>> changes = new TreeMap<>();
+        List<RecurringTransactionRepository.Progress> progress = new ArrayList<>(rules.size());
+        int created = 0;
+        for (RecurringTransactionRepository.DueRule rule : rules) {
+            User user = entityManager.getReference(User.class, rule.userId());
+            String type = categoryRegistry.typeOf(rule.categoryId());
+            long n = rule.occurrences();
+            LocalDateTime date;
+            try {
+                date = rule.frequency().occurrenceUntil(rule.startDate(), rule.every(), n, rule.endDate());
+                while (date != null && !date.isAfter(now) && created < properties.chunkSize()) {
+                    Transaction transaction = new Transaction();
+                    transaction.setUser(user);
+                    transaction.setCategory(categoryRegistry.reference(rule.categoryId()));
+                    transaction.setAmount(rule.amount());
+                    transaction.setDescription(rule.description());
+                    transaction.setTransactionDate(date);
+                    entityManager.persist(transaction);
+
+                    changes.computeIfAbsent(rule.userId(), id -> new ArrayList<>())
+                            .add(TransactionChange.created(TransactionSnapshot.of(transaction, type)));
+                    created++;
+                    n++;
+                    date = rule.frequency().occurrenceUntil(rule.startDate(), rule.every(), n, rule.endDate());
+                }
+            } catch (DateTimeException | ArithmeticException e) {
+                // The occurrences created so far are kept; the rule is not claimed again
+                log.warn("Ending recurring rule {} after {} occurrences: {}", rule.id(), n, e.getMessage());
+                date = null;
+            }
+            // A rule cut short by the chunk size stays due and is claimed again
+            progress.add(new RecurringTransactionRepository.Progress(rule.id(), n, date));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        recurringRepository.advanceAll(progress);
+        changes.forEach((userId, userChanges) ->
+                eventPublisher.publishEvent(new TransactionsChangedEvent(userId, userChanges)));
+        return new Chunk(rules.size(), created);
+    }
+}
@@ -0,0 +1,109 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.RecurringProperties;
+import com.javaproject.expenses.dtos.RecurringTransactionDto;
+import com.javaproject.expenses.dtos.RecurringTransactionPatch;
+import com.javaproject.expenses.dtos.RecurringTransactionRequest;
+import com.javaproject.expenses.repositories.RecurringTransactionRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Manages the user's recurring transaction rules.
+ * The transactions themselves are created by the {@link RecurringTransactionScheduler}.
+ */
+@AllArgsConstructor
+@Service
+public class RecurringTransactionService {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(10000, 1, 1, 0, 0);
+
+    private final RecurringTransactionRepository recurringRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final RecurringProperties properties;
+
+    public List<RecurringTransactionDto> findAll(Long userId) {
+        return recurringRepository.findAll(userId);
+    }
+
+    public Optional<RecurringTransactionDto> find(Long id, Long userId) {
+        return recurringRepository.find(id, userId);
+    }
+
+    /**
+     * Creates a rule for the user; its first occurrence is due at its start date.
+     *
+     * @throws IllegalArgumentException if the category does not exist, a date is out of range, the rule
+     *                                  ends before it starts or it would backfill too many occurrences
+     */
+    public RecurringTransactionDto create(Long userId, RecurringTransactionRequest request) {
+        categoryRegistry.typeOf(request.categoryId());
+        int every = request.every() != null ? request.every() : 1;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = request.startDate() != null ? request.startDate() : now;
+        checkInRange(start, "Start date");
+        if (request.endDate() != null) {
+            checkInRange(request.endDate(), "End date");
+            if (request.endDate().isBefore(start)) {
+                throw new IllegalArgumentException("End date must not be before the start date");
+            }
+        }
+        LocalDateTime backfillEnd = request.endDate() != null && request.endDate().isBefore(now) ? request.endDate() : now;
+        if (request.frequency().occurrenceUntil(start, every, properties.maxBackfill(), backfillEnd) != null) {
+            throw new IllegalArgumentException("Start date is too far in the past: at most "
+                    + properties.maxBackfill() + " occurrences before now are created");
+        }
+        return recurringRepository.create(userId, request.categoryId(), request.amount(), request.description(),
+                request.frequency(), every, start, request.endDate(), start);
+    }
+
+    /**
+     * Applies the non-null fields of the patch to one of the user's rules. A new end date may end
+     * the rule, or resume one that had ended.
+     *
+     * @return the updated rule, or empty if the user owns no such rule
+     * @throws IllegalArgumentException if the category does not exist, the end date is out of range or
+     *                                  the rule would end before it starts
+     */
+    @Transactional
+    public Optional<RecurringTransactionDto> update(Long id, Long userId, RecurringTransactionPatch patch) {
+        if (patch.categoryId() != null) {
+            categoryRegistry.typeOf(patch.categoryId());
+        }
+        if (patch.endDate() != null) {
+            checkInRange(patch.endDate(), "End date");
+        }
+        return recurringRepository.lock(id, userId).map(rule -> {
+            LocalDateTime end = patch.endDate() != null ? patch.endDate() : rule.getEndDate();
+            if (end != null && end.isBefore(rule.getStartDate())) {
+                throw new IllegalArgumentException("End date must not be before the start date");
+            }
+            LocalDateTime nextRun = rule.getFrequency().occurrenceUntil(
+                    rule.getStartDate(), rule.getEvery(), rule.getOccurrences(), end);
+            return recurringRepository.update(id,
+                    patch.categoryId() != null ? patch.categoryId() : rule.getCategoryId(),
+                    patch.amount() != null ? patch.amount() : rule.getAmount(),
+                    patch.description() != null ? patch.description() : rule.getDescription(),
+                    end, nextRun);
+        });
+    }
+
+    /**
+     * Deletes one of the user's rules, keeping the transactions it created.
+     *
+     * @return false if the user owns no such rule
+     */
+    public boolean delete(Long id, Long userId) {
+        return recurringRepository.delete(id, userId);
+    }
+
+    private static void checkInRange(LocalDateTime date, String name) {
+        if (date.isBefore(EARLIEST) || !date.isBefore(LATEST)) {
+            throw new IllegalArgumentException(name + " must be within the years 1900 to 9999");
+        }
+    }
+}
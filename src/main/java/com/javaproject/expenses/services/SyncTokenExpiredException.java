@@ -0,0 +1,12 @@
+package com.javaproject.expenses.services;
+
+/**
+ * Thrown when a sync token is older than the tombstones kept, so the deletes since it may be lost
+ * and the client has to reload its transactions.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+
+    public SyncTokenExpiredException() {
+        super("Sync token expired; reload the transactions and start again without since");
+    }
+}
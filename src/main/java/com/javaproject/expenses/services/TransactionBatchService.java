@@ -0,0 +1,162 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.BatchOperationResultDto;
+import com.javaproject.expenses.dtos.BatchResultDto;
+import com.javaproject.expenses.dtos.TransactionOperation;
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.mappers.TransactionMapper;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.TransactionWriteRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies an ordered list of creates, updates and deletes as one unit.
+ * Every operation is checked before anything is written: categories against the registry and
+ * ownership of all referenced transactions with a single locking SELECT. The operations are
+ * then played against those locked rows in memory, so each row is written once with its final
+ * state: creates in one Hibernate batch, updates in one JDBC batch and deletes in one statement.
+ */
+@AllArgsConstructor
+@Service
+public class TransactionBatchService {
+    private final TransactionWriteRepository transactionWriteRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionMapper transactionMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    /**
+     * Applies the operations for the user in request order, all or none.
+     *
+     * @throws BatchOperationException if an operation is invalid or names a transaction the user does not own
+     */
+    @Transactional
+    public BatchResultDto apply(Long userId, List<TransactionOperation> operations) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            switch (operations.get(i)) {
+                case TransactionOperation.Create create -> checkCategory(i, create.transaction().categoryId());
+                case TransactionOperation.Update update -> {
+                    checkCategory(i, update.transaction().categoryId());
+                    ids.add(update.id());
+                }
+                case TransactionOperation.Delete delete -> ids.add(delete.id());
+            }
+        }
+
+        Map<Long, TransactionRow> original = ids.isEmpty() ? Map.of() : transactionWriteRepository.lockAll(userId, ids);
+        Map<Long, TransactionRow> current = new HashMap<>(original);
+        Set<Long> updated = new LinkedHashSet<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+        Map<Integer, Transaction> created = new LinkedHashMap<>();
+        List<BatchOperationResultDto> results = new ArrayList<>(operations.size());
+
+        User user = entityManager.getReference(User.class, userId);
+        for (int i = 0; i < operations.size(); i++) {
+            switch (operations.get(i)) {
+                case TransactionOperation.Create create -> {
+                    Transaction transaction = newTransaction(user, create.transaction());
+                    entityManager.persist(transaction);
+                    created.put(i, transaction);
+                    results.add(null); // filled in once the insert has been flushed
+                }
+                case TransactionOperation.Update update -> {
+                    TransactionRow row = patch(owned(i, update.id(), current), update.transaction());
+                    current.put(row.id(), row);
+                    updated.add(row.id());
+                    results.add(new BatchOperationResultDto(i, "update", row.id(), transactionMapper.toDto(row, userId)));
+                }
+                case TransactionOperation.Delete delete -> {
+                    owned(i, delete.id(), current);
+                    current.remove(delete.id());
+                    updated.remove(delete.id());
+                    deleted.add(delete.id());
+                    results.add(new BatchOperationResultDto(i, "delete", delete.id(), null));
+                }
+            }
+        }
+
+        List<TransactionChange> changes = new ArrayList<>();
+        entityManager.flush();
+        created.forEach((index, transaction) -> {
+            results.set(index, new BatchOperationResultDto(index, "create", transaction.getId(),
+                    transactionMapper.toDto(transaction)));
+            changes.add(TransactionChange.created(
+                    TransactionSnapshot.of(transaction, categoryRegistry.typeOf(transaction.getCategory().getId()))));
+        });
+
+        List<TransactionRow> rows = updated.stream()
+                .filter(id -> !current.get(id).equals(original.get(id)))
+                .map(current::get)
+                .toList();
+        if (!rows.isEmpty()) {
+            transactionWriteRepository.updateAll(userId, rows);
+            rows.forEach(row -> changes.add(TransactionChange.updated(snapshot(original.get(row.id())), snapshot(row))));
+        }
+        if (!deleted.isEmpty()) {
+            transactionWriteRepository.deleteAll(userId, deleted);
+            deleted.forEach(id -> changes.add(TransactionChange.deleted(snapshot(original.get(id)))));
+        }
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionsChangedEvent(userId, changes));
+        }
+        return new BatchResultDto(results);
+    }
+
+    private void checkCategory(int index, Long categoryId) {
+        if (categoryId != null && categoryRegistry.find(categoryId).isEmpty()) {
+            throw new BatchOperationException(index, "Invalid category", false);
+        }
+    }
+
+    private static TransactionRow owned(int index, Long id, Map<Long, TransactionRow> current) {
+        TransactionRow row = current.get(id);
+        if (row == null) {
+            throw new BatchOperationException(index, "Transaction not found", true);
+        }
+        return row;
+    }
+
+    private Transaction newTransaction(User user, TransactionRequest request) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setCategory(categoryRegistry.reference(request.categoryId()));
+        transaction.setAmount(request.amount());
+        transaction.setDescription(request.description());
+        transaction.setTransactionDate(request.transactionDate());
+        return transaction;
+    }
+
+    private static TransactionRow patch(TransactionRow row, TransactionPatch patch) {
+        return new TransactionRow(
+                row.id(),
+                patch.categoryId() != null ? patch.categoryId() : row.categoryId(),
+                patch.amount() != null ? patch.amount() : row.amount(),
+                patch.description() != null ? patch.description() : row.description(),
+                patch.transactionDate() != null ? patch.transactionDate() : row.transactionDate(),
+                row.createdAt()
+        );
+    }
+
+    private TransactionSnapshot snapshot(TransactionRow row) {
+        return TransactionSnapshot.of(row, categoryRegistry.typeOf(row.categoryId()));
+    }
+}
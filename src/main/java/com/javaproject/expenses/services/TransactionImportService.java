@@ -0,0 +1,171 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.ImportProperties;
+import com.javaproject.expenses.dtos.ImportErrorDto;
+import com.javaproject.expenses.dtos.ImportResultDto;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.imports.ImportRecord;
+import com.javaproject.expenses.imports.TransactionRecordReader;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk-inserts transactions from an import file.
+ * Rows are validated one by one and inserted in chunks, each chunk in its own database
+ * transaction using Hibernate JDBC batching.
+ */
+@Service
+public class TransactionImportService {
+
+    // NUMERIC(10,2): at most 8 digits before the decimal point
+    private static final int MAX_INTEGER_DIGITS = 8;
+
+    private final EntityManager entityManager;
+    private final CategoryRegistry categoryRegistry;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final ImportProperties properties;
+
+    public TransactionImportService(
+            EntityManager entityManager,
+            CategoryRegistry categoryRegistry,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            ImportProperties properties
+    ) {
+        this.entityManager = entityManager;
+        this.categoryRegistry = categoryRegistry;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Reads every row from the reader and inserts the valid ones for the user.
+     * Chunks that committed stay committed if a later chunk fails.
+     *
+     * @throws IOException if the input stream fails or is not in the expected format
+     */
+    public ImportResultDto importTransactions(Long userId, TransactionRecordReader reader) throws IOException {
+        Result result = new Result();
+        List<TransactionRequest> chunk = new ArrayList<>(properties.chunkSize());
+        List<Long> chunkLines = new ArrayList<>(properties.chunkSize());
+
+        ImportRecord record;
+        while ((record = reader.next()) != null) {
+            if (record.error() != null) {
+                result.reject(record.line(), record.error());
+                continue;
+            }
+
+            String problem = validate(record.request());
+            if (problem != null) {
+                result.reject(record.line(), problem);
+                continue;
+            }
+
+            chunk.add(record.request());
+            chunkLines.add(record.line());
+            if (chunk.size() == properties.chunkSize()) {
+                insertChunk(userId, chunk, chunkLines, result);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(userId, chunk, chunkLines, result);
+        }
+        return new ImportResultDto(result.imported, result.failed, result.errors);
+    }
+
+    private void insertChunk(Long userId, List<TransactionRequest> chunk, List<Long> lines, Result result) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                User user = entityManager.getReference(User.class, userId);
+                List<TransactionChange> changes = new ArrayList<>(chunk.size());
+                for (TransactionRequest request : chunk) {
+                    Transaction transaction = new Transaction();
+                    transaction.setUser(user);
+                    transaction.setCategory(categoryRegistry.reference(request.categoryId()));
+                    transaction.setAmount(request.amount());
+                    transaction.setDescription(request.description());
+                    transaction.setTransactionDate(request.transactionDate());
+                    entityManager.persist(transaction);
+
+                    String type = categoryRegistry.typeOf(request.categoryId());
+                    changes.add(TransactionChange.created(TransactionSnapshot.of(transaction, type)));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new TransactionsChangedEvent(userId, changes));
+            });
+            result.imported += chunk.size();
+        } catch (PersistenceException | DataAccessException e) {
+            String message = "Chunk rejected by the database: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Long line : lines) {
+                result.reject(line, message);
+            }
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    /**
+     * Checks one row against the category registry, the entity constraints and the column precision.
+     *
+     * @return the first problem found, or null if the row is valid
+     */
+    private String validate(TransactionRequest request) {
+        if (categoryRegistry.find(request.categoryId()).isEmpty()) {
+            return "Invalid category";
+        }
+
+        BigDecimal amount = request.amount();
+        if (amount.scale() > 2 || amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+            return "Amount must have at most " + MAX_INTEGER_DIGITS + " integer digits and 2 decimals";
+        }
+
+        Set<ConstraintViolation<Transaction>> violations =
+                validator.validateValue(Transaction.class, "amount", amount);
+        if (violations.isEmpty()) {
+            violations = validator.validateValue(Transaction.class, "description", request.description());
+        }
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    /**
+     * Running totals of one import.
+     */
+    private final class Result {
+        private long imported;
+        private long failed;
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < properties.maxReportedErrors()) {
+                errors.add(new ImportErrorDto(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.TransactionPartitionProperties;
+import com.javaproject.expenses.repositories.TransactionPartitionRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code transactions} ahead of the data.
+ * Creates the partitions of the current month and the next {@code monthsAhead}, so everyday
+ * inserts never land in the default partition, and gives any month that did land there (dates
+ * far in the past or future) its own partition, keeping the default partition empty.
+ * Runs at startup and on the {@code expenses.partitions.maintenance-cron} schedule, daily by default.
+ */
+@Slf4j
+@AllArgsConstructor
+@Service
+public class TransactionPartitionMaintainer {
+    private final TransactionPartitionRepository partitionRepository;
+    private final TransactionPartitionProperties properties;
+
+    /**
+     * Creates the missing partitions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${expenses.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        LocalDate current = LocalDate.now().withDayOfMonth(1);
+        List<LocalDate> months = new ArrayList<>();
+        for (int i = 0; i <= properties.monthsAhead(); i++) {
+            months.add(current.plusMonths(i));
+        }
+        months.addAll(partitionRepository.findMonthsInDefault());
+
+        for (LocalDate month : months) {
+            if (partitionRepository.ensureMonth(month)) {
+                log.info("Created transactions partition for {}", month);
+            }
+        }
+    }
+}
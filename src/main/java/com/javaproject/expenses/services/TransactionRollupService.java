@@ -0,0 +1,103 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.repositories.TransactionRollupRepository.Delta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the monthly rollup table in step with transaction writes.
+ * Deltas are applied in the same database transaction as the write that caused them.
+ */
+@Slf4j
+@Service
+public class TransactionRollupService {
+
+    private static final Comparator<RollupKey> KEY_ORDER =
+            Comparator.comparing(RollupKey::month).thenComparing(RollupKey::categoryId);
+
+    private final TransactionRollupRepository rollupRepository;
+    private final TransactionTemplate userTransaction;
+
+    public TransactionRollupService(TransactionRollupRepository rollupRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.userTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private record RollupKey(LocalDate month, Long categoryId) {
+    }
+
+    /**
+     * Folds the changes into per-(month, category) deltas and applies them.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (TransactionChange change : event.changes()) {
+            if (change.before() != null) {
+                accumulate(deltas, change.before(), -1);
+            }
+            if (change.after() != null) {
+                accumulate(deltas, change.after(), 1);
+            }
+        }
+
+        List<Delta> effective = new ArrayList<>();
+        for (Delta delta : deltas.values()) {
+            if (delta.count() != 0 || delta.amount().signum() != 0) {
+                effective.add(delta);
+            }
+        }
+        if (!effective.isEmpty()) {
+            rollupRepository.apply(event.userId(), effective);
+        }
+    }
+
+    /**
+     * Recomputes one user's rollups from the raw transactions table.
+     */
+    @Transactional
+    public void rebuild(Long userId) {
+        rollupRepository.rebuild(userId);
+    }
+
+    /**
+     * Recomputes all rollups from the raw transactions table, one user per database transaction,
+     * so each user's writes wait only for the rebuild of their own rollups.
+     * Runs on the {@code expenses.rollup.rebuild-cron} schedule, which is disabled by default.
+     */
+    @Scheduled(cron = "${expenses.rollup.rebuild-cron:-}")
+    public void rebuildAll() {
+        log.info("Rebuilding transaction monthly rollups");
+        for (Long userId : rollupRepository.findUserIds()) {
+            userTransaction.executeWithoutResult(status -> rollupRepository.rebuild(userId));
+        }
+    }
+
+    private static void accumulate(Map<RollupKey, Delta> deltas, TransactionSnapshot snapshot, int sign) {
+        LocalDate month = snapshot.transactionDate().toLocalDate().withDayOfMonth(1);
+        RollupKey key = new RollupKey(month, snapshot.categoryId());
+        BigDecimal amount = sign > 0 ? snapshot.amount() : snapshot.amount().negate();
+
+        deltas.merge(key, new Delta(month, snapshot.categoryId(), amount, sign),
+                (a, b) -> new Delta(month, snapshot.categoryId(), a.amount().add(b.amount()), a.count() + b.count()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.events.TransactionsChangedEvent;
+import com.javaproject.expenses.models.Transaction;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.TransactionRepository;
+import com.javaproject.expenses.repositories.TransactionWriteRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transactional write path for transactions.
+ * Every write publishes a {@link TransactionsChangedEvent} so derived data is kept in step
+ * within the same database transaction.
+ */
+@AllArgsConstructor
+@Service
+public class TransactionService {
+    private final TransactionRepository transactionRepository;
+    private final TransactionWriteRepository transactionWriteRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    /**
+     * Creates a transaction for the given user, dated now unless the request gives a date.
+     *
+     * @throws IllegalArgumentException if the category does not exist
+     */
+    @Transactional
+    public Transaction create(Long userId, TransactionRequest request) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(entityManager.getReference(User.class, userId));
+        transaction.setCategory(categoryRegistry.reference(request.categoryId()));
+        transaction.setAmount(request.amount());
+        transaction.setDescription(request.description());
+        transaction.setTransactionDate(request.transactionDate());
+
+        Transaction saved = transactionRepository.save(transaction);
+        publish(userId, TransactionChange.created(snapshot(saved)));
+        return saved;
+    }
+
+    /**
+     * Applies the non-null fields of the request to one of the user's transactions.
+     * The ownership check and the update are one statement; only the changed columns are written.
+     *
+     * @return the updated row, or empty if the user owns no such transaction
+     * @throws IllegalArgumentException if the category does not exist
+     */
+    @Transactional
+    public Optional<TransactionRow> update(Long id, Long userId, TransactionPatch request) {
+        if (request.categoryId() != null) {
+            categoryRegistry.typeOf(request.categoryId());
+        }
+
+        Optional<TransactionWriteRepository.Change> change = transactionWriteRepository.update(id, userId, request);
+        change.filter(c -> !c.before().equals(c.after()))
+                .ifPresent(c -> publish(userId, TransactionChange.updated(snapshot(c.before()), snapshot(c.after()))));
+        return change.map(TransactionWriteRepository.Change::after);
+    }
+
+    /**
+     * Deletes one of the user's transactions with a single statement.
+     *
+     * @return false if the user owns no such transaction
+     */
+    @Transactional
+    public boolean delete(Long id, Long userId) {
+        Optional<TransactionRow> deleted = transactionWriteRepository.delete(id, userId);
+        deleted.ifPresent(row -> publish(userId, TransactionChange.deleted(snapshot(row))));
+        return deleted.isPresent();
+    }
+
+    private TransactionSnapshot snapshot(Transaction transaction) {
+        Long categoryId = transaction.getCategory().getId();
+        return TransactionSnapshot.of(transaction, categoryRegistry.typeOf(categoryId));
+    }
+
+    private TransactionSnapshot snapshot(TransactionRow row) {
+        return TransactionSnapshot.of(row, categoryRegistry.typeOf(row.categoryId()));
+    }
+
+    private void publish(Long userId, TransactionChange change) {
+        eventPublisher.publishEvent(new TransactionsChangedEvent(userId, List.of(change)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.exports.ExportFormat;
+import com.javaproject.expenses.exports.TransactionExportWriter;
+import com.javaproject.expenses.repositories.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's transactions to the response as the database cursor returns them.
+ * Rows are read as flat projections and written immediately, so memory stays flat
+ * regardless of row count.
+ */
+@Service
+public class TransactionStreamService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionExportWriter exportWriter;
+
+    public TransactionStreamService(
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exportWriter = new TransactionExportWriter(objectMapper.getFactory());
+    }
+
+    /**
+     * Builds a response body that writes every transaction of the user as a JSON array.
+     *
+     * @param userId the owner of the transactions
+     * @return response body that runs the query when the servlet container invokes it
+     */
+    public StreamingResponseBody streamAsJsonArray(Long userId) {
+        return out -> withRows(userId, null, null,
+                rows -> exportWriter.writeJsonArray(userId, rows, out));
+    }
+
+    /**
+     * Builds a response body that exports the user's transactions within {@code [from, to)}.
+     *
+     * @param userId the owner of the transactions
+     * @param format the output format
+     * @param from inclusive lower date bound, or null for none
+     * @param to exclusive upper date bound, or null for none
+     * @return response body that runs the query when the servlet container invokes it
+     */
+    public StreamingResponseBody export(Long userId, ExportFormat format, LocalDateTime from, LocalDateTime to) {
+        return out -> withRows(userId, from, to,
+                rows -> exportWriter.write(format, userId, rows, out));
+    }
+
+    private interface RowConsumer {
+        void accept(Stream<TransactionRow> rows) throws IOException;
+    }
+
+    private void withRows(Long userId, LocalDateTime from, LocalDateTime to, RowConsumer consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TransactionRow> rows = transactionRepository.streamRows(
+                    userId, from == null ? EARLIEST : from, to == null ? LATEST : to)) {
+                consumer.accept(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.config.SyncProperties;
+import com.javaproject.expenses.dtos.TransactionRow;
+import com.javaproject.expenses.pagination.SyncToken;
+import com.javaproject.expenses.repositories.TransactionSyncRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync of a user's transactions.
+ * A client starts with a token for the current snapshot and loads its transactions as usual;
+ * from then on it asks for the changes since its last token: the rows created or updated, as they
+ * are now, and the ids of deleted rows. Work is proportional to the number of changes, not to the
+ * number of transactions. A change the client already has may be sent again, so applying the
+ * changes must be idempotent.
+ * Tokens are honoured for {@code expenses.sync.tombstone-retention}; tombstones are compacted
+ * daily ({@code expenses.sync.compaction-cron}) once they are a day older than that.
+ */
+@Slf4j
+@AllArgsConstructor
+@Service
+public class TransactionSyncService {
+
+    // Covers writes that commit long after they start, and clock differences between nodes
+    private static final Duration TOMBSTONE_GRACE = Duration.ofDays(1);
+
+    private final TransactionSyncRepository syncRepository;
+    private final SyncProperties properties;
+
+    /**
+     * One page of changes.
+     *
+     * @param next the token to ask with next
+     * @param hasMore whether more changes can be fetched at once with {@code next}
+     */
+    public record Changes(List<TransactionRow> changed, List<Long> deleted, SyncToken next, boolean hasMore) {
+    }
+
+    /**
+     * Returns a token for a client that is about to load all of its transactions.
+     */
+    public SyncToken start() {
+        return SyncToken.at(syncRepository.currentSnapshot());
+    }
+
+    /**
+     * Returns up to {@code limit} of the user's changes since the token.
+     *
+     * @throws SyncTokenExpiredException if deletes since the token may have been compacted away
+     */
+    @Transactional(readOnly = true)
+    public Changes changesSince(Long userId, SyncToken token, int limit) {
+        if (token.since().takenAt().isBefore(LocalDateTime.now().minus(properties.tombstoneRetention()))) {
+            throw new SyncTokenExpiredException();
+        }
+        SyncToken.Snapshot until = token.until() != null ? token.until() : syncRepository.currentSnapshot();
+
+        // Fetch one extra change to learn whether another page exists
+        List<TransactionSyncRepository.Change> changes = syncRepository.findChanges(userId,
+                token.since().value(), until.value(), token.afterXid(), token.afterId(), limit + 1);
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        List<TransactionRow> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (TransactionSyncRepository.Change change : changes) {
+            if (change.row() != null) {
+                changed.add(change.row());
+            } else {
+                deleted.add(change.id());
+            }
+        }
+
+        SyncToken next;
+        if (hasMore) {
+            TransactionSyncRepository.Change last = changes.get(changes.size() - 1);
+            next = new SyncToken(token.since(), until, last.xid(), last.id());
+        } else {
+            next = SyncToken.at(until);
+        }
+        return new Changes(changed, deleted, next, hasMore);
+    }
+
+    /**
+     * Deletes tombstones no valid token can still need, in chunks.
+     */
+    @Scheduled(cron = "${expenses.sync.compaction-cron:0 30 3 * * *}")
+    public void compactTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.tombstoneRetention()).minus(TOMBSTONE_GRACE);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = syncRepository.deleteTombstonesBefore(cutoff, properties.compactionChunkSize());
+            total += deleted;
+        } while (deleted == properties.compactionChunkSize());
+        if (total > 0) {
+            log.info("Compacted {} transaction tombstones older than {}", total, cutoff);
+        }
+    }
+}
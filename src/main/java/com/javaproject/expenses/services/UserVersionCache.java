@@ -0,0 +1,97 @@
+package com.javaproject.expenses.services;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU cache of per-user version numbers with a time-to-live, such as the data
+ * versions behind ETags ({@link DataVersionService}) and the token versions behind sign-ins
+ * ({@link com.javaproject.expenses.security.TokenVersions}).
+ *
+ * <p>Versions only ever grow, so an entry keeps the highest version it has been given: a load
+ * that read the database before a write committed cannot replace the version that write
+ * {@link #advance advanced} the entry to.
+ */
+public class UserVersionCache {
+
+    private record Entry(long version, long loadedAt) {
+    }
+
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<Long, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserVersionCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    UserVersionCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached version, loading it with {@code loader} on a miss.
+     * The loader runs outside the cache lock; a null result is returned but not cached.
+     */
+    public Long get(Long userId, Function<Long, Long> loader) {
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && nanoClock.getAsLong() - entry.loadedAt() < ttlNanos) {
+                hits.incrementAndGet();
+                return entry.version();
+            }
+            misses.incrementAndGet();
+        }
+
+        Long loaded = loader.apply(userId);
+        if (loaded == null) {
+            return null;
+        }
+        return advance(userId, loaded);
+    }
+
+    /**
+     * Records that the user is at least at {@code version}, restarting the entry's TTL.
+     *
+     * @return the version now cached
+     */
+    public synchronized long advance(Long userId, long version) {
+        Entry entry = entries.get(userId);
+        long latest = entry == null ? version : Math.max(entry.version(), version);
+        entries.put(userId, new Entry(latest, nanoClock.getAsLong()));
+        return latest;
+    }
+
+    /**
+     * Drops the user's entry so the next read reloads it.
+     */
+    public synchronized void invalidate(Long userId) {
+        entries.remove(userId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,23 @@
+package com.javaproject.expenses.telemetry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the most SQL statements one call of a request handler may issue, whatever the size
+ * of the user's data. A handler whose count grows with the rows it returns has an N+1 problem;
+ * the query budget tests call every annotated handler and fail when a count exceeds its budget.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * Maximum number of statements, counted by {@link SqlStatementCounter}.
+     */
+    int value();
+}
@@ -0,0 +1,53 @@
+package com.javaproject.expenses.telemetry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Reports how many SQL statements a request issued in the {@value #HEADER} response header.
+ * The header is written just before the response is committed, so it also covers statements
+ * issued by asynchronous handlers that propagate the count with {@link SqlStatementCounter#propagate}.
+ * Meant for development and tests; enabled by {@code expenses.telemetry.sql-count-header}.
+ */
+public class SqlCountHeaderFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Count";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlCountResponse countingResponse;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            countingResponse = new SqlCountResponse(response, scope);
+            chain.doFilter(request, countingResponse);
+        }
+        // Bodiless responses are committed by the container after the filters return
+        if (!request.isAsyncStarted() && !response.isCommitted()) {
+            countingResponse.writeHeader();
+        }
+    }
+
+    private static final class SqlCountResponse extends OnCommittedResponseWrapper {
+
+        private final SqlStatementCounter.Scope scope;
+
+        SqlCountResponse(HttpServletResponse response, SqlStatementCounter.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            setHeader(HEADER, String.valueOf(scope.count()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.javaproject.expenses.telemetry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements prepared while a {@link Scope} is open on the current thread.
+ * Statements are reported by {@link StatementCountingDataSource}, so JPA and {@code JdbcTemplate}
+ * work are both seen. Work handed to another thread is attributed to the scope only if it is
+ * wrapped with {@link #propagate}.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Records one statement against the scope open on the current thread, if any.
+     */
+    static void increment() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Starts counting on the current thread. Close the scope to stop; a scope opened inside
+     * another one counts on its own until closed, after which the outer one resumes.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Wraps a task so that statements it issues on another thread count towards the scope
+     * that is open when this method is called. Returns the task unchanged if none is open.
+     */
+    public static Runnable propagate(Runnable task) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Scope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Statements counted since {@link #open()}. Safe to read from any thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope outer;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Scope(Scope outer) {
+            this.outer = outer;
+        }
+
+        public int count() {
+            return count.get();
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                restore(outer);
+            }
+        }
+    }
+}
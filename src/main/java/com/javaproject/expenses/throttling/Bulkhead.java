@@ -0,0 +1,67 @@
+package com.javaproject.expenses.throttling;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many requests of one class are processed at once, so that a flood of one class leaves
+ * request threads for the others. A request that finds every permit taken waits up to
+ * {@code maxWait} for one and is then refused.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final LongAdder rejections = new LongAdder();
+
+    public Bulkhead(int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Takes a permit, waiting up to {@code maxWait}. A permit taken must be returned with {@link #exit()}.
+     *
+     * @return false if no permit became free in time
+     */
+    public boolean tryEnter() {
+        boolean entered;
+        try {
+            entered = maxWaitNanos > 0
+                    ? permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)
+                    : permits.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            rejections.increment();
+        }
+        return entered;
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    /**
+     * Number of permits currently taken.
+     */
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Number of requests refused since startup.
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+}
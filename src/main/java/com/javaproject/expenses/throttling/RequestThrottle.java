@@ -0,0 +1,140 @@
+package com.javaproject.expenses.throttling;
+
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.services.CapacityExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides whether an API request may proceed: it must get a token from the rate limit of the first
+ * route it matches, if any, and then a permit from the bulkhead of its class.
+ * Rate limits are kept per signed-in user, and per client address for {@code /api/auth/**} and
+ * for requests without a user.
+ */
+public class RequestThrottle {
+
+    public static final String AUTH_PATH = "/api/auth/";
+
+    /**
+     * Requests that get separate bulkheads: sign-in and registration, reads, and everything else.
+     */
+    public enum RequestClass {
+        AUTH, READ, WRITE
+    }
+
+    /**
+     * A rate-limited route.
+     *
+     * @param pattern the path pattern, e.g. {@code /api/transactions/**}
+     * @param methods the upper-case HTTP methods it applies to; empty for all
+     * @param limiter the buckets of the route
+     */
+    public record Route(PathPattern pattern, List<String> methods, TokenBucketLimiter limiter) {
+
+        public static Route of(String pattern, List<String> methods, TokenBucketLimiter limiter) {
+            return new Route(PathPatternParser.defaultInstance.parse(pattern),
+                    methods.stream().map(String::toUpperCase).toList(), limiter);
+        }
+
+        public String name() {
+            return methods.isEmpty() ? pattern.getPatternString()
+                    : String.join(",", methods) + " " + pattern.getPatternString();
+        }
+
+        boolean matches(PathContainer path, String method) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    private final List<Route> routes;
+    private final Map<RequestClass, Bulkhead> bulkheads;
+    private final Duration bulkheadRetryAfter;
+
+    /**
+     * @param routes the rate-limited routes, in matching order
+     * @param bulkheads the bulkhead of each request class; a class without one is not capped
+     * @param bulkheadRetryAfter delay suggested to requests refused by a bulkhead
+     */
+    public RequestThrottle(List<Route> routes, Map<RequestClass, Bulkhead> bulkheads, Duration bulkheadRetryAfter) {
+        this.routes = List.copyOf(routes);
+        this.bulkheads = Map.copyOf(bulkheads);
+        this.bulkheadRetryAfter = bulkheadRetryAfter;
+    }
+
+    public List<Route> routes() {
+        return routes;
+    }
+
+    public Map<RequestClass, Bulkhead> bulkheads() {
+        return bulkheads;
+    }
+
+    public static RequestClass classify(String path, String method) {
+        if (path.startsWith(AUTH_PATH)) {
+            return RequestClass.AUTH;
+        }
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> RequestClass.READ;
+            default -> RequestClass.WRITE;
+        };
+    }
+
+    /**
+     * Takes a token for the request from the first route it matches.
+     *
+     * @param path the request path without the context path
+     * @throws CapacityExceededException if the bucket is empty
+     */
+    public void acquireToken(HttpServletRequest request, String path) {
+        if (routes.isEmpty()) {
+            return;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        String method = request.getMethod();
+        for (Route route : routes) {
+            if (route.matches(container, method)) {
+                long waitNanos = route.limiter().tryAcquire(rateKey(request, path));
+                if (waitNanos > 0) {
+                    throw new CapacityExceededException("Too many requests, try again later",
+                            Duration.ofNanos(waitNanos));
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Enters the bulkhead of the request's class.
+     *
+     * @param path the request path without the context path
+     * @return the bulkhead to {@link Bulkhead#exit() exit} when the request is done, or null if the class has none
+     * @throws CapacityExceededException if the bulkhead stayed full for its maximum wait
+     */
+    public Bulkhead enterBulkhead(HttpServletRequest request, String path) {
+        Bulkhead bulkhead = bulkheads.get(classify(path, request.getMethod()));
+        if (bulkhead == null) {
+            return null;
+        }
+        if (!bulkhead.tryEnter()) {
+            throw new CapacityExceededException("Server busy, try again later", bulkheadRetryAfter);
+        }
+        return bulkhead;
+    }
+
+    private static Object rateKey(HttpServletRequest request, String path) {
+        if (!path.startsWith(AUTH_PATH)) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return user.id();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
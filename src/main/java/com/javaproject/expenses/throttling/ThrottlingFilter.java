@@ -0,0 +1,59 @@
+package com.javaproject.expenses.throttling;
+
+import com.javaproject.expenses.services.CapacityExceededException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Applies the {@link RequestThrottle} to {@code /api/**} requests, answering refused requests with
+ * 429 and a {@code Retry-After} in whole seconds.
+ * The bulkhead permit is held while the request thread processes the request; asynchronous
+ * requests such as sign-in and the change feed return it when their handler hands off.
+ */
+public class ThrottlingFilter extends OncePerRequestFilter {
+
+    private final RequestThrottle throttle;
+
+    public ThrottlingFilter(RequestThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        Bulkhead bulkhead;
+        try {
+            throttle.acquireToken(request, path);
+            bulkhead = throttle.enterBulkhead(request, path);
+        } catch (CapacityExceededException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"message\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,139 @@
+package com.javaproject.expenses.throttling;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by a user id or client address. Each bucket holds up to {@code capacity}
+ * tokens and is refilled evenly with {@code capacity} tokens per {@code period}; a request takes one.
+ * Buckets are spread over a power-of-two number of stripes, each with its own lock and map, so
+ * requests for different keys rarely wait on each other. A stripe forgets its least recently used
+ * key beyond its share of {@code maxKeys}; a forgotten key starts again with a full bucket.
+ * Stripes are guarded by {@link ReentrantLock}, which does not pin virtual threads while they wait.
+ */
+public class TokenBucketLimiter {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final double capacity;
+    private final double nanosPerToken;
+    private final LongSupplier nanoClock;
+    private final LongAdder rejections = new LongAdder();
+
+    public TokenBucketLimiter(int capacity, Duration period, int stripes, int maxKeys) {
+        this(capacity, period, stripes, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration period, int stripes, int maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || period == null || period.isZero() || period.isNegative()
+                || stripes < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Capacity, period, stripes and maxKeys must be positive");
+        }
+        int count = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        int keysPerStripe = Math.max(1, maxKeys / count);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(keysPerStripe);
+        }
+        this.mask = count - 1;
+        this.capacity = capacity;
+        this.nanosPerToken = (double) period.toNanos() / capacity;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the bucket has one again
+     */
+    public long tryAcquire(Object key) {
+        long now = nanoClock.getAsLong();
+        Stripe stripe = stripes[stripeOf(key)];
+        long waitNanos;
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                // Another thread may have read the clock later but taken the lock first
+                long elapsed = now - bucket.refilledAt;
+                if (elapsed > 0) {
+                    bucket.tokens = Math.min(capacity, bucket.tokens + elapsed / nanosPerToken);
+                    bucket.refilledAt = now;
+                }
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            waitNanos = (long) Math.ceil((1 - bucket.tokens) * nanosPerToken);
+        } finally {
+            stripe.lock.unlock();
+        }
+        rejections.increment();
+        return waitNanos;
+    }
+
+    /**
+     * Number of keys with a bucket.
+     */
+    public int trackedKeys() {
+        int keys = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                keys += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Number of requests refused since startup.
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Picks the stripe from the high bits of a multiplicative hash, so that the keys of one stripe
+     * still differ in the low bits its map indexes by.
+     */
+    private int stripeOf(Object key) {
+        return (int) ((key.hashCode() * GOLDEN_RATIO) >>> 32) & mask;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<Object, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+-- Range-partition transactions by month of transaction_date, so date-bounded queries only touch
+-- the months they ask for and vacuum works one month at a time. Rows outside every monthly
+-- partition go to transactions_default until TransactionPartitionMaintainer gives their month
+-- a partition of its own.
+
+-- Creates the partition for the month containing the given date, moving any rows of that month
+-- out of the default partition first, since a partition cannot be attached over rows the default
+-- already holds. Returns false if the partition already exists.
+CREATE FUNCTION ensure_transactions_partition(month DATE) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    lower_bound TIMESTAMP := date_trunc('month', month);
+    upper_bound TIMESTAMP := date_trunc('month', month) + INTERVAL '1 month';
+    partition_name TEXT := 'transactions_' || to_char(date_trunc('month', month), '"y"YYYY"m"MM');
+BEGIN
+    -- Several nodes may run the maintainer at once
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_transactions_partition'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM transactions_default'
+                   ' WHERE transaction_date >= $1 AND transaction_date < $2 RETURNING *)'
+                   ' INSERT INTO %I SELECT * FROM moved', partition_name)
+        USING lower_bound, upper_bound;
+    EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, lower_bound, upper_bound);
+    RETURN TRUE;
+END
+$$;
+
+-- The existing rows are copied into the new table in this migration's transaction, which blocks
+-- writes to transactions until it commits. Constraints and indexes are added after the copy, so
+-- each partition's indexes are built once rather than maintained row by row.
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    amount NUMERIC(10,2) NOT NULL,
+    transaction_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    description TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- A partition for every month that has data, and for this month and the next three
+SELECT ensure_transactions_partition(CAST(month AS DATE))
+FROM (
+    SELECT DISTINCT date_trunc('month', transaction_date) AS month FROM transactions_unpartitioned
+    UNION
+    SELECT generate_series(date_trunc('month', LOCALTIMESTAMP),
+                           date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+                           INTERVAL '1 month')
+) months
+ORDER BY month;
+
+INSERT INTO transactions (id, user_id, category_id, amount, transaction_date, description, created_at)
+SELECT id, user_id, category_id, amount, transaction_date, description, created_at
+FROM transactions_unpartitioned;
+
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+DROP TABLE transactions_unpartitioned;
+
+-- The primary key has to include the partition key. Ids still come from one sequence, so they
+-- stay unique across partitions.
+ALTER TABLE transactions
+    ADD CONSTRAINT transactions_pkey PRIMARY KEY (id, transaction_date),
+    ADD CONSTRAINT transactions_user_id_fkey FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    ADD CONSTRAINT transactions_category_id_fkey FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE,
+    ADD CONSTRAINT transactions_amount_check CHECK (amount != 0);
+
+-- Same indexes as before (V4, V5), now one per partition
+CREATE INDEX idx_transactions_user_date_id ON transactions(user_id, transaction_date DESC, id DESC);
+CREATE INDEX idx_transactions_user_category_date_id ON transactions(user_id, category_id, transaction_date DESC, id DESC);
+CREATE INDEX idx_transactions_user_amount_id ON transactions(user_id, amount DESC, id DESC);
+
+ANALYZE transactions;
@@ -0,0 +1,6 @@
+-- Full-text search over descriptions. The 'simple' configuration lowercases words without
+-- stemming or stop words, which suits merchant names such as "uber". Queries must use the same
+-- expression to match the index. Created on the partitioned table, so every partition, including
+-- those the maintainer attaches later, gets its own copy.
+CREATE INDEX idx_transactions_description_search ON transactions
+    USING GIN (to_tsvector('simple', COALESCE(description, '')));
@@ -0,0 +1,3 @@
+-- Incremented in the same database transaction as every write to the user's transactions;
+-- the ETag of the transaction reads
+ALTER TABLE users ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
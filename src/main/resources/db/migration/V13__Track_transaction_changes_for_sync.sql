@@ -0,0 +1,36 @@
+-- Delta sync (GET /api/transactions/changes). Every row carries the id of the database
+-- transaction that last wrote it, and deleted rows leave a tombstone stamped the same way.
+-- A sync token holds a snapshot; the changes since it are the stamps that snapshot cannot see.
+-- Transaction ids are used rather than timestamps or a sequence because a write that started
+-- before a sync but commits after it would otherwise be stamped too early and be missed.
+
+-- Rows written before this migration keep a null stamp: every token is newer than them.
+-- Adding the column without a default, then setting it, avoids rewriting the table.
+ALTER TABLE transactions ADD COLUMN change_xid xid8;
+ALTER TABLE transactions ALTER COLUMN change_xid SET DEFAULT pg_current_xact_id();
+
+CREATE FUNCTION stamp_transaction_change() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END
+$$;
+
+-- Cloned onto every partition, including those attached later
+CREATE TRIGGER transactions_stamp_change BEFORE UPDATE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION stamp_transaction_change();
+
+CREATE INDEX idx_transactions_user_change ON transactions(user_id, change_xid, id);
+
+-- Written by the same statement as the delete. Compacted after expenses.sync.tombstone-retention;
+-- older tokens are refused, so a client never misses a delete.
+CREATE TABLE transaction_tombstones (
+    transaction_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    deleted_xid xid8 NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_transaction_tombstones_user_change ON transaction_tombstones(user_id, deleted_xid, transaction_id);
+CREATE INDEX idx_transaction_tombstones_deleted_at ON transaction_tombstones(deleted_at);
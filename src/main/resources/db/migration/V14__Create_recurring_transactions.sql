@@ -0,0 +1,21 @@
+-- Rules that create a transaction every `every` days, weeks, months or years from start_date.
+-- Occurrence n falls at start_date + n periods, so monthly rules on the 31st do not drift.
+-- next_run is the date of the next occurrence, or null once the rule has passed its end_date;
+-- the scheduler claims due rules through the partial index, FOR UPDATE SKIP LOCKED.
+CREATE TABLE recurring_transactions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    category_id BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    amount NUMERIC(10,2) NOT NULL CHECK (amount > 0),
+    description VARCHAR(255) NOT NULL,
+    frequency VARCHAR(16) NOT NULL,
+    every INT NOT NULL DEFAULT 1 CHECK (every > 0),
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP,
+    occurrences BIGINT NOT NULL DEFAULT 0,
+    next_run TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_recurring_transactions_user_id ON recurring_transactions(user_id, id);
+CREATE INDEX idx_recurring_transactions_next_run ON recurring_transactions(next_run) WHERE next_run IS NOT NULL;
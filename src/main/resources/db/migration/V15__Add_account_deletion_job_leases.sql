@@ -0,0 +1,7 @@
+-- A node works on a job while it holds the lease: claimed_by names the node, and claimed_until
+-- is pushed forward with every chunk. A job whose lease has run out is claimed by any node.
+ALTER TABLE account_deletion_jobs ADD COLUMN claimed_by UUID;
+ALTER TABLE account_deletion_jobs ADD COLUMN claimed_until TIMESTAMP;
+
+-- Any job, whatever its state, revokes the user's sign-ins; looked up when a sign-in is checked
+CREATE INDEX idx_account_deletion_jobs_user_id ON account_deletion_jobs(user_id);
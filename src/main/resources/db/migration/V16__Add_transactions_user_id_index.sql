@@ -0,0 +1,6 @@
+-- Lookups by id cannot be pruned, since the id says nothing about the month: they probe every
+-- partition. They always name the user too, so each probe is a single descent of this index
+-- that finds nothing in the months the user has no such row, rather than a primary key probe
+-- that returns other users' rows to be filtered. Created on the partitioned table, so every
+-- partition, including those the maintainer attaches later, gets its own copy.
+CREATE INDEX idx_transactions_user_id_id ON transactions(user_id, id);
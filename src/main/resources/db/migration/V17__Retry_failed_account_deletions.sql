@@ -0,0 +1,10 @@
+-- A failed attempt returns the job to PENDING; its lease is then pushed back by a backoff that
+-- doubles with every attempt, so a job whose user is already signed out is never left half done.
+ALTER TABLE account_deletion_jobs ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+-- Jobs that failed before retries existed are picked up again
+UPDATE account_deletion_jobs j
+SET status = 'PENDING', finished_at = NULL, claimed_by = NULL, claimed_until = NULL
+WHERE status = 'FAILED'
+  AND NOT EXISTS (SELECT 1 FROM account_deletion_jobs u
+                  WHERE u.user_id = j.user_id AND u.status IN ('PENDING', 'RUNNING'));
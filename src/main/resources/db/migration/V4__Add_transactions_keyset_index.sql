@@ -0,0 +1,2 @@
+-- Composite index backing keyset pagination on (transaction_date, id) per user
+CREATE INDEX idx_transactions_user_date_id ON transactions(user_id, transaction_date DESC, id DESC);
@@ -0,0 +1,12 @@
+-- Replace the single-column indexes from V1 with per-user composite indexes that serve
+-- the filtered listing. The V4 (user_id, transaction_date, id) index already covers
+-- user-only lookups and date-range filters, so idx_transactions_user_id is redundant.
+DROP INDEX IF EXISTS idx_transactions_user_id;
+DROP INDEX IF EXISTS idx_transactions_date;
+DROP INDEX IF EXISTS idx_transactions_category;
+
+-- Category filters, ordered by date
+CREATE INDEX idx_transactions_user_category_date_id ON transactions(user_id, category_id, transaction_date DESC, id DESC);
+
+-- Amount ranges and amount ordering
+CREATE INDEX idx_transactions_user_amount_id ON transactions(user_id, amount DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Per-user totals by month and category, maintained alongside every transaction write
+CREATE TABLE transaction_monthly_rollup (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    month DATE NOT NULL,
+    category_id BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    total_amount NUMERIC(14,2) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, month, category_id)
+);
+
+-- Backfill from existing transactions
+INSERT INTO transaction_monthly_rollup (user_id, month, category_id, total_amount, transaction_count)
+SELECT user_id, CAST(date_trunc('month', transaction_date) AS date), category_id, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY 1, 2, 3;
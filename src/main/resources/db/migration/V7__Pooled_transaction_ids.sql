@@ -0,0 +1,4 @@
+-- Hibernate reserves blocks of 50 ids per nextval (pooled optimizer) so inserts can be batched.
+-- The next value is last_value + 50, and Hibernate hands out the 50 ids ending at it, so ids
+-- already in use are never reissued and plain DEFAULT inserts stay unique.
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
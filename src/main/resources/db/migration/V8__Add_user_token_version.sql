@@ -0,0 +1,3 @@
+-- Version of a user's credentials, carried in signed auth tokens.
+-- Bumped whenever the email or password changes.
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Background account deletions. No foreign key to users: the job outlives the user it deletes.
+CREATE TABLE account_deletion_jobs (
+    id UUID PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    deleted_transactions BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+-- At most one unfinished job per user; also finds the jobs to resume after a restart
+CREATE UNIQUE INDEX idx_account_deletion_jobs_unfinished ON account_deletion_jobs(user_id)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE INDEX idx_account_deletion_jobs_created_at ON account_deletion_jobs(created_at);
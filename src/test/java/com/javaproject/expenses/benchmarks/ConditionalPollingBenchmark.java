@@ -0,0 +1,150 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.config.SeedProperties;
+import com.javaproject.expenses.seed.SyntheticDataGenerator;
+import com.javaproject.expenses.telemetry.SqlCountHeaderFilter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Polls the transaction listing from many signed-in clients, first unconditionally and then with
+ * {@code If-None-Match}, and reports the SQL statements each run cost, as counted in the
+ * {@code X-SQL-Count} header. Every {@code write-every}th request of a client is a create, so
+ * some polls find new data.
+ * Needs the database from application.properties; run with
+ * {@code mvn test -Pbenchmark -Dtest=ConditionalPollingBenchmark}.
+ * Other knobs: {@code -Dbenchmark.polling.clients}, {@code .transactions-per-user},
+ * {@code .polls-per-client} and {@code .write-every}.
+ */
+@Tag("benchmark")
+@Import(SyntheticDataConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"expenses.telemetry.sql-count-header=true", "expenses.rate-limit.enabled=false"})
+class ConditionalPollingBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.polling.clients", 16);
+    private static final int TRANSACTIONS_PER_USER = Integer.getInteger("benchmark.polling.transactions-per-user", 2000);
+    private static final int POLLS_PER_CLIENT = Integer.getInteger("benchmark.polling.polls-per-client", 500);
+    private static final int WRITE_EVERY = Integer.getInteger("benchmark.polling.write-every", 50);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private SeedProperties seedProperties;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private record Run(long polls, long notModified, long sql, LatencyRecorder latencies) {
+    }
+
+    @Test
+    void conditionalPollsSaveQueries() throws Exception {
+        generator.generate(CLIENTS, TRANSACTIONS_PER_USER);
+
+        Run plain = run(false);
+        Run conditional = run(true);
+        for (Run run : List.of(plain, conditional)) {
+            System.out.printf("%-12s polls=%d 304=%d sql=%d (%.2f per poll) %s%n",
+                    run == plain ? "plain" : "conditional", run.polls(), run.notModified(), run.sql(),
+                    run.sql() / (double) run.polls(), run.latencies().summary());
+        }
+        System.out.printf("statements saved: %d (%.0f%%)%n", plain.sql() - conditional.sql(),
+                100.0 * (plain.sql() - conditional.sql()) / plain.sql());
+
+        assertThat(conditional.notModified()).isPositive();
+        assertThat(conditional.sql()).isLessThan(plain.sql());
+    }
+
+    private Run run(boolean conditional) throws Exception {
+        LongAdder polls = new LongAdder();
+        LongAdder notModified = new LongAdder();
+        LongAdder sql = new LongAdder();
+        LatencyRecorder latencies = new LatencyRecorder();
+
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                String email = generator.email(i);
+                clients.add(pool.submit(() -> {
+                    String cookie = login(email);
+                    String etag = null;
+                    for (int n = 1; n <= POLLS_PER_CLIENT; n++) {
+                        if (n % WRITE_EVERY == 0) {
+                            send(HttpRequest.newBuilder(uri("/api/transactions")).header("Cookie", cookie)
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"categoryId\":8,\"amount\":4.20,\"description\":\"Poll " + n + "\"}")));
+                            continue;
+                        }
+                        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/transactions?limit=50"))
+                                .header("Cookie", cookie);
+                        if (conditional && etag != null) {
+                            request.header("If-None-Match", etag);
+                        }
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = send(request);
+                        latencies.record(System.nanoTime() - start);
+
+                        polls.increment();
+                        if (response.statusCode() == 304) {
+                            notModified.increment();
+                        } else {
+                            assertThat(response.statusCode()).isEqualTo(200);
+                            etag = response.headers().firstValue("ETag").orElse(null);
+                        }
+                        sql.add(Long.parseLong(response.headers().firstValue(SqlCountHeaderFilter.HEADER).orElse("0")));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Run(polls.sum(), notModified.sum(), sql.sum(), latencies);
+    }
+
+    private String login(String email) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("email", email, "password", seedProperties.password()));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        assertThat(response.statusCode()).as("login of %s", email).isEqualTo(200);
+        return response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,41 @@
+package com.javaproject.expenses.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Collects request latencies from any number of threads and reports percentiles.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returns the given percentile (0-100) in milliseconds, by nearest rank.
+     */
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    String summary() {
+        return String.format("n=%d p50=%.1fms p99=%.1fms p999=%.1fms",
+                count(), percentileMillis(50), percentileMillis(99), percentileMillis(99.9));
+    }
+}
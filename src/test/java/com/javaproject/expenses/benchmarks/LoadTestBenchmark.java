@@ -0,0 +1,323 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.config.SeedProperties;
+import com.javaproject.expenses.seed.SyntheticDataGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: many signed-in clients drive login, list, create, update and delete
+ * in fixed mixes, and throughput plus p50/p99/p999 are reported per operation and appended to
+ * {@code target/load-test-report.txt}. The database is filled by {@link SyntheticDataGenerator} first,
+ * so every run starts from the same data and each client replays the same sequence of choices.
+ * Needs the database from application.properties; run with
+ * {@code mvn test -Pbenchmark -Dtest=LoadTestBenchmark}.
+ * Set {@code -Dbenchmark.load.base-url=http://localhost:8080} to load an app started separately;
+ * it must have been seeded with {@code --spring.profiles.active=seed} using the same user count.
+ * Other knobs: {@code -Dbenchmark.load.clients}, {@code .users}, {@code .transactions-per-user},
+ * {@code .warmup-seconds}, {@code .duration-seconds}, {@code .mixes} and {@code .seed}.
+ */
+@Tag("benchmark")
+@Import(SyntheticDataConfig.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "expenses.rate-limit.enabled=false" // measures the application, not the per-user limits
+)
+class LoadTestBenchmark {
+
+    private static final String BASE_URL = System.getProperty("benchmark.load.base-url");
+    private static final int CLIENTS = Integer.getInteger("benchmark.load.clients", 16);
+    private static final int USERS = Integer.getInteger("benchmark.load.users", 20);
+    private static final int TRANSACTIONS_PER_USER = Integer.getInteger("benchmark.load.transactions-per-user", 2000);
+    private static final long WARMUP_SECONDS = Long.getLong("benchmark.load.warmup-seconds", 5);
+    private static final long DURATION_SECONDS = Long.getLong("benchmark.load.duration-seconds", 30);
+    private static final String MIXES = System.getProperty("benchmark.load.mixes", "browse,write");
+    private static final long SEED = Long.getLong("benchmark.load.seed", 7);
+    private static final Path REPORT = Path.of("target", "load-test-report.txt");
+
+    private enum Operation {
+        LOGIN, LIST, CREATE, UPDATE, DELETE
+    }
+
+    /**
+     * Relative weights of each operation, in {@link Operation} order.
+     */
+    private enum Mix {
+        BROWSE(2, 70, 12, 10, 6),
+        WRITE(2, 30, 35, 20, 13);
+
+        private final int[] weights;
+        private final int total;
+
+        Mix(int... weights) {
+            this.weights = weights;
+            this.total = Arrays.stream(weights).sum();
+        }
+
+        Operation pick(SplittableRandom random) {
+            int target = random.nextInt(total);
+            for (Operation operation : Operation.values()) {
+                target -= weights[operation.ordinal()];
+                if (target < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private SeedProperties seedProperties;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private List<Long> categoryIds;
+
+    @Test
+    void reportsThroughputAndLatencyPerOperation() throws Exception {
+        assertThat(CLIENTS).as("clients, each signed in as its own user").isLessThanOrEqualTo(USERS);
+        if (BASE_URL == null) {
+            SyntheticDataGenerator.Summary seeded = generator.generate(USERS, TRANSACTIONS_PER_USER);
+            System.out.printf("seeded %d users x %d transactions in %d ms%n",
+                    seeded.users(), TRANSACTIONS_PER_USER, seeded.elapsed().toMillis());
+        }
+
+        for (String name : MIXES.split(",")) {
+            Mix mix = Mix.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            run(mix, WARMUP_SECONDS, false);
+            Map<Operation, Stats> stats = run(mix, DURATION_SECONDS, true);
+            report(mix, stats);
+
+            for (Operation operation : Operation.values()) {
+                Stats result = stats.get(operation);
+                assertThat(result.errors.sum()).as("%s errors in %s mix", operation, mix).isZero();
+                assertThat(result.latencies.count()).as("%s calls in %s mix", operation, mix).isPositive();
+            }
+        }
+    }
+
+    private Map<Operation, Stats> run(Mix mix, long seconds, boolean measured) throws Exception {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                Client simulated = new Client(i, new SplittableRandom(SEED * 31 + i + (measured ? 1_000 : 0)));
+                clients.add(pool.submit(() -> {
+                    simulated.login(null);
+                    while (System.nanoTime() < deadline) {
+                        simulated.step(mix, stats);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    private void report(Mix mix, Map<Operation, Stats> stats) throws IOException {
+        long total = stats.values().stream().mapToLong(s -> s.latencies.count()).sum();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("mix=%s clients=%d users=%d transactions/user=%d duration=%ds total=%.1f ops/s%n",
+                mix.name().toLowerCase(Locale.ROOT), CLIENTS, USERS, TRANSACTIONS_PER_USER, DURATION_SECONDS,
+                total / (double) DURATION_SECONDS));
+        out.append(String.format("%-8s %8s %9s %9s %9s %9s %7s %9s%n",
+                "op", "n", "ops/s", "p50 ms", "p99 ms", "p999 ms", "errors", "rejected"));
+        for (Operation operation : Operation.values()) {
+            Stats s = stats.get(operation);
+            out.append(String.format("%-8s %8d %9.1f %9.1f %9.1f %9.1f %7d %9d%n",
+                    operation.name().toLowerCase(Locale.ROOT), s.latencies.count(),
+                    s.latencies.count() / (double) DURATION_SECONDS,
+                    s.latencies.percentileMillis(50), s.latencies.percentileMillis(99),
+                    s.latencies.percentileMillis(99.9), s.errors.sum(), s.rejected.sum()));
+        }
+        System.out.print(out);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, out.append('\n'), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private synchronized List<Long> categoryIds(String cookie) throws Exception {
+        if (categoryIds == null) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/categories"))
+                    .header("Cookie", cookie).GET());
+            List<Long> ids = new ArrayList<>();
+            objectMapper.readTree(response.body()).forEach(category -> ids.add(category.get("id").asLong()));
+            categoryIds = ids;
+        }
+        return categoryIds;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create((BASE_URL != null ? BASE_URL : "http://localhost:" + port) + path);
+    }
+
+    private static final class Stats {
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    /**
+     * One simulated user session. Updates and deletes target rows the client has seen or created,
+     * so it never touches another client's writes.
+     */
+    private final class Client {
+
+        private final String email;
+        private final SplittableRandom random;
+        private final List<Long> seenIds = new ArrayList<>();
+        private final Deque<Long> createdIds = new ArrayDeque<>();
+        private String cookie;
+        private String nextCursor;
+
+        Client(int number, SplittableRandom random) {
+            this.email = generator.email(number);
+            this.random = random;
+        }
+
+        void step(Mix mix, Map<Operation, Stats> stats) throws Exception {
+            Operation operation = mix.pick(random);
+            if (operation == Operation.DELETE && createdIds.isEmpty()
+                    || operation == Operation.UPDATE && seenIds.isEmpty() && createdIds.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+            Stats target = stats.get(operation);
+            switch (operation) {
+                case LOGIN -> login(target);
+                case LIST -> list(target);
+                case CREATE -> create(target);
+                case UPDATE -> update(target);
+                case DELETE -> delete(target);
+            }
+        }
+
+        void login(Stats stats) throws Exception {
+            String body = objectMapper.writeValueAsString(
+                    Map.of("email", email, "password", seedProperties.password()));
+            HttpResponse<String> response = timed(stats, HttpRequest.newBuilder(uri("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            if (response.statusCode() == 200) {
+                cookie = response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+            } else if (stats == null) {
+                throw new IllegalStateException("Login of " + email + " failed: " + response.statusCode());
+            }
+        }
+
+        void list(Stats stats) throws Exception {
+            // Mostly the first page, sometimes the next one
+            String cursor = nextCursor != null && random.nextInt(3) == 0 ? "&cursor=" + nextCursor : "";
+            HttpResponse<String> response = timed(stats, authorized("/api/transactions?limit=50" + cursor).GET());
+            if (response.statusCode() == 200) {
+                JsonNode page = objectMapper.readTree(response.body());
+                seenIds.clear();
+                page.get("items").forEach(item -> seenIds.add(item.get("id").asLong()));
+                nextCursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            }
+        }
+
+        void create(Stats stats) throws Exception {
+            List<Long> categories = categoryIds(cookie);
+            String body = String.format(Locale.ROOT,
+                    "{\"categoryId\":%d,\"amount\":%d.%02d,\"description\":\"Load test %d\"}",
+                    categories.get(random.nextInt(categories.size())), 1 + random.nextInt(200),
+                    random.nextInt(100), random.nextInt(1_000_000));
+            HttpResponse<String> response = timed(stats, authorized("/api/transactions")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            if (response.statusCode() == 201) {
+                createdIds.addLast(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        }
+
+        void update(Stats stats) throws Exception {
+            List<Long> candidates = seenIds.isEmpty() ? List.copyOf(createdIds) : seenIds;
+            long id = candidates.get(random.nextInt(candidates.size()));
+            String body = String.format(Locale.ROOT, "{\"amount\":%d.%02d}", 1 + random.nextInt(500), random.nextInt(100));
+            timed(stats, authorized("/api/transactions/" + id)
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(body)));
+        }
+
+        void delete(Stats stats) throws Exception {
+            long id = createdIds.removeFirst();
+            seenIds.remove(Long.valueOf(id));
+            timed(stats, authorized("/api/transactions/" + id).DELETE());
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(uri(path)).header("Cookie", cookie);
+        }
+
+        /**
+         * Sends the request and, when stats are given, records latency of successes,
+         * 429 answers as rejections and anything else as an error.
+         */
+        private HttpResponse<String> timed(Stats stats, HttpRequest.Builder request) throws Exception {
+            long start = System.nanoTime();
+            HttpResponse<String> response = send(request);
+            long elapsed = System.nanoTime() - start;
+            if (stats != null) {
+                int status = response.statusCode();
+                if (status >= 200 && status < 300) {
+                    stats.latencies.record(elapsed);
+                } else if (status == 429) {
+                    stats.rejected.increment();
+                } else {
+                    stats.errors.increment();
+                }
+            }
+            return response;
+        }
+    }
+}
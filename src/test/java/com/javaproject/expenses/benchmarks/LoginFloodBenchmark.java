@@ -0,0 +1,147 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures transaction listing latency on its own and while many clients hammer the login endpoint.
+ * Tomcat is capped at 32 workers so that hashing on request threads would visibly starve the listing.
+ * Rate limits are off, since every flooding client signs in from the same address.
+ * Needs the database from application.properties; run with {@code mvn test -Pbenchmark}.
+ * Sizes are set with {@code -Dbenchmark.login-flood.clients}, {@code -Dbenchmark.login-flood.samples}
+ * and the latency bound with {@code -Dbenchmark.login-flood.max-p99-ms}.
+ */
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=32", "expenses.rate-limit.enabled=false"}
+)
+class LoginFloodBenchmark {
+
+    private static final int FLOOD_CLIENTS = Integer.getInteger("benchmark.login-flood.clients", 64);
+    private static final int SAMPLES = Integer.getInteger("benchmark.login-flood.samples", 300);
+    private static final long MAX_P99_MILLIS = Long.getLong("benchmark.login-flood.max-p99-ms", 500);
+    private static final String PASSWORD = "benchmark-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Login Bench")
+                .email("login-bench-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void transactionListingKeepsLatencyDuringLoginFlood() throws Exception {
+        String cookie = login().headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+
+        probe(cookie, SAMPLES / 5, new LatencyRecorder());
+        LatencyRecorder baseline = new LatencyRecorder();
+        probe(cookie, SAMPLES, baseline);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        Map<Integer, LongAdder> loginStatuses = new ConcurrentHashMap<>();
+        ExecutorService flood = Executors.newFixedThreadPool(FLOOD_CLIENTS);
+        for (int i = 0; i < FLOOD_CLIENTS; i++) {
+            flood.execute(() -> {
+                while (flooding.get()) {
+                    int status = login().statusCode();
+                    loginStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                }
+            });
+        }
+
+        LatencyRecorder underFlood = new LatencyRecorder();
+        try {
+            Thread.sleep(1_000);
+            probe(cookie, SAMPLES, underFlood);
+        } finally {
+            flooding.set(false);
+            flood.shutdown();
+            flood.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        System.out.printf("listing, idle:        %s%n", baseline.summary());
+        System.out.printf("listing, login flood: %s%n", underFlood.summary());
+        System.out.printf("login responses by status: %s%n", loginStatuses);
+
+        assertThat(loginStatuses).containsKey(429);
+        assertThat(underFlood.percentileMillis(99)).isLessThan(MAX_P99_MILLIS);
+    }
+
+    private void probe(String cookie, int samples, LatencyRecorder recorder) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/transactions?limit=20"))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(System.nanoTime() - start);
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+    }
+
+    private HttpResponse<Void> login() {
+        String body = "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,30 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.config.SeedProperties;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.seed.SyntheticDataGenerator;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Provides the {@link SyntheticDataGenerator} to benchmarks that seed their own data.
+ * The application only registers it under the {@code seed} profile, which would also run
+ * the seed and exit.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class SyntheticDataConfig {
+
+    @Bean
+    SyntheticDataGenerator syntheticDataGenerator(
+            JdbcTemplate jdbcTemplate,
+            TransactionRollupRepository rollupRepository,
+            PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager,
+            SeedProperties properties
+    ) {
+        return new SyntheticDataGenerator(jdbcTemplate, rollupRepository, passwordEncoder, transactionManager, properties);
+    }
+}
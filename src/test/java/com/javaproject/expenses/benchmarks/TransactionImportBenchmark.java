@@ -0,0 +1,98 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.dtos.ImportResultDto;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.imports.CsvTransactionReader;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.services.TransactionImportService;
+import com.javaproject.expenses.services.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares rows/sec of the chunked bulk import with one {@code create} call per row.
+ * Needs the database from application.properties; run with {@code mvn test -Pbenchmark}.
+ * Row counts are set with {@code -Dbenchmark.import.rows} and {@code -Dbenchmark.import.baseline-rows}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransactionImportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.import.rows", 100_000);
+    private static final int BASELINE_ROWS = Integer.getInteger("benchmark.import.baseline-rows", 5_000);
+
+    @Autowired
+    private TransactionImportService importService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        String email = "import-bench-" + UUID.randomUUID() + "@example.com";
+        user = userRepository.save(User.builder()
+                .name("Import Bench")
+                .email(email)
+                .password("not-a-real-hash")
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void bulkImportOutperformsSavePerRow() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < BASELINE_ROWS; i++) {
+            transactionService.create(user.getId(), new TransactionRequest(
+                    8L + i % 10, new BigDecimal("12.34"), "Row " + i, null));
+        }
+        double baselineRate = rate(BASELINE_ROWS, System.nanoTime() - start);
+
+        StringBuilder csv = new StringBuilder("categoryId,amount,description,transactionDate\n");
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(8 + i % 10).append(",12.34,Row ").append(i).append(',')
+                    .append(date.plusMinutes(i)).append('\n');
+        }
+
+        start = System.nanoTime();
+        ImportResultDto result = importService.importTransactions(
+                user.getId(), new CsvTransactionReader(new StringReader(csv.toString())));
+        double importRate = rate(ROWS, System.nanoTime() - start);
+
+        System.out.printf("save-per-row: %,d rows at %,.0f rows/s%n", BASELINE_ROWS, baselineRate);
+        System.out.printf("bulk import:  %,d rows at %,.0f rows/s (%.1fx)%n",
+                ROWS, importRate, importRate / baselineRate);
+
+        assertThat(result.getImported()).isEqualTo(ROWS);
+        assertThat(result.getFailed()).isZero();
+        assertThat(importRate).isGreaterThan(baselineRate);
+    }
+
+    private static double rate(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,146 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.services.TransactionPartitionMaintainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares date-range queries on the monthly-partitioned {@code transactions} table (V10) with the
+ * same rows in one unpartitioned table carrying the pre-V10 indexes.
+ * Needs the database from application.properties; run with
+ * {@code mvn test -Pbenchmark -Dtest=TransactionPartitionBenchmark}.
+ * Sizes are set with {@code -Dbenchmark.partition.users}, {@code .rows-per-user}, {@code .months}
+ * and {@code .iterations}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransactionPartitionBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.partition.users", 20);
+    private static final int ROWS_PER_USER = Integer.getInteger("benchmark.partition.rows-per-user", 50_000);
+    private static final int MONTHS = Integer.getInteger("benchmark.partition.months", 24);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.partition.iterations", 200);
+    private static final String HEAP = "transactions_partition_bench";
+
+    // A user's page of one month, as the listing and export issue it
+    private static final String USER_MONTH_QUERY = """
+            SELECT id, amount, transaction_date FROM %s
+            WHERE user_id = ? AND transaction_date >= ? AND transaction_date < ?
+            ORDER BY transaction_date DESC, id DESC LIMIT 50
+            """;
+
+    // One month across all users, as the rollup rebuild issues it
+    private static final String MONTH_TOTALS_QUERY = """
+            SELECT category_id, SUM(amount), COUNT(*) FROM %s
+            WHERE transaction_date >= ? AND transaction_date < ?
+            GROUP BY category_id
+            """;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    private LocalDateTime firstMonth;
+
+    @BeforeEach
+    void createData() {
+        firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(MONTHS - 1).atStartOfDay();
+        long spanSeconds = Duration.between(firstMonth, firstMonth.plusMonths(MONTHS)).toSeconds();
+        for (int u = 0; u < USERS; u++) {
+            User user = userRepository.save(User.builder()
+                    .name("Partition Bench")
+                    .email("partition-bench-" + UUID.randomUUID() + "@example.com")
+                    .password("not-a-real-hash")
+                    .build());
+            userIds.add(user.getId());
+            jdbcTemplate.update("""
+                    INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+                    SELECT ?, 8 + g % 10, 12.34, ? + make_interval(secs => g * ? / ?), 'Row ' || g
+                    FROM generate_series(0, ? - 1) g
+                    """, user.getId(), Timestamp.valueOf(firstMonth), spanSeconds, (long) ROWS_PER_USER, ROWS_PER_USER);
+        }
+        // Months older than the partitions V10 created land in the default partition until this runs
+        partitionMaintainer.maintain();
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + HEAP);
+        jdbcTemplate.execute("CREATE TABLE " + HEAP + " AS SELECT * FROM transactions");
+        jdbcTemplate.execute("CREATE INDEX ON " + HEAP + "(user_id, transaction_date DESC, id DESC)");
+        jdbcTemplate.execute("CREATE INDEX ON " + HEAP + "(user_id, category_id, transaction_date DESC, id DESC)");
+        jdbcTemplate.execute("CREATE INDEX ON " + HEAP + "(user_id, amount DESC, id DESC)");
+        jdbcTemplate.execute("ANALYZE " + HEAP);
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+
+    @AfterEach
+    void deleteData() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + HEAP);
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void monthRangeQueriesOnlyTouchTheirPartition() {
+        LocalDateTime from = firstMonth.plusMonths(MONTHS / 2);
+        LocalDateTime to = from.plusMonths(1);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN " + MONTH_TOTALS_QUERY.formatted("transactions"), String.class, from, to));
+        long partitionsScanned = plan.lines().filter(line -> line.contains("on transactions_")).count();
+        System.out.println(plan);
+
+        for (String query : List.of(USER_MONTH_QUERY, MONTH_TOTALS_QUERY)) {
+            LatencyRecorder before = measure(query.formatted(HEAP), from, to);
+            LatencyRecorder after = measure(query.formatted("transactions"), from, to);
+            System.out.printf("%s%n  unpartitioned: %s%n  partitioned:   %s%n",
+                    query.strip().lines().findFirst().orElseThrow(), before.summary(), after.summary());
+        }
+
+        assertThat(partitionsScanned).isEqualTo(1);
+    }
+
+    private LatencyRecorder measure(String sql, LocalDateTime from, LocalDateTime to) {
+        boolean perUser = sql.contains("user_id = ?");
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            run(sql, perUser, i, from, to);
+        }
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            run(sql, perUser, i, from, to);
+            recorder.record(System.nanoTime() - start);
+        }
+        return recorder;
+    }
+
+    private void run(String sql, boolean perUser, int i, LocalDateTime from, LocalDateTime to) {
+        if (perUser) {
+            jdbcTemplate.queryForList(sql, userIds.get(i % userIds.size()), from, to);
+        } else {
+            jdbcTemplate.queryForList(sql, from, to);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.dtos.TransactionFilter;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.TransactionSearchRepository;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.services.TransactionPartitionMaintainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares description search through the V11 full-text index with an {@code ILIKE} scan, at a
+ * million rows by default. One description in a thousand mentions "uber".
+ * Needs the database from application.properties; run with
+ * {@code mvn test -Pbenchmark -Dtest=TransactionSearchBenchmark}.
+ * Sizes are set with {@code -Dbenchmark.search.users}, {@code .rows-per-user} and {@code .iterations}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransactionSearchBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.search.users", 10);
+    private static final int ROWS_PER_USER = Integer.getInteger("benchmark.search.rows-per-user", 100_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.search.iterations", 200);
+    private static final TransactionFilter NO_FILTER = new TransactionFilter(null, null, null, null, null, null);
+
+    @Autowired
+    private TransactionSearchRepository searchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void createData() {
+        LocalDateTime start = LocalDate.now().withDayOfMonth(1).minusMonths(11).atStartOfDay();
+        for (int u = 0; u < USERS; u++) {
+            User user = userRepository.save(User.builder()
+                    .name("Search Bench")
+                    .email("search-bench-" + UUID.randomUUID() + "@example.com")
+                    .password("not-a-real-hash")
+                    .build());
+            userIds.add(user.getId());
+            jdbcTemplate.update("""
+                    INSERT INTO transactions (user_id, category_id, amount, transaction_date, description)
+                    SELECT ?, 8 + g % 10, 12.34, ? + make_interval(mins => g * 5),
+                           CASE WHEN g % 1000 = 0 THEN 'Uber trip ' || g
+                                ELSE (ARRAY['Groceries', 'Rent', 'Coffee shop', 'Electricity bill', 'Gym'])[1 + g % 5] || ' ' || g
+                           END
+                    FROM generate_series(0, ? - 1) g
+                    """, user.getId(), Timestamp.valueOf(start), ROWS_PER_USER);
+        }
+        partitionMaintainer.maintain();
+        jdbcTemplate.execute("ANALYZE transactions");
+    }
+
+    @AfterEach
+    void deleteData() {
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void searchUsesTheIndex() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT id FROM transactions
+                WHERE user_id = ? AND to_tsvector('simple', COALESCE(description, '')) @@ to_tsquery('simple', 'uber:*')
+                """, String.class, userIds.get(0)));
+        System.out.println(plan);
+
+        LatencyRecorder scan = new LatencyRecorder();
+        LatencyRecorder search = new LatencyRecorder();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Long userId = userIds.get(i % userIds.size());
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList("SELECT id FROM transactions WHERE user_id = ? AND description ILIKE '%uber%'"
+                    + " ORDER BY id DESC LIMIT 50", userId);
+            scan.record(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            searchRepository.search(userId, "uber", NO_FILTER, null, 50);
+            search.record(System.nanoTime() - start);
+        }
+        System.out.printf("ILIKE scan:       %s%nfull-text search: %s%n", scan.summary(), search.summary());
+
+        assertThat(plan).contains("Index Cond: (to_tsvector").doesNotContain("Seq Scan");
+        assertThat(searchRepository.search(userIds.get(0), "uber", NO_FILTER, null, 1000))
+                .hasSize(ROWS_PER_USER / 1000);
+    }
+}
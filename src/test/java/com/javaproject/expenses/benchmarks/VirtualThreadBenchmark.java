@@ -0,0 +1,241 @@
+package com.javaproject.expenses.benchmarks;
+
+import com.javaproject.expenses.ExpensesApplication;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same closed-loop load of {@code GET /api/transactions} (80%) and {@code POST /api/transactions} (20%)
+ * against the application on the default platform-thread Tomcat pool and under the {@code virtual} profile,
+ * and reports throughput and latency percentiles for both. While the virtual-thread run is under load,
+ * JFR records every {@code jdk.VirtualThreadPinned} event; none may come from JDBC, Hikari or Hibernate frames.
+ * Needs the database from application.properties; run with {@code mvn test -Pbenchmark}.
+ * Load is set with {@code -Dbenchmark.virtual.clients}, {@code -Dbenchmark.virtual.users}
+ * and {@code -Dbenchmark.virtual.seconds}.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.virtual.clients", 400);
+    private static final int USERS = Integer.getInteger("benchmark.virtual.users", 20);
+    private static final int SECONDS = Integer.getInteger("benchmark.virtual.seconds", 20);
+    private static final int WARMUP_SECONDS = 5;
+    private static final int ROWS_PER_USER = 200;
+    private static final String PASSWORD = "benchmark-password";
+    private static final List<String> JDBC_FRAMES = List.of(
+            "org.postgresql.", "com.zaxxer.hikari.", "org.hibernate.",
+            "org.springframework.jdbc.", "org.springframework.orm.", "com.javaproject.expenses.datasource.");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void comparesPlatformAndVirtualThreadRequestExecution() throws Exception {
+        RunResult platform = run(false);
+        RunResult virtual = run(true);
+
+        platform.print("platform threads");
+        virtual.print("virtual threads");
+        System.out.printf("pinned events in JDBC/Hibernate paths: %d%n", virtual.jdbcPinnedEvents.size());
+        virtual.jdbcPinnedEvents.stream().limit(5).forEach(System.out::println);
+
+        assertThat(platform.errors.sum()).isZero();
+        assertThat(virtual.errors.sum()).isZero();
+        assertThat(virtual.jdbcPinnedEvents).isEmpty();
+    }
+
+    private RunResult run(boolean virtualThreads) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ExpensesApplication.class);
+        if (virtualThreads) {
+            builder.profiles("virtual");
+        }
+
+        try (ConfigurableApplicationContext context = builder.run("--server.port=0", "--management.server.port=0",
+                // all clients share one address and many share a user; the load is meant to reach the handlers
+                "--expenses.rate-limit.enabled=false", "--expenses.bulkheads.enabled=false")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Long> userIds = createUsers(context);
+            try {
+                List<String> cookies = new ArrayList<>();
+                for (Long userId : userIds) {
+                    cookies.add(login(port, context.getBean(UserRepository.class).findById(userId).orElseThrow()));
+                }
+
+                load(port, cookies, WARMUP_SECONDS, new RunResult());
+
+                RunResult result = new RunResult();
+                if (!virtualThreads) {
+                    load(port, cookies, SECONDS, result);
+                    return result;
+                }
+                try (RecordingStream recording = new RecordingStream()) {
+                    recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                    recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                        if (isInJdbcPath(event)) {
+                            result.jdbcPinnedEvents.add(describe(event));
+                        }
+                    });
+                    recording.startAsync();
+                    load(port, cookies, SECONDS, result);
+                    recording.stop();
+                }
+                return result;
+            } finally {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                userIds.forEach(id -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", id));
+            }
+        }
+    }
+
+    private List<Long> createUsers(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("Virtual Bench")
+                    .email("virtual-bench-" + UUID.randomUUID() + "@example.com")
+                    .password(hash)
+                    .build());
+            jdbcTemplate.update("""
+                    INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                    SELECT ?, 8 + g % 10, 10 + g % 90, 'Seed ' || g, now() - g * interval '1 hour'
+                    FROM generate_series(1, ?) g
+                    """, user.getId(), ROWS_PER_USER);
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+
+    private String login(int port, User user) throws Exception {
+        String body = "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}";
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri(port, "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+    }
+
+    private void load(int port, List<String> cookies, int seconds, RunResult result) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                String cookie = cookies.get(i % cookies.size());
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        boolean write = ThreadLocalRandom.current().nextInt(5) == 0;
+                        long begin = System.nanoTime();
+                        int status = send(write ? post(port, cookie) : get(port, cookie));
+                        (write ? result.posts : result.gets).record(System.nanoTime() - begin);
+                        if (status / 100 != 2) {
+                            result.errors.increment();
+                            result.errorStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        }
+                    }
+                });
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private HttpRequest get(int port, String cookie) {
+        return HttpRequest.newBuilder(uri(port, "/api/transactions?limit=20"))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private HttpRequest post(int port, String cookie) {
+        String body = "{\"categoryId\":" + (8 + ThreadLocalRandom.current().nextInt(10))
+                + ",\"amount\":12.34,\"description\":\"Virtual bench\"}";
+        return HttpRequest.newBuilder(uri(port, "/api/transactions"))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static boolean isInJdbcPath(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (JDBC_FRAMES.stream().anyMatch(type::startsWith)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder description = new StringBuilder("pinned for " + event.getDuration().toMillis() + "ms at");
+        event.getStackTrace().getFrames().stream().limit(8).forEach(frame -> description
+                .append("\n    ").append(frame.getMethod().getType().getName())
+                .append('.').append(frame.getMethod().getName()));
+        return description.toString();
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static final class RunResult {
+        final LatencyRecorder gets = new LatencyRecorder();
+        final LatencyRecorder posts = new LatencyRecorder();
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> errorStatuses = new ConcurrentHashMap<>();
+        final List<String> jdbcPinnedEvents = new CopyOnWriteArrayList<>();
+        long elapsedNanos;
+
+        void print(String mode) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("%s: %.0f req/s, errors=%d %s%n", mode,
+                    (gets.count() + posts.count()) / seconds, errors.sum(), errorStatuses);
+            System.out.printf("  GET  %s%n", gets.summary());
+            System.out.printf("  POST %s%n", posts.summary());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.javaproject.expenses.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.services.CategoryRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.util.DigestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads the category list served from {@link CategoryRegistry}: the body serialized at startup
+ * must match the table, carry the ETag of its bytes, and be answered with 304 while the client's
+ * copy is current. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CategoryControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Category User")
+                .email("category-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("category-password"))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void servesThePreSerializedListWithTheEtagOfItsBytes() throws Exception {
+        MvcResult result = mvc.perform(get("/api/categories").with(signedIn()))
+                .andExpect(status().isOk())
+                .andReturn();
+        byte[] body = result.getResponse().getContentAsByteArray();
+
+        assertThat(body).isEqualTo(categoryRegistry.json());
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG))
+                .isEqualTo("\"" + DigestUtils.md5DigestAsHex(body) + "\"")
+                .isEqualTo(categoryRegistry.etag());
+
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode category : objectMapper.readTree(body)) {
+            ids.add(category.get("id").asLong());
+        }
+        assertThat(ids).isEqualTo(jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class));
+    }
+
+    @Test
+    void answersACurrentEtagWithNotModified() throws Exception {
+        String etag = mvc.perform(get("/api/categories").with(signedIn()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult notModified = mvc.perform(get("/api/categories").with(signedIn())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertThat(notModified.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(notModified.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        mvc.perform(get("/api/categories").with(signedIn()).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    private RequestPostProcessor signedIn() {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,230 @@
+package com.javaproject.expenses.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import java.sql.Timestamp;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creates transactions through the API and reads them back, and updates and deletes them with the
+ * single statement that also checks ownership: another user's row must answer 404 and stay as it
+ * was. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private User otherUser;
+
+    @BeforeEach
+    void createUsers() {
+        user = userRepository.save(User.builder()
+                .name("Dated User")
+                .email("dated-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("dated-password"))
+                .build());
+        otherUser = userRepository.save(User.builder()
+                .name("Other User")
+                .email("other-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("other-password"))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", user.getId(), otherUser.getId());
+    }
+
+    @Test
+    void keepsTheDateOfABackdatedTransaction() throws Exception {
+        String body = mvc.perform(post("/api/transactions").with(signedIn()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryId\":7,\"amount\":42.00,\"description\":\"Last year's rent\","
+                                + "\"transactionDate\":\"2024-03-15T09:30:00\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        JsonNode read = objectMapper.readTree(mvc.perform(get("/api/transactions/" + id).with(signedIn()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertThat(LocalDateTime.parse(read.get("transactionDate").asText()))
+                .isEqualTo(LocalDateTime.of(2024, 3, 15, 9, 30));
+        assertThat(jdbcTemplate.queryForObject("SELECT transaction_date FROM transactions WHERE id = ?",
+                Timestamp.class, id).toLocalDateTime()).isEqualTo(LocalDateTime.of(2024, 3, 15, 9, 30));
+    }
+
+    @Test
+    void datesATransactionWithoutADateNow() throws Exception {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        String body = mvc.perform(post("/api/transactions").with(signedIn()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryId\":7,\"amount\":12.50,\"description\":\"Lunch\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(LocalDateTime.parse(objectMapper.readTree(body).get("transactionDate").asText()))
+                .isAfterOrEqualTo(before)
+                .isBeforeOrEqualTo(LocalDateTime.now());
+    }
+
+    @Test
+    void patchChangesOnlyTheGivenFieldsAndMovesTheRollup() throws Exception {
+        long id = insert(user, 8, "40.00", "Weekly shop");
+
+        JsonNode updated = objectMapper.readTree(mvc.perform(patch("/api/transactions/" + id).with(signedIn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":55.50,\"categoryId\":9}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertThat(updated.get("id").asLong()).isEqualTo(id);
+        assertThat(updated.get("userId").asLong()).isEqualTo(user.getId());
+        assertThat(updated.get("categoryId").asLong()).isEqualTo(9);
+        assertThat(updated.get("amount").decimalValue()).isEqualByComparingTo("55.50");
+        assertThat(updated.get("description").asText()).isEqualTo("Weekly shop");
+        assertThat(row(id)).containsEntry("category_id", 9L).containsEntry("description", "Weekly shop");
+        assertThat((BigDecimal) row(id).get("amount")).isEqualByComparingTo("55.50");
+        assertRollupMatchesTransactions(user);
+    }
+
+    @Test
+    void putIsASynonymForPatch() throws Exception {
+        long id = insert(user, 8, "40.00", "Weekly shop");
+
+        mvc.perform(put("/api/transactions/" + id).with(signedIn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Monthly shop\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(row(id)).containsEntry("description", "Monthly shop");
+        assertThat((BigDecimal) row(id).get("amount")).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void patchRefusesAnUnknownCategoryAndLeavesTheRow() throws Exception {
+        long id = insert(user, 8, "40.00", "Weekly shop");
+
+        mvc.perform(patch("/api/transactions/" + id).with(signedIn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryId\":9999,\"amount\":1.00}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(row(id)).containsEntry("category_id", 8L);
+        assertThat((BigDecimal) row(id).get("amount")).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void anotherUsersRowIsNotFoundAndUnchanged() throws Exception {
+        long id = insert(otherUser, 8, "40.00", "Not yours");
+        Map<String, Object> before = row(id);
+
+        mvc.perform(patch("/api/transactions/" + id).with(signedIn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":1.00}"))
+                .andExpect(status().isNotFound());
+        mvc.perform(delete("/api/transactions/" + id).with(signedIn()))
+                .andExpect(status().isNotFound());
+
+        assertThat(row(id)).isEqualTo(before);
+        assertRollupMatchesTransactions(otherUser);
+    }
+
+    @Test
+    void deleteRemovesTheRowOnce() throws Exception {
+        long id = insert(user, 8, "40.00", "Weekly shop");
+        insert(user, 8, "10.00", "Kept");
+
+        mvc.perform(delete("/api/transactions/" + id).with(signedIn())).andExpect(status().isOk());
+        mvc.perform(delete("/api/transactions/" + id).with(signedIn())).andExpect(status().isNotFound());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE id = ?", Long.class, id))
+                .isZero();
+        assertRollupMatchesTransactions(user);
+    }
+
+    /**
+     * Creates a transaction through the API, so its rollup is kept, and returns its id.
+     */
+    private long insert(User owner, long categoryId, String amount, String description) throws Exception {
+        String body = mvc.perform(post("/api/transactions").with(signedIn(owner)).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryId\":" + categoryId + ",\"amount\":" + amount
+                                + ",\"description\":\"" + description + "\",\"transactionDate\":\"2024-06-10T08:00:00\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT user_id, category_id, amount, description, transaction_date FROM transactions WHERE id = ?", id);
+    }
+
+    private void assertRollupMatchesTransactions(User owner) {
+        String rollup = """
+                SELECT month, category_id, total_amount, transaction_count FROM transaction_monthly_rollup
+                WHERE user_id = ? ORDER BY 1, 2
+                """;
+        String fresh = """
+                SELECT CAST(date_trunc('month', transaction_date) AS date), category_id, SUM(amount), COUNT(*)
+                FROM transactions WHERE user_id = ? GROUP BY 1, 2 ORDER BY 1, 2
+                """;
+        List<List<Object>> expected = jdbcTemplate.query(fresh, (rs, rowNum) ->
+                List.of(rs.getDate(1), rs.getLong(2), rs.getBigDecimal(3).stripTrailingZeros(), rs.getLong(4)), owner.getId());
+        assertThat(jdbcTemplate.query(rollup, (rs, rowNum) ->
+                List.<Object>of(rs.getDate(1), rs.getLong(2), rs.getBigDecimal(3).stripTrailingZeros(), rs.getLong(4)),
+                owner.getId())).isEqualTo(expected);
+    }
+
+    private RequestPostProcessor signedIn() {
+        return signedIn(user);
+    }
+
+    private static RequestPostProcessor signedIn(User user) {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,191 @@
+package com.javaproject.expenses.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks the transaction listing page by page with the returned cursor and checks that every
+ * ordering returns each row exactly once, in the order of the same query run in one piece.
+ * Sort keys repeat across many rows, so pages often end inside a run of equal keys. Filters
+ * passed with the cursor must hold on every page. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionListingTests {
+
+    private static final int ROWS = 37;
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void createUserWithTransactions() {
+        user = userRepository.save(User.builder()
+                .name("Listed User")
+                .email("listed-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("listed-password"))
+                .build());
+        // Four amounts and five dates, so every sort key is shared by seven or more rows
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                SELECT ?, CASE WHEN n % 2 = 0 THEN 1 + n % 3 ELSE 8 + n % 3 END, 10 * (1 + n % 4),
+                       'Listed row ' || n, TIMESTAMP '2024-05-01 12:00' + (n % 5) * INTERVAL '1 day'
+                FROM generate_series(1, ?) AS n
+                """, user.getId(), ROWS);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void cursorWalksEveryRowOnceInSortOrder() throws Exception {
+        Map<String, String> orderings = new LinkedHashMap<>();
+        orderings.put("date_desc", "transaction_date DESC, id DESC");
+        orderings.put("date_asc", "transaction_date ASC, id ASC");
+        orderings.put("amount_desc", "amount DESC, id DESC");
+        orderings.put("amount_asc", "amount ASC, id ASC");
+
+        for (Map.Entry<String, String> ordering : orderings.entrySet()) {
+            List<Long> expected = jdbcTemplate.queryForList(
+                    "SELECT id FROM transactions WHERE user_id = ? ORDER BY " + ordering.getValue(),
+                    Long.class, user.getId());
+
+            assertThat(expected).hasSize(ROWS);
+            assertThat(walk("sort", ordering.getKey())).as(ordering.getKey()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void defaultOrderingIsNewestFirst() throws Exception {
+        assertThat(walk()).isEqualTo(walk("sort", "date_desc"));
+    }
+
+    @Test
+    void filtersHoldOnEveryPage() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList("""
+                SELECT t.id FROM transactions t JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ? AND c.type = 'EXPENSE' AND t.category_id IN (8, 9)
+                  AND t.amount BETWEEN 20 AND 30
+                  AND t.transaction_date >= TIMESTAMP '2024-05-02 00:00'
+                  AND t.transaction_date < TIMESTAMP '2024-05-05 00:00'
+                ORDER BY t.amount DESC, t.id DESC
+                """, Long.class, user.getId());
+        assertThat(expected.size()).isGreaterThan(PAGE_SIZE);
+
+        assertThat(walk("sort", "amount_desc", "type", "expense", "categoryId", "8", "categoryId", "9",
+                "minAmount", "20", "maxAmount", "30",
+                "from", "2024-05-02T00:00:00", "to", "2024-05-05T00:00:00"))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void filtersWithTheDefaultOrdering() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList("""
+                SELECT t.id FROM transactions t JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ? AND c.type = 'INCOME' AND t.amount >= 20
+                ORDER BY t.transaction_date DESC, t.id DESC
+                """, Long.class, user.getId());
+        assertThat(expected.size()).isGreaterThan(PAGE_SIZE);
+
+        assertThat(walk("type", "INCOME", "minAmount", "20")).isEqualTo(expected);
+    }
+
+    @Test
+    void refusesAnUnknownCategoryType() throws Exception {
+        mvc.perform(listing(null, "type", "TRANSFER")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refusesACursorOfAnotherOrdering() throws Exception {
+        String cursor = page(listing(null, "sort", "date_desc")).get("nextCursor").asText();
+
+        mvc.perform(listing(cursor, "sort", "amount_asc")).andExpect(status().isBadRequest());
+        mvc.perform(listing("not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Requests pages of {@link #PAGE_SIZE} with the given parameters until there is no next cursor,
+     * and returns the ids in the order received.
+     */
+    private List<Long> walk(String... params) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            JsonNode page = page(listing(cursor, params));
+            for (JsonNode item : page.get("items")) {
+                ids.add(item.get("id").asLong());
+            }
+            if (page.get("nextCursor").isNull()) {
+                return ids;
+            }
+            assertThat(page.get("items").size()).isEqualTo(PAGE_SIZE);
+            assertThat(ids.size()).as("pages end").isLessThan(ROWS);
+            cursor = page.get("nextCursor").asText();
+        }
+    }
+
+    /**
+     * A signed-in listing request of {@link #PAGE_SIZE} rows; {@code params} are name, value pairs.
+     */
+    private MockHttpServletRequestBuilder listing(String cursor, String... params) {
+        MockHttpServletRequestBuilder request = get("/api/transactions").with(signedIn())
+                .param("limit", String.valueOf(PAGE_SIZE));
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        return cursor == null ? request : request.param("cursor", cursor);
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private RequestPostProcessor signedIn() {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.javaproject.expenses.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Searches transaction descriptions through the API: every word must match, as a prefix, the
+ * best matches come first, and the cursor walks results that share a rank without gaps or
+ * repeats. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionSearchTests {
+
+    private static final int PAGE_SIZE = 3;
+    private static final int RIDES = 10;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private User otherUser;
+    private long repeated;
+    private long eats;
+    private long income;
+
+    @BeforeEach
+    void createUsersWithTransactions() {
+        user = createUser();
+        otherUser = createUser();
+        repeated = insert(user, 8, "Uber uber uber airport");
+        eats = insert(user, 9, "Uber Eats dinner");
+        income = insert(user, 2, "Uberisation consulting");
+        for (int i = 0; i < RIDES; i++) {
+            insert(user, 10, "Uber ride " + i);
+        }
+        insert(user, 10, "Taxi ride");
+        insert(otherUser, 10, "Uber ride");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", user.getId(), otherUser.getId());
+    }
+
+    @Test
+    void ranksMoreFrequentMatchesFirst() throws Exception {
+        JsonNode first = page(search(null, "q", "uber")).get("items").get(0);
+
+        assertThat(first.get("id").asLong()).isEqualTo(repeated);
+    }
+
+    @Test
+    void requiresEveryWordAsAPrefix() throws Exception {
+        assertThat(walk("q", "uber din")).containsExactly(eats);
+        assertThat(walk("q", "UBERIS")).containsExactly(income);
+        assertThat(walk("q", "uber taxi")).isEmpty();
+    }
+
+    @Test
+    void cursorWalksTiedRanksInRankThenIdOrder() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList("""
+                SELECT id FROM transactions
+                WHERE user_id = ? AND to_tsvector('simple', COALESCE(description, '')) @@ to_tsquery('simple', 'uber:*')
+                ORDER BY ts_rank(to_tsvector('simple', COALESCE(description, '')), to_tsquery('simple', 'uber:*')) DESC,
+                         id DESC
+                """, Long.class, user.getId());
+        assertThat(expected).hasSize(RIDES + 3);
+
+        assertThat(walk("q", "uber")).isEqualTo(expected);
+    }
+
+    @Test
+    void appliesTheListingFiltersAcrossPages() throws Exception {
+        List<Long> rides = walk("q", "uber", "categoryId", "10");
+        assertThat(rides).hasSize(RIDES).doesNotContain(repeated, eats, income);
+
+        assertThat(walk("q", "uber", "type", "INCOME")).containsExactly(income);
+    }
+
+    @Test
+    void refusesTextWithoutWordsAndMalformedCursors() throws Exception {
+        mvc.perform(search(null, "q", "!&|")).andExpect(status().isBadRequest());
+        mvc.perform(search("not-a-cursor", "q", "uber")).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Requests pages of {@link #PAGE_SIZE} until there is no next cursor and returns the ids in order.
+     */
+    private List<Long> walk(String... params) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            JsonNode page = page(search(cursor, params));
+            for (JsonNode item : page.get("items")) {
+                ids.add(item.get("id").asLong());
+            }
+            if (page.get("nextCursor").isNull()) {
+                return ids;
+            }
+            assertThat(page.get("items").size()).isEqualTo(PAGE_SIZE);
+            assertThat(ids.size()).as("pages end").isLessThan(RIDES + 3);
+            cursor = page.get("nextCursor").asText();
+        }
+    }
+
+    /**
+     * A signed-in search request of {@link #PAGE_SIZE} rows; {@code params} are name, value pairs.
+     */
+    private MockHttpServletRequestBuilder search(String cursor, String... params) {
+        MockHttpServletRequestBuilder request = get("/api/transactions/search").with(signedIn())
+                .param("limit", String.valueOf(PAGE_SIZE));
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        return cursor == null ? request : request.param("cursor", cursor);
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .name("Searching User")
+                .email("search-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("search-password"))
+                .build());
+    }
+
+    private long insert(User owner, long categoryId, String description) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                VALUES (?, ?, 20, ?, TIMESTAMP '2024-07-01 10:00')
+                RETURNING id
+                """, Long.class, owner.getId(), categoryId, description);
+    }
+
+    private RequestPostProcessor signedIn() {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.javaproject.expenses.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that permits are taken per checkout and returned exactly once per close.
+ */
+class ConcurrencyLimitingDataSourceTests {
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final ConcurrencyLimitingDataSource dataSource =
+            new ConcurrencyLimitingDataSource(new FakeDataSource(), 2, Duration.ofMillis(50));
+
+    @Test
+    void refusesCheckoutBeyondPermitsUntilAConnectionIsClosed() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        Connection third = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        second.close();
+        third.close();
+        assertThat(open).hasValue(0);
+    }
+
+    @Test
+    void exposesTargetConnection() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Connection other = dataSource.getConnection()) {
+            assertThat(connection).isInstanceOf(ConnectionProxy.class);
+            assertThat(((ConnectionProxy) connection).getTargetConnection()).isNotSameAs(connection);
+            assertThat(connection).isEqualTo(connection).isNotEqualTo(other);
+        }
+    }
+
+    @Test
+    void returnsPermitWhenTargetFails() {
+        ConcurrencyLimitingDataSource failing = new ConcurrencyLimitingDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("down");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        }, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(failing::getConnection).hasMessage("down");
+        assertThatThrownBy(failing::getConnection).hasMessage("down");
+    }
+
+    private class FakeDataSource extends AbstractDataSource {
+        @Override
+        public Connection getConnection() {
+            open.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            open.decrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
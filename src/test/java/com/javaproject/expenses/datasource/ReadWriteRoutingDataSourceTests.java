@@ -0,0 +1,165 @@
+package com.javaproject.expenses.datasource;
+
+import com.javaproject.expenses.repositories.TransactionRepository;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application against two data sources on the local database, told apart by their
+ * {@code application_name}: "primary" and "replica". Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:postgresql://${DB_HOST:localhost}:${DB_PORT:5432}/${DB_NAME:expenses}"
+                + "?reWriteBatchedInserts=true&ApplicationName=primary",
+        "expenses.replicas.enabled=true",
+        "expenses.replicas.urls=jdbc:postgresql://${DB_HOST:localhost}:${DB_PORT:5432}/${DB_NAME:expenses}"
+                + "?ApplicationName=replica",
+        "expenses.replicas.read-your-writes-window=500ms",
+        "expenses.replicas.lag-check-interval=1h"
+})
+class ReadWriteRoutingDataSourceTests {
+
+    private static final String SERVED_BY = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void checkReplicas() {
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(servedBy(true)).isEqualTo("replica");
+        assertThat(servedBy(false)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject(SERVED_BY, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void repositoryReadsUseTheReplica() {
+        long before = replicaCheckouts();
+        transactionRepository.findByIdAndUserId(-1L, -1L);
+        rollupRepository.findMonthlyTotals(-1L, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 1));
+        assertThat(replicaCheckouts() - before).isEqualTo(2);
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromThePrimaryUntilTheWindowEnds() throws InterruptedException {
+        signIn(-1L);
+        servedBy(false);
+        assertThat(servedBy(true)).isEqualTo("primary");
+
+        signIn(-2L);
+        assertThat(servedBy(true)).isEqualTo("replica");
+
+        Thread.sleep(600);
+        signIn(-1L);
+        assertThat(servedBy(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        signIn(-3L);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject(SERVED_BY, String.class);
+            status.setRollbackOnly();
+        });
+        assertThat(servedBy(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        lagMonitor.update("replica-1", Duration.ofMinutes(1));
+        assertThat(servedBy(true)).isEqualTo("primary");
+        assertThat(lagMonitor.lagSeconds("replica-1")).isEqualTo(60.0);
+
+        lagMonitor.check();
+        assertThat(servedBy(true)).isEqualTo("replica");
+        assertThat(lagMonitor.lagSeconds("replica-1")).isZero();
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() throws Exception {
+        Map<String, String> env = System.getenv();
+        DataSource primary = new DriverManagerDataSource(
+                "jdbc:postgresql://" + env.getOrDefault("DB_HOST", "localhost") + ":" + env.getOrDefault("DB_PORT", "5432")
+                        + "/" + env.getOrDefault("DB_NAME", "expenses") + "?ApplicationName=primary",
+                env.getOrDefault("DB_USER", "postgres"), env.getOrDefault("DB_PASS", "password"));
+        DataSource down = new DriverManagerDataSource("jdbc:postgresql://localhost:1/expenses?connectTimeout=1");
+        try (ReplicaLagMonitor monitor = new ReplicaLagMonitor(Map.of("down", down), Duration.ofSeconds(5))) {
+            monitor.check();
+            assertThat(monitor.usableReplicas()).isEmpty();
+            assertThat(monitor.lagSeconds("down")).isNaN();
+
+            // Believed healthy until the connection fails, then skipped
+            monitor.update("down", Duration.ZERO);
+            ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource(
+                    primary, monitor, new ReadYourWritesTracker(Duration.ofSeconds(5)), () -> null);
+            DataSource routed = new LazyConnectionDataSourceProxy(router);
+            TransactionTemplate read = new TransactionTemplate(new DataSourceTransactionManager(routed));
+            read.setReadOnly(true);
+            JdbcTemplate jdbc = new JdbcTemplate(routed);
+            String servedBy = read.execute(status -> jdbc.queryForObject(SERVED_BY, String.class));
+            assertThat(servedBy).isEqualTo("primary");
+            assertThat(monitor.usableReplicas()).isEmpty();
+        }
+    }
+
+    private String servedBy(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject(SERVED_BY, String.class));
+    }
+
+    private long replicaCheckouts() {
+        return meterRegistry.get("hikaricp.connections.usage").tag("pool", "replica-1").timer().count();
+    }
+
+    private static void signIn(Long userId) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                new AuthenticatedUser(userId, "routing@example.com", 0), null, List.of()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.javaproject.expenses.exports;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.javaproject.expenses.dtos.TransactionRow;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the export formats and that writing a large export does not grow the heap with the row count.
+ */
+class TransactionExportWriterTests {
+
+    private static final int ROWS = 500_000;
+    private static final long HEAP_BUDGET = 32L * 1024 * 1024;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final TransactionExportWriter writer = new TransactionExportWriter(new JsonFactory());
+
+    @Test
+    void writesCsvWithQuotedFields() throws IOException {
+        String csv = write(ExportFormat.CSV, Stream.of(
+                new TransactionRow(1L, 8L, new BigDecimal("12.50"), "Lunch, \"fancy\"", BASE, BASE),
+                new TransactionRow(2L, 1L, new BigDecimal("1000.00"), null, BASE, null)));
+
+        assertThat(csv).isEqualTo("""
+                id,userId,categoryId,amount,description,transactionDate,createdAt
+                1,7,8,12.50,"Lunch, ""fancy""\",2024-01-01T12:00:00,2024-01-01T12:00:00
+                2,7,1,1000.00,,2024-01-01T12:00:00,
+                """);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        String ndjson = write(ExportFormat.NDJSON, Stream.of(
+                new TransactionRow(1L, 8L, new BigDecimal("12.50"), "Lunch", BASE, BASE),
+                new TransactionRow(2L, 1L, new BigDecimal("1000.00"), null, BASE, null)));
+
+        assertThat(ndjson).isEqualTo("""
+                {"id":1,"userId":7,"categoryId":8,"amount":12.50,"description":"Lunch",\
+                "transactionDate":"2024-01-01T12:00:00","createdAt":"2024-01-01T12:00:00"}
+                {"id":2,"userId":7,"categoryId":1,"amount":1000.00,"description":null,\
+                "transactionDate":"2024-01-01T12:00:00","createdAt":null}
+                """);
+    }
+
+    @Test
+    void keepsHeapBoundedForLargeCsvExport() throws IOException {
+        assertBoundedHeap(ExportFormat.CSV);
+    }
+
+    @Test
+    void keepsHeapBoundedForLargeNdjsonExport() throws IOException {
+        assertBoundedHeap(ExportFormat.NDJSON);
+    }
+
+    private void assertBoundedHeap(ExportFormat format) throws IOException {
+        long baseline = usedHeapAfterGc();
+        AtomicLong peak = new AtomicLong();
+        Stream<TransactionRow> rows = LongStream.rangeClosed(1, ROWS)
+                .mapToObj(TransactionExportWriterTests::row)
+                .peek(row -> {
+                    if (row.id() % 50_000 == 0) {
+                        peak.accumulateAndGet(usedHeapAfterGc() - baseline, Math::max);
+                    }
+                });
+        CountingOutputStream out = new CountingOutputStream();
+
+        writer.write(format, 7L, rows, out);
+
+        assertThat(out.lines).isEqualTo(format == ExportFormat.CSV ? ROWS + 1 : ROWS);
+        assertThat(peak.get()).isLessThan(HEAP_BUDGET);
+    }
+
+    private static TransactionRow row(long id) {
+        return new TransactionRow(id, id % 16 + 1, BigDecimal.valueOf(id, 2),
+                "Row " + id, BASE.minusMinutes(id), BASE);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private String write(ExportFormat format, Stream<TransactionRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(format, 7L, rows, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Discards the output while counting newlines, so the test itself holds nothing.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.javaproject.expenses.feed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks replay on reconnect and the slow-consumer policy of {@link ChangeFeedHub},
+ * with emitters that record what would have been written.
+ */
+class ChangeFeedHubTests {
+
+    private static final Long USER = 1L;
+
+    @Test
+    void deliversPublishedEventsToOpenConnections() {
+        ChangeFeedHub hub = new ChangeFeedHub(16, 16, 10, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(USER, emitter, null, null);
+
+        hub.publish(USER, List.of(event(1, 0), event(1, 1)));
+        hub.publish(2L, List.of(event(1, 0)));
+
+        assertThat(emitter.ids()).containsExactly("1.0", "1.1");
+    }
+
+    @Test
+    void replaysEventsAfterLastEventId() {
+        ChangeFeedHub hub = new ChangeFeedHub(16, 16, 10, Runnable::run);
+        hub.publish(USER, List.of(event(1, 0)));
+        hub.publish(USER, List.of(event(2, 0), event(2, 1)));
+        hub.publish(USER, List.of(event(3, 0)));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(USER, emitter, FeedEvent.Position.parse("2.0"), 3L);
+
+        assertThat(emitter.ids()).containsExactly("2.1", "3.0");
+    }
+
+    @Test
+    void resyncsWhenHistoryNoLongerReachesBack() {
+        ChangeFeedHub hub = new ChangeFeedHub(2, 16, 10, Runnable::run);
+        LongStream.rangeClosed(1, 5).forEach(version -> hub.publish(USER, List.of(event(version, 0))));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(USER, emitter, FeedEvent.Position.parse("1.0"), 5L);
+
+        assertThat(emitter.ids()).containsExactly("5");
+        assertThat(emitter.written()).contains("event:resync");
+    }
+
+    @Test
+    void resyncsWhenAVersionNeverArrived() {
+        ChangeFeedHub hub = new ChangeFeedHub(16, 16, 10, Runnable::run);
+        hub.publish(USER, List.of(event(1, 0)));
+        hub.publish(USER, List.of(event(3, 0)));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(USER, emitter, FeedEvent.Position.parse("1"), 3L);
+
+        assertThat(emitter.ids()).containsExactly("3");
+    }
+
+    @Test
+    void keepsHistoryOrderedWhenEventsArriveOutOfOrder() {
+        ChangeFeedHub hub = new ChangeFeedHub(16, 16, 10, Runnable::run);
+        hub.publish(USER, List.of(event(1, 0)));
+        hub.publish(USER, List.of(event(3, 0)));
+        hub.publish(USER, List.of(event(2, 0)));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe(USER, emitter, FeedEvent.Position.parse("1"), 3L);
+
+        assertThat(emitter.ids()).containsExactly("2.0", "3.0");
+    }
+
+    @Test
+    void disconnectsSubscriberThatFallsTooFarBehind() {
+        List<Runnable> stalled = new ArrayList<>();
+        Executor neverRuns = stalled::add;
+        ChangeFeedHub hub = new ChangeFeedHub(16, 3, 10, neverRuns);
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.subscribe(USER, slow, null, null);
+
+        LongStream.rangeClosed(1, 4).forEach(version -> hub.publish(USER, List.of(event(version, 0))));
+
+        assertThat(slow.completed).isTrue();
+        assertThat(hub.slowDisconnectCount()).isEqualTo(1);
+        assertThat(hub.subscriberCount()).isZero();
+    }
+
+    private static FeedEvent event(long version, int index) {
+        return new FeedEvent(version, index, "created", "{\"id\":" + version + "}");
+    }
+
+    /**
+     * Records the text of every event instead of writing it to a response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<String> ids() {
+            return events.stream()
+                    .flatMap(String::lines)
+                    .filter(line -> line.startsWith("id:"))
+                    .map(line -> line.substring(3))
+                    .toList();
+        }
+
+        String written() {
+            return String.join("", events);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.javaproject.expenses.security;
+
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Signs in with a session and checks that only a matching password creates one, so a flood of
+ * failed attempts leaves no sessions behind. Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {
+        "expenses.auth.mode=session",
+        "expenses.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class SessionLoginTests {
+
+    private static final String PASSWORD = "session-password";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Session User")
+                .email("session-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void failedLoginCreatesNoSession() throws Exception {
+        MvcResult result = perform(login(user.getEmail(), "wrong-password"));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(result.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void unknownEmailCreatesNoSession() throws Exception {
+        MvcResult result = perform(login("missing-" + UUID.randomUUID() + "@example.com", PASSWORD));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(result.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void successfulLoginSignsTheSessionIn() throws Exception {
+        MvcResult result = perform(login(user.getEmail(), PASSWORD));
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+
+        MockHttpSession session = (MockHttpSession) result.getRequest().getSession(false);
+        assertThat(session).isNotNull();
+        assertThat(mvc.perform(get("/api/users/me").session(session)).andReturn().getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    private static MockHttpServletRequestBuilder login(String email, String password) {
+        return post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.javaproject.expenses.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Signs in with a bearer token and checks that changing the password or email ends the tokens
+ * issued before the change, while a token issued after it works. Needs the database from
+ * application.properties.
+ */
+@SpringBootTest(properties = {
+        "expenses.auth.mode=token",
+        "expenses.auth.token-secret=token-authentication-tests-secret-0123456789",
+        "expenses.auth.token-version-ttl=200ms",
+        "expenses.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class TokenAuthenticationTests {
+
+    private static final String PASSWORD = "token-password";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Token User")
+                .email("token-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void tokenIssuedBeforePasswordChangeIsRefused() throws Exception {
+        String token = login(user.getEmail(), PASSWORD);
+        assertThat(status(get("/api/users/me"), token)).isEqualTo(200);
+
+        assertThat(status(put("/api/users/me").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"password\":\"new-token-password\"}"), token)).isEqualTo(200);
+
+        assertThat(status(get("/api/users/me"), token)).isEqualTo(401);
+        String renewed = login(user.getEmail(), "new-token-password");
+        assertThat(status(get("/api/users/me"), renewed)).isEqualTo(200);
+    }
+
+    @Test
+    void tokenIssuedBeforeChangeOnAnotherNodeIsRefused() throws Exception {
+        String token = login(user.getEmail(), PASSWORD);
+        assertThat(status(get("/api/users/me"), token)).isEqualTo(200);
+
+        // Another node changed the email; this node has the old version cached until the ttl ends
+        jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE id = ?", user.getId());
+        Thread.sleep(300);
+
+        assertThat(status(get("/api/users/me"), token)).isEqualTo(401);
+    }
+
+    private String login(String email, String password) throws Exception {
+        MvcResult result = perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"));
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    private int status(MockHttpServletRequestBuilder request, String token) throws Exception {
+        return perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).getResponse().getStatus();
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+}
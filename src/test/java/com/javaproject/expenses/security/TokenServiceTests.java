@@ -0,0 +1,74 @@
+package com.javaproject.expenses.security;
+
+import com.javaproject.expenses.config.AuthProperties;
+import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that tokens round-trip and that forged, tampered or expired tokens are refused.
+ */
+class TokenServiceTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final AuthenticatedUser USER = new AuthenticatedUser(42L, "a:b@example.com", 3);
+
+    private final TokenService tokenService = serviceAt(NOW, SECRET);
+
+    @Test
+    void verifiesIssuedToken() {
+        TokenService.IssuedToken issued = tokenService.issue(USER);
+
+        assertThat(issued.expiresAt()).isEqualTo(NOW.plus(Duration.ofHours(1)));
+        assertThat(tokenService.verify(issued.token())).contains(USER);
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = tokenService.issue(USER).token();
+
+        assertThat(serviceAt(NOW.plus(Duration.ofMinutes(59)), SECRET).verify(token)).isPresent();
+        assertThat(serviceAt(NOW.plus(Duration.ofHours(1)), SECRET).verify(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        String token = serviceAt(NOW, "another-secret-another-secret-xx").issue(USER).token();
+
+        assertThat(tokenService.verify(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsTamperedOrMalformedToken() {
+        String token = tokenService.issue(USER).token();
+        String otherPayload = tokenService.issue(new AuthenticatedUser(1L, "x@example.com", 0)).token().split("\\.")[0];
+
+        assertThat(tokenService.verify(otherPayload + token.substring(token.indexOf('.')))).isEmpty();
+        assertThat(tokenService.verify(token.substring(0, token.length() - 2))).isEmpty();
+        assertThat(tokenService.verify("not-a-token")).isEmpty();
+        assertThat(tokenService.verify(".")).isEmpty();
+        assertThat(tokenService.verify("%%%.%%%")).isEmpty();
+    }
+
+    @Test
+    void requiresLongSecretInTokenMode() {
+        assertThatThrownBy(() -> new TokenService(properties(AuthProperties.Mode.TOKEN, null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new TokenService(properties(AuthProperties.Mode.TOKEN, "short")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static TokenService serviceAt(Instant now, String secret) {
+        return new TokenService(properties(AuthProperties.Mode.TOKEN, secret), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static AuthProperties properties(AuthProperties.Mode mode, String secret) {
+        return new AuthProperties(mode, secret, Duration.ofHours(1), Duration.ofSeconds(5), 100);
+    }
+}
@@ -0,0 +1,277 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.AccountDeletionJobRepository;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.NestedTestConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Deletes an account with enough transactions that loading them, or deleting them in one
+ * statement, would be slow: sign-ins must stop at once and the job must finish and leave nothing
+ * behind. Also checks that a failed attempt is retried, and that the job status, readable without
+ * signing in, does not say whose account it was. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AccountDeletionTests {
+
+    private static final int TRANSACTIONS = 200_000;
+    private static final String PASSWORD = "deletion-password";
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountDeletionJobRepository jobRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void createUserWithTransactions() {
+        user = userRepository.save(User.builder()
+                .name("Deleted User")
+                .email("deleted-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                SELECT ?, 8 + n % 19, 1 + n % 500, 'Row ' || n, TIMESTAMP '2024-01-01' + n * INTERVAL '5 minutes'
+                FROM generate_series(1, ?) AS n
+                """, user.getId(), TRANSACTIONS);
+        jdbcTemplate.update("""
+                INSERT INTO transaction_monthly_rollup (user_id, month, category_id, total_amount, transaction_count)
+                SELECT user_id, CAST(date_trunc('month', transaction_date) AS date), category_id, SUM(amount), COUNT(*)
+                FROM transactions WHERE user_id = ? GROUP BY 1, 2, 3
+                """, user.getId());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void deletesInBackgroundAndEndsEverySignInAtOnce() throws Exception {
+        MockHttpSession phone = signedInSession();
+        MockHttpSession laptop = signedInSession();
+        mvc.perform(get("/api/users/me").session(laptop)).andExpect(status().isOk());
+
+        MvcResult accepted = mvc.perform(delete("/api/users/me").session(phone))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String location = accepted.getResponse().getHeader("Location");
+        assertThat(location).startsWith("/api/account-deletions/");
+
+        // Both sessions end before the deletion finishes, and the password no longer signs in
+        assertThat(phone.isInvalid()).isTrue();
+        mvc.perform(get("/api/users/me").session(laptop)).andExpect(status().isUnauthorized());
+        assertThat(laptop.isInvalid()).isTrue();
+        assertThat(login(mvc).getResponse().getStatus()).isEqualTo(400);
+
+        assertDeleted(location);
+    }
+
+    @Test
+    void unknownJobIsNotFoundWithoutSignIn() throws Exception {
+        mvc.perform(get("/api/account-deletions/" + UUID.randomUUID())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void failedAttemptReturnsTheJobToPendingAfterABackoff() {
+        UUID job = UUID.randomUUID();
+        UUID node = UUID.randomUUID();
+        // A job this node holds but has not started, so the scheduler leaves it alone
+        jdbcTemplate.update("""
+                INSERT INTO account_deletion_jobs (id, user_id, status, claimed_by, claimed_until)
+                VALUES (?, ?, 'RUNNING', ?, now() + INTERVAL '1 hour')
+                """, job, user.getId(), node);
+        try {
+            Duration backoff = Duration.ofMinutes(10);
+            Duration max = Duration.ofMinutes(25);
+            assertThat(jobRepository.retryLater(job, "other node", UUID.randomUUID(), backoff, max)).isFalse();
+            assertThat(jobRepository.retryLater(job, "first", node, backoff, max)).isTrue();
+            assertThat(retryState(job)).containsExactly("PENDING", "first", "1", null, "10");
+
+            // The lease is claimed again once the backoff has passed; the next failure waits twice as long
+            jdbcTemplate.update("UPDATE account_deletion_jobs SET claimed_by = ? WHERE id = ?", node, job);
+            assertThat(jobRepository.retryLater(job, "second", node, backoff, max)).isTrue();
+            assertThat(retryState(job)).containsExactly("PENDING", "second", "2", null, "20");
+
+            jdbcTemplate.update("UPDATE account_deletion_jobs SET claimed_by = ? WHERE id = ?", node, job);
+            assertThat(jobRepository.retryLater(job, "third", node, backoff, max)).isTrue();
+            assertThat(retryState(job)).containsExactly("PENDING", "third", "3", null, "25");
+        } finally {
+            jdbcTemplate.update("DELETE FROM account_deletion_jobs WHERE id = ?", job);
+        }
+    }
+
+    /**
+     * Signs in with bearer tokens, in a context of its own. A deletion accepted here ends the
+     * token at once; one accepted by another node, seen only as its job row, within the ttl.
+     */
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @SpringBootTest(properties = {
+            "expenses.auth.mode=token",
+            "expenses.auth.token-secret=account-deletion-tests-secret-0123456789",
+            "expenses.auth.token-version-ttl=200ms",
+            "expenses.rate-limit.enabled=false"
+    })
+    @AutoConfigureMockMvc
+    class TokenMode {
+
+        @Autowired
+        private MockMvc tokenMvc;
+
+        @Test
+        void deletionEndsTokensAtOnce() throws Exception {
+            String token = token();
+            String other = token();
+            assertThat(perform(get("/api/users/me"), token).getResponse().getStatus()).isEqualTo(200);
+
+            MvcResult accepted = perform(delete("/api/users/me"), token);
+            assertThat(accepted.getResponse().getStatus()).isEqualTo(202);
+
+            assertThat(perform(get("/api/users/me"), token).getResponse().getStatus()).isEqualTo(401);
+            assertThat(perform(get("/api/users/me"), other).getResponse().getStatus()).isEqualTo(401);
+            assertThat(login(tokenMvc).getResponse().getStatus()).isEqualTo(400);
+
+            assertDeleted(accepted.getResponse().getHeader("Location"));
+        }
+
+        @Test
+        void deletionOnAnotherNodeEndsTokensWithinTheTtl() throws Exception {
+            String token = token();
+            assertThat(perform(get("/api/users/me"), token).getResponse().getStatus()).isEqualTo(200);
+
+            // Another node accepted the deletion and holds its lease; this node only sees the job row
+            jdbcTemplate.update("""
+                    INSERT INTO account_deletion_jobs (id, user_id, status, claimed_by, claimed_until)
+                    VALUES (?, ?, 'PENDING', ?, now() + INTERVAL '1 hour')
+                    """, UUID.randomUUID(), user.getId(), UUID.randomUUID());
+            try {
+                assertThat(login(tokenMvc).getResponse().getStatus()).isEqualTo(400);
+                Thread.sleep(300);
+                assertThat(perform(get("/api/users/me"), token).getResponse().getStatus()).isEqualTo(401);
+            } finally {
+                jdbcTemplate.update("DELETE FROM account_deletion_jobs WHERE user_id = ?", user.getId());
+            }
+        }
+
+        private String token() throws Exception {
+            MvcResult login = login(tokenMvc);
+            assertThat(login.getResponse().getStatus()).isEqualTo(200);
+            return objectMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+        }
+
+        private MvcResult perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+            return tokenMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).andReturn();
+        }
+    }
+
+    private MvcResult login(MockMvc mvc) throws Exception {
+        MvcResult login = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andReturn();
+        if (login.getRequest().isAsyncStarted()) {
+            login = mvc.perform(asyncDispatch(login)).andReturn();
+        }
+        return login;
+    }
+
+    private void assertDeleted(String location) throws Exception {
+        JsonNode job = awaitFinished(location);
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.fieldNames()).toIterable()
+                .containsExactlyInAnyOrder("id", "status", "deletedTransactions", "createdAt", "finishedAt");
+        assertThat(job.get("deletedTransactions").asLong()).isEqualTo(TRANSACTIONS);
+        assertThat(count("SELECT COUNT(*) FROM transactions WHERE user_id = ?")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM transaction_monthly_rollup WHERE user_id = ?")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?")).isZero();
+    }
+
+    private JsonNode awaitFinished(String location) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            String body = mvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            String status = job.get("status").asText();
+            if (status.equals("COMPLETED")) {
+                return job;
+            }
+            assertThat(System.nanoTime()).as("deletion finished within %s", TIMEOUT).isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Status, error, attempts, holder and the minutes until the job may be claimed again.
+     */
+    private List<String> retryState(UUID job) {
+        return jdbcTemplate.queryForObject("""
+                SELECT status, error, attempts, claimed_by,
+                       round(EXTRACT(EPOCH FROM claimed_until - now()) / 60)
+                FROM account_deletion_jobs WHERE id = ?
+                """, (rs, rowNum) -> Arrays.asList(
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)),
+                job);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, user.getId());
+    }
+
+    private MockHttpSession signedInSession() {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+        return session;
+    }
+}
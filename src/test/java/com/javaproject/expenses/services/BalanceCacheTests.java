@@ -0,0 +1,173 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.events.TransactionChange;
+import com.javaproject.expenses.events.TransactionSnapshot;
+import com.javaproject.expenses.services.BalanceCache.Balance;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays random write sequences against {@link BalanceCache} and compares every read
+ * with a fresh sum over the committed rows.
+ */
+class BalanceCacheTests {
+
+    private static final int USERS = 6;
+    private static final long[] CATEGORY_IDS = {1, 2, 8, 9};
+    private static final String[] CATEGORY_TYPES = {"INCOME", "INCOME", "EXPENSE", "EXPENSE"};
+
+    private final Map<Long, Map<Long, TransactionSnapshot>> committed = new HashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private long nextId = 1;
+
+    @Test
+    void matchesFreshSumAcrossRandomWriteSequences() {
+        for (long seed = 1; seed <= 20; seed++) {
+            committed.clear();
+            replay(new Random(seed), new BalanceCache(3, Duration.ofSeconds(30), clock::get));
+        }
+    }
+
+    @Test
+    void doesNotCacheBalanceLoadedWhileWriteCommits() {
+        BalanceCache cache = new BalanceCache(10, Duration.ofMinutes(1), clock::get);
+        Long userId = 1L;
+        PendingWrite write = begin(cache, userId, new Random(7));
+
+        // The write commits after the loader has read the committed rows
+        Balance stale = cache.get(userId, id -> {
+            Balance sum = freshSum(id);
+            write.finish(cache, true);
+            return sum;
+        });
+
+        assertThat(stale.count()).isZero();
+        assertSame(cache.get(userId, this::freshSum), freshSum(userId));
+    }
+
+    private void replay(Random random, BalanceCache cache) {
+        List<PendingWrite> pending = new ArrayList<>();
+        for (int step = 0; step < 2_000; step++) {
+            Long userId = 1L + random.nextInt(USERS);
+            int action = random.nextInt(10);
+
+            if (action < 4) {
+                pending.add(begin(cache, userId, random));
+            } else if (action < 7 && !pending.isEmpty()) {
+                // Commit or roll back an in-flight write, possibly while a load is running
+                PendingWrite write = pending.remove(random.nextInt(pending.size()));
+                boolean commit = random.nextInt(5) > 0;
+                if (random.nextBoolean()) {
+                    cache.get(write.userId, id -> {
+                        Balance sum = freshSum(id);
+                        write.finish(cache, commit);
+                        return sum;
+                    });
+                } else {
+                    write.finish(cache, commit);
+                }
+            } else if (action < 8) {
+                clock.addAndGet(Duration.ofSeconds(random.nextInt(20)).toNanos());
+            }
+
+            for (long id = 1; id <= USERS; id++) {
+                assertSame(cache.get(id, this::freshSum), freshSum(id));
+            }
+        }
+        pending.forEach(write -> write.finish(cache, true));
+        for (long id = 1; id <= USERS; id++) {
+            assertSame(cache.get(id, this::freshSum), freshSum(id));
+        }
+        assertThat(cache.hitCount()).isPositive();
+        assertThat(cache.missCount()).isPositive();
+        assertThat(cache.evictionCount()).isPositive();
+    }
+
+    /**
+     * Starts a create, update or delete for the user; its rows are not visible until it commits.
+     */
+    private PendingWrite begin(BalanceCache cache, Long userId, Random random) {
+        Map<Long, TransactionSnapshot> rows = committed.computeIfAbsent(userId, id -> new HashMap<>());
+        List<Long> ids = new ArrayList<>(rows.keySet());
+        TransactionChange change;
+        if (ids.isEmpty() || random.nextInt(3) == 0) {
+            change = TransactionChange.created(randomRow(nextId++, random));
+        } else {
+            TransactionSnapshot existing = rows.get(ids.get(random.nextInt(ids.size())));
+            change = random.nextBoolean()
+                    ? TransactionChange.updated(existing, randomRow(existing.id(), random))
+                    : TransactionChange.deleted(existing);
+        }
+        cache.beginWrite(userId);
+        return new PendingWrite(userId, change);
+    }
+
+    private TransactionSnapshot randomRow(long id, Random random) {
+        int category = random.nextInt(CATEGORY_IDS.length);
+        BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+        return new TransactionSnapshot(id, CATEGORY_IDS[category], CATEGORY_TYPES[category], amount,
+                LocalDateTime.of(2025, 1 + random.nextInt(12), 1, 12, 0), "Row " + id);
+    }
+
+    private Balance freshSum(Long userId) {
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        Map<Long, TransactionSnapshot> rows = committed.getOrDefault(userId, Map.of());
+        for (TransactionSnapshot row : rows.values()) {
+            if ("INCOME".equals(row.categoryType())) {
+                income = income.add(row.amount());
+            } else {
+                expense = expense.add(row.amount());
+            }
+        }
+        return new Balance(income, expense, rows.size());
+    }
+
+    private static void assertSame(Balance cached, Balance expected) {
+        assertThat(cached.income()).isEqualByComparingTo(expected.income());
+        assertThat(cached.expense()).isEqualByComparingTo(expected.expense());
+        assertThat(cached.count()).isEqualTo(expected.count());
+    }
+
+    private final class PendingWrite {
+        private final Long userId;
+        private final TransactionChange change;
+
+        private PendingWrite(Long userId, TransactionChange change) {
+            this.userId = userId;
+            this.change = change;
+        }
+
+        void finish(BalanceCache cache, boolean commit) {
+            // A concurrent write may already have removed the row this one was based on
+            Map<Long, TransactionSnapshot> rows = committed.computeIfAbsent(userId, id -> new HashMap<>());
+            TransactionChange applied = change;
+            if (change.before() != null) {
+                TransactionSnapshot current = rows.get(change.before().id());
+                if (current == null) {
+                    cache.completeWrite(userId, Balance.ZERO, false);
+                    return;
+                }
+                applied = new TransactionChange(current, change.after());
+            }
+            if (commit) {
+                if (applied.after() != null) {
+                    rows.put(applied.after().id(), applied.after());
+                } else {
+                    rows.remove(applied.before().id());
+                }
+            }
+            cache.completeWrite(userId, BalanceService.deltaOf(List.of(applied)), commit);
+        }
+    }
+}
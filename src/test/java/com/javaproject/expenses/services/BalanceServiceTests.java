@@ -0,0 +1,159 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.BalanceDto;
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs concurrent creates, updates, deletes and rolled-back writes for one user while other
+ * threads read the balance, then compares the balance {@link BalanceService} serves, loaded from
+ * the rollup table and then from its cache, with a fresh sum over the transactions table.
+ * Needs the database from application.properties.
+ */
+@SpringBootTest
+class BalanceServiceTests {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int WRITES_PER_WRITER = 60;
+    private static final long[] CATEGORY_IDS = {1, 2, 8, 9};
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Balance User")
+                .email("balance-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("balance-password"))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void cachedBalanceMatchesFreshSumAfterConcurrentWrites() throws Exception {
+        Long userId = user.getId();
+        balanceService.getBalance(userId);
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                Random random = new Random(w);
+                tasks.add(pool.submit(() -> write(userId, random)));
+            }
+            for (int r = 0; r < READERS; r++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        balanceService.getBalance(userId);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertMatchesFreshSum(balanceService.getBalance(userId));
+        long hits = balanceService.getCache().hitCount();
+        assertMatchesFreshSum(balanceService.getBalance(userId));
+        assertThat(balanceService.getCache().hitCount()).isGreaterThan(hits);
+    }
+
+    private void write(Long userId, Random random) {
+        TransactionTemplate rolledBack = new TransactionTemplate(transactionManager);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            int action = random.nextInt(10);
+            if (ids.isEmpty() || action < 4) {
+                ids.add(transactionService.create(userId, randomRequest(random)).getId());
+            } else if (action < 7) {
+                long categoryId = CATEGORY_IDS[random.nextInt(CATEGORY_IDS.length)];
+                transactionService.update(ids.get(random.nextInt(ids.size())), userId,
+                        new TransactionPatch(categoryId, amount(random), null, null));
+            } else if (action < 9) {
+                transactionService.delete(ids.remove(random.nextInt(ids.size())), userId);
+            } else {
+                rolledBack.executeWithoutResult(status -> {
+                    transactionService.create(userId, randomRequest(random));
+                    status.setRollbackOnly();
+                });
+            }
+        }
+    }
+
+    private static TransactionRequest randomRequest(Random random) {
+        return new TransactionRequest(CATEGORY_IDS[random.nextInt(CATEGORY_IDS.length)], amount(random),
+                "Balance row", LocalDateTime.of(2025, 1 + random.nextInt(12), 15, 12, 0));
+    }
+
+    private static BigDecimal amount(Random random) {
+        return BigDecimal.valueOf(1 + random.nextInt(100_000), 2);
+    }
+
+    private void assertMatchesFreshSum(BalanceDto balance) {
+        BalanceDto fresh = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(t.amount) FILTER (WHERE c.type = 'INCOME'), 0),
+                       COALESCE(SUM(t.amount) FILTER (WHERE c.type = 'EXPENSE'), 0),
+                       COUNT(*)
+                FROM transactions t
+                JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                """,
+                (rs, rowNum) -> new BalanceDto(rs.getBigDecimal(1), rs.getBigDecimal(2),
+                        rs.getBigDecimal(1).subtract(rs.getBigDecimal(2)), rs.getLong(3)),
+                user.getId());
+
+        assertThat(balance.getIncome()).isEqualByComparingTo(fresh.getIncome());
+        assertThat(balance.getExpense()).isEqualByComparingTo(fresh.getExpense());
+        assertThat(balance.getNet()).isEqualByComparingTo(fresh.getNet());
+        assertThat(balance.getCount()).isEqualTo(fresh.getCount());
+        assertThat(fresh.getCount()).isPositive();
+    }
+}
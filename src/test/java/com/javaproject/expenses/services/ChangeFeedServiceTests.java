@@ -0,0 +1,108 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.TransactionRollupRepository;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers change notifications as if another node had sent them and checks that this node's
+ * cached data version, and so its ETags, and its cached balance follow at once rather than when
+ * the entries expire. Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {"expenses.data-version.ttl=1h", "expenses.balance-cache.ttl=1h"})
+class ChangeFeedServiceTests {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Feed User")
+                .email("feed-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("feed-password"))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void notificationFromAnotherNodeAdvancesTheCachedVersion() throws Exception {
+        long cached = dataVersionService.version(user.getId());
+        String etag = dataVersionService.etag(user.getId());
+
+        // Another node wrote, bumped users.data_version and announced the new version
+        jdbcTemplate.update("UPDATE users SET data_version = data_version + 1 WHERE id = ?", user.getId());
+        changeFeedService.onNotification(objectMapper.writeValueAsString(
+                new ChangeFeedService.Notification("other-node", user.getId(), cached + 1, null)));
+
+        assertThat(dataVersionService.version(user.getId())).isEqualTo(cached + 1);
+        assertThat(dataVersionService.etag(user.getId())).isNotEqualTo(etag);
+    }
+
+    @Test
+    void lateNotificationDoesNotMoveTheVersionBack() throws Exception {
+        long cached = dataVersionService.version(user.getId());
+        dataVersionService.getCache().advance(user.getId(), cached + 3);
+
+        changeFeedService.onNotification(objectMapper.writeValueAsString(
+                new ChangeFeedService.Notification("other-node", user.getId(), cached + 2, null)));
+
+        assertThat(dataVersionService.version(user.getId())).isEqualTo(cached + 3);
+    }
+
+    @Test
+    void notificationFromAnotherNodeDropsTheCachedBalance() throws Exception {
+        long cached = dataVersionService.version(user.getId());
+        assertThat(balanceService.getBalance(user.getId()).getCount()).isZero();
+
+        // Another node inserted a transaction, updated the rollup and announced the new version
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                VALUES (?, 8, 25, 'Written on another node', now())
+                """, user.getId());
+        rollupRepository.rebuild(user.getId());
+        jdbcTemplate.update("UPDATE users SET data_version = data_version + 1 WHERE id = ?", user.getId());
+        changeFeedService.onNotification(objectMapper.writeValueAsString(
+                new ChangeFeedService.Notification("other-node", user.getId(), cached + 1, null)));
+
+        assertThat(balanceService.getBalance(user.getId()).getCount()).isEqualTo(1);
+    }
+}
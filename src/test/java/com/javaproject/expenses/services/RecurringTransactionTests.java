@@ -0,0 +1,161 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.RecurringTransactionDto;
+import com.javaproject.expenses.dtos.RecurringTransactionPatch;
+import com.javaproject.expenses.dtos.RecurringTransactionRequest;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.recurring.RecurrenceFrequency;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the recurring transaction scheduler from several threads at once, as several nodes would,
+ * over rules with missed occurrences, and checks that rules out of bounds are refused or ended.
+ * Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {"expenses.recurring.claim-size=2", "expenses.recurring.chunk-size=7",
+        "expenses.recurring.max-backfill=100"})
+class RecurringTransactionTests {
+
+    private static final int RULES = 5;
+    private static final int DAYS_MISSED = 30;
+    private static final int SCHEDULERS = 4;
+
+    @Autowired
+    private RecurringTransactionService recurringTransactionService;
+
+    @Autowired
+    private RecurringTransactionScheduler scheduler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .name("Recurring User")
+                .email("recurring-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("recurring-password"))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void concurrentRunsBackfillEveryOccurrenceOnce() throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusDays(DAYS_MISSED).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < RULES; i++) {
+            recurringTransactionService.create(user.getId(), new RecurringTransactionRequest(
+                    8L, new BigDecimal("9.99"), "Subscription " + i, RecurrenceFrequency.DAILY, 1, start, null));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(SCHEDULERS);
+        try {
+            List<Future<Long>> runs = new ArrayList<>();
+            for (int i = 0; i < SCHEDULERS; i++) {
+                runs.add(pool.submit(scheduler::run));
+            }
+            for (Future<Long> run : runs) {
+                run.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long perRule = DAYS_MISSED + 1;
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?",
+                Long.class, user.getId())).isEqualTo(RULES * perRule);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT (description, transaction_date))"
+                + " FROM transactions WHERE user_id = ?", Long.class, user.getId())).isEqualTo(RULES * perRule);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(transaction_count) FROM transaction_monthly_rollup"
+                + " WHERE user_id = ?", Long.class, user.getId())).isEqualTo(RULES * perRule);
+
+        for (RecurringTransactionDto rule : recurringTransactionService.findAll(user.getId())) {
+            assertThat(rule.getOccurrences()).isEqualTo(perRule);
+            assertThat(rule.getNextRun()).isAfter(LocalDateTime.now().minusSeconds(1));
+        }
+    }
+
+    @Test
+    void refusesRulesOutOfBounds() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThatThrownBy(() -> create(RecurrenceFrequency.DAILY, now.minusDays(100), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> create(RecurrenceFrequency.YEARLY, LocalDateTime.of(1899, 12, 31, 0, 0), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> create(RecurrenceFrequency.MONTHLY, now, LocalDateTime.of(10000, 1, 1, 0, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // A long way back is fine while the occurrences stop in time
+        create(RecurrenceFrequency.DAILY, now.minusYears(5), now.minusYears(5).plusDays(99));
+        RecurringTransactionDto rule = create(RecurrenceFrequency.DAILY, now.minusDays(99), null);
+        assertThatThrownBy(() -> recurringTransactionService.update(rule.getId(), user.getId(),
+                new RecurringTransactionPatch(null, null, null, LocalDateTime.of(20000, 1, 1, 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(recurringTransactionService.find(rule.getId(), user.getId()).orElseThrow().getEndDate()).isNull();
+    }
+
+    @Test
+    void endsARuleWhoseNextOccurrenceCannotBeComputedAndRunsTheOthers() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        // Stored before rules were bounded: its second occurrence is past the last representable year
+        Long broken = jdbcTemplate.queryForObject("""
+                INSERT INTO recurring_transactions (user_id, category_id, amount, description, frequency, every,
+                                                    start_date, next_run)
+                VALUES (?, 8, 1.00, 'Broken', 'YEARLY', 2000000000, ?, ?) RETURNING id
+                """, Long.class, user.getId(), start, start);
+        create(RecurrenceFrequency.DAILY, start, null);
+
+        scheduler.run();
+
+        RecurringTransactionDto ended = recurringTransactionService.find(broken, user.getId()).orElseThrow();
+        assertThat(ended.getOccurrences()).isEqualTo(1);
+        assertThat(ended.getNextRun()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?",
+                Long.class, user.getId())).isEqualTo(3);
+    }
+
+    @Test
+    void monthlyRulesKeepTheirDayOfMonth() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+        assertThat(RecurrenceFrequency.MONTHLY.occurrence(start, 1, 1)).isEqualTo(LocalDateTime.of(2025, 2, 28, 9, 0));
+        assertThat(RecurrenceFrequency.MONTHLY.occurrence(start, 1, 2)).isEqualTo(LocalDateTime.of(2025, 3, 31, 9, 0));
+        assertThat(RecurrenceFrequency.MONTHLY.occurrenceUntil(start, 1, 2, LocalDateTime.of(2025, 3, 30, 0, 0)))
+                .isNull();
+    }
+
+    private RecurringTransactionDto create(RecurrenceFrequency frequency, LocalDateTime start, LocalDateTime end) {
+        return recurringTransactionService.create(user.getId(), new RecurringTransactionRequest(
+                8L, new BigDecimal("4.99"), "Bounded", frequency, 1, start, end));
+    }
+}
@@ -0,0 +1,203 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.dtos.BalanceDto;
+import com.javaproject.expenses.dtos.BatchResultDto;
+import com.javaproject.expenses.dtos.TransactionOperation;
+import com.javaproject.expenses.dtos.TransactionPatch;
+import com.javaproject.expenses.dtos.TransactionRequest;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Applies batches of creates, updates and deletes and checks that a failing operation leaves
+ * nothing behind, and that a successful batch leaves the rollup and the served balance equal to
+ * fresh sums over the transactions table. Needs the database from application.properties.
+ */
+@SpringBootTest
+class TransactionBatchServiceTests {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2025, 1, 10, 12, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2025, 3, 20, 18, 30);
+
+    @Autowired
+    private TransactionBatchService batchService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User otherUser;
+    private List<Long> ids;
+
+    @BeforeEach
+    void createUsersWithTransactions() {
+        user = createUser();
+        otherUser = createUser();
+        ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(transactionService.create(user.getId(), request(i % 2 == 0 ? 8 : 1, "10.00", JANUARY)).getId());
+        }
+        transactionService.create(otherUser.getId(), request(8, "99.00", JANUARY));
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", user.getId(), otherUser.getId());
+    }
+
+    @Test
+    void failingOperationRollsBackEarlierOnesAndReportsItsIndex() {
+        Long foreignId = jdbcTemplate.queryForObject(
+                "SELECT id FROM transactions WHERE user_id = ?", Long.class, otherUser.getId());
+        BalanceDto balanceBefore = balanceService.getBalance(user.getId());
+        List<Map<String, Object>> rowsBefore = transactions();
+        List<Map<String, Object>> rollupBefore = rollup();
+
+        List<TransactionOperation> notOwned = List.of(
+                new TransactionOperation.Create(request(8, "5.00", MARCH)),
+                new TransactionOperation.Update(ids.get(0), patch(9, "70.00", MARCH)),
+                new TransactionOperation.Delete(ids.get(1)),
+                new TransactionOperation.Update(foreignId, patch(null, "1.00", null)),
+                new TransactionOperation.Delete(ids.get(2)));
+        assertThatThrownBy(() -> batchService.apply(user.getId(), notOwned))
+                .isInstanceOfSatisfying(BatchOperationException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(3);
+                    assertThat(e.isNotFound()).isTrue();
+                });
+
+        List<TransactionOperation> deletedTwice = List.of(
+                new TransactionOperation.Create(request(1, "5.00", MARCH)),
+                new TransactionOperation.Delete(ids.get(3)),
+                new TransactionOperation.Delete(ids.get(3)));
+        assertThatThrownBy(() -> batchService.apply(user.getId(), deletedTwice))
+                .isInstanceOfSatisfying(BatchOperationException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(2);
+                    assertThat(e.isNotFound()).isTrue();
+                });
+
+        List<TransactionOperation> badCategory = List.of(
+                new TransactionOperation.Delete(ids.get(4)),
+                new TransactionOperation.Create(request(8, "5.00", MARCH)),
+                new TransactionOperation.Update(ids.get(5), patch(999_999, null, null)));
+        assertThatThrownBy(() -> batchService.apply(user.getId(), badCategory))
+                .isInstanceOfSatisfying(BatchOperationException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(2);
+                    assertThat(e.isNotFound()).isFalse();
+                });
+
+        assertThat(transactions()).isEqualTo(rowsBefore);
+        assertThat(rollup()).isEqualTo(rollupBefore);
+        assertBalance(balanceService.getBalance(user.getId()), balanceBefore);
+        assertBalance(balanceService.getBalance(user.getId()), freshBalance());
+    }
+
+    @Test
+    void mixedBatchKeepsRollupAndBalanceConsistent() {
+        balanceService.getBalance(user.getId());
+
+        BatchResultDto result = batchService.apply(user.getId(), List.of(
+                new TransactionOperation.Create(request(8, "12.34", MARCH)),
+                new TransactionOperation.Update(ids.get(0), patch(1, "250.00", MARCH)),
+                new TransactionOperation.Delete(ids.get(1)),
+                new TransactionOperation.Create(request(1, "1000.00", JANUARY)),
+                new TransactionOperation.Update(ids.get(2), patch(null, "3.50", null)),
+                new TransactionOperation.Update(ids.get(2), patch(9, null, MARCH)),
+                new TransactionOperation.Update(ids.get(3), patch(8, null, null)),
+                new TransactionOperation.Delete(ids.get(3)),
+                new TransactionOperation.Update(ids.get(4), patch(null, "10.00", null))));
+
+        assertThat(result.getResults()).hasSize(9);
+        assertThat(result.getResults().get(0).getId()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?",
+                Long.class, user.getId())).isEqualTo(6);
+        assertThat(rollup()).isEqualTo(jdbcTemplate.queryForList("""
+                SELECT CAST(date_trunc('month', transaction_date) AS date) AS month, category_id,
+                       SUM(amount) AS total_amount, COUNT(*) AS transaction_count
+                FROM transactions
+                WHERE user_id = ?
+                GROUP BY 1, 2
+                ORDER BY 1, 2
+                """, user.getId()));
+        assertBalance(balanceService.getBalance(user.getId()), freshBalance());
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .name("Batch User")
+                .email("batch-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("batch-password"))
+                .build());
+    }
+
+    private static TransactionRequest request(long categoryId, String amount, LocalDateTime date) {
+        return new TransactionRequest(categoryId, new BigDecimal(amount), "Batch row", date);
+    }
+
+    private static TransactionPatch patch(Integer categoryId, String amount, LocalDateTime date) {
+        return new TransactionPatch(categoryId == null ? null : categoryId.longValue(),
+                amount == null ? null : new BigDecimal(amount), null, date);
+    }
+
+    private List<Map<String, Object>> transactions() {
+        return jdbcTemplate.queryForList("""
+                SELECT id, category_id, amount, description, transaction_date
+                FROM transactions WHERE user_id = ? ORDER BY id
+                """, user.getId());
+    }
+
+    private List<Map<String, Object>> rollup() {
+        return jdbcTemplate.queryForList("""
+                SELECT month, category_id, total_amount, transaction_count
+                FROM transaction_monthly_rollup WHERE user_id = ? ORDER BY month, category_id
+                """, user.getId());
+    }
+
+    private BalanceDto freshBalance() {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(t.amount) FILTER (WHERE c.type = 'INCOME'), 0),
+                       COALESCE(SUM(t.amount) FILTER (WHERE c.type = 'EXPENSE'), 0),
+                       COUNT(*)
+                FROM transactions t
+                JOIN categories c ON c.id = t.category_id
+                WHERE t.user_id = ?
+                """,
+                (rs, rowNum) -> new BalanceDto(rs.getBigDecimal(1), rs.getBigDecimal(2),
+                        rs.getBigDecimal(1).subtract(rs.getBigDecimal(2)), rs.getLong(3)),
+                user.getId());
+    }
+
+    private static void assertBalance(BalanceDto actual, BalanceDto expected) {
+        assertThat(actual.getIncome()).isEqualByComparingTo(expected.getIncome());
+        assertThat(actual.getExpense()).isEqualByComparingTo(expected.getExpense());
+        assertThat(actual.getNet()).isEqualByComparingTo(expected.getNet());
+        assertThat(actual.getCount()).isEqualTo(expected.getCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts transactions dated in a month that has no partition and checks that they land in the
+ * default partition, and that the maintainer gives the month a partition of its own, with the
+ * per-partition indexes, and moves the rows there. Needs the database from application.properties.
+ */
+@SpringBootTest
+class TransactionPartitionMaintainerTests {
+
+    @Autowired
+    private TransactionPartitionMaintainer maintainer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private LocalDate month;
+    private String partition;
+
+    @BeforeEach
+    void createUserAndPickMonth() {
+        user = userRepository.save(User.builder()
+                .name("Partitioned User")
+                .email("partitioned-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("partitioned-password"))
+                .build());
+        // A month far enough ahead that neither the migration nor other tests have partitioned it
+        do {
+            month = LocalDate.of(ThreadLocalRandom.current().nextInt(2500, 3000),
+                    ThreadLocalRandom.current().nextInt(1, 13), 1);
+            partition = "transactions_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+        } while (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+    }
+
+    @AfterEach
+    void deleteUserAndPartition() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    @Test
+    void rowsOfAnUnpartitionedMonthAreMovedOutOfTheDefaultPartition() {
+        Long first = insert(month.atTime(9, 30).toString());
+        Long last = insert(month.plusMonths(1).atStartOfDay().minusNanos(1000).toString());
+        assertThat(partitionOf(first)).isEqualTo("transactions_default");
+        assertThat(partitionOf(last)).isEqualTo("transactions_default");
+
+        maintainer.maintain();
+
+        assertThat(partitionOf(first)).isEqualTo(partition);
+        assertThat(partitionOf(last)).isEqualTo(partition);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions_default WHERE user_id = ?", Long.class, user.getId())).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT indexdef FROM pg_indexes WHERE tablename = ?",
+                String.class, partition)).anyMatch(definition -> definition.endsWith("(user_id, id)"));
+
+        // Running again finds nothing to do
+        maintainer.maintain();
+        assertThat(partitionOf(first)).isEqualTo(partition);
+    }
+
+    private Long insert(String date) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                VALUES (?, 8, 12.50, 'Far off', CAST(? AS timestamp))
+                RETURNING id
+                """, Long.class, user.getId(), date);
+    }
+
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT CAST(tableoid::regclass AS text) FROM transactions WHERE id = ?",
+                String.class, id);
+    }
+}
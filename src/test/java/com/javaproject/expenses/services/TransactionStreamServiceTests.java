@@ -0,0 +1,110 @@
+package com.javaproject.expenses.services;
+
+import com.javaproject.expenses.exports.ExportFormat;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a large number of rows from the database and checks that the heap does not grow with
+ * the row count, which it would if the driver read the whole result before the first row.
+ * Needs the database from application.properties.
+ */
+@SpringBootTest
+class TransactionStreamServiceTests {
+
+    private static final int ROWS = 400_000;
+    private static final long HEAP_BUDGET = 32L * 1024 * 1024;
+    private static final int SAMPLE_EVERY = 50_000;
+
+    @Autowired
+    private TransactionStreamService streamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUserWithTransactions() {
+        user = userRepository.save(User.builder()
+                .name("Export User")
+                .email("export-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("export-password"))
+                .build());
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                SELECT ?, 8 + g % 10, 10 + g % 90, 'Exported row number ' || g, now() - g * interval '1 minute'
+                FROM generate_series(1, ?) g
+                """, user.getId(), ROWS);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void keepsHeapBoundedWhileStreamingFromTheCursor() throws IOException {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(usedHeapAfterGc());
+
+        streamService.export(user.getId(), ExportFormat.CSV, null, null).writeTo(out);
+
+        assertThat(out.lines).isEqualTo(ROWS + 1);
+        assertThat(out.samples).isEqualTo(ROWS / SAMPLE_EVERY);
+        assertThat(out.peak).isLessThan(HEAP_BUDGET);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards the output while counting lines, and measures the heap every {@link #SAMPLE_EVERY}
+     * lines, while the cursor is open.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+        private final long baseline;
+        private long lines;
+        private long samples;
+        private long peak;
+
+        HeapSamplingOutputStream(long baseline) {
+            this.baseline = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                samples++;
+                peak = Math.max(peak, usedHeapAfterGc() - baseline);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.javaproject.expenses.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.TransactionSyncRepository;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Syncs a user's transactions through {@code GET /api/transactions/changes} across creates,
+ * updates and deletes, in one page and in several. Needs the database from application.properties.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionSyncTests {
+
+    private static final int TRANSACTIONS = 20;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionSyncRepository syncRepository;
+
+    private User user;
+    private List<Long> transactionIds;
+
+    @BeforeEach
+    void createUserWithTransactions() {
+        user = userRepository.save(User.builder()
+                .name("Sync User")
+                .email("sync-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode("sync-password"))
+                .build());
+        jdbcTemplate.update("""
+                INSERT INTO transactions (user_id, category_id, amount, description, transaction_date)
+                SELECT ?, 8, n, 'Row ' || n, TIMESTAMP '2025-01-01' + n * INTERVAL '1 day'
+                FROM generate_series(1, ?) AS n
+                """, user.getId(), TRANSACTIONS);
+        transactionIds = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE user_id = ? ORDER BY id", Long.class, user.getId());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void returnsOnlyWhatChangedSinceTheToken() throws Exception {
+        String since = call(get("/api/transactions/changes")).get("next").asText();
+        JsonNode nothing = call(get("/api/transactions/changes?since=" + since));
+        assertThat(nothing.get("changed")).isEmpty();
+        assertThat(nothing.get("deleted")).isEmpty();
+
+        Long created = call(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryId\":8,\"amount\":4.20,\"description\":\"Coffee\"}")).get("id").asLong();
+        call(patch("/api/transactions/" + transactionIds.get(0)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":99.00}"));
+        call(delete("/api/transactions/" + transactionIds.get(1)));
+
+        JsonNode changes = call(get("/api/transactions/changes?since=" + since));
+        List<Long> changed = new ArrayList<>();
+        changes.get("changed").forEach(row -> changed.add(row.get("id").asLong()));
+        assertThat(changed).containsExactlyInAnyOrder(transactionIds.get(0), created);
+        assertThat(changes.get("deleted").get(0).asLong()).isEqualTo(transactionIds.get(1));
+        assertThat(changes.get("hasMore").asBoolean()).isFalse();
+
+        JsonNode after = call(get("/api/transactions/changes?since=" + changes.get("next").asText()));
+        assertThat(after.get("changed")).isEmpty();
+        assertThat(after.get("deleted")).isEmpty();
+    }
+
+    @Test
+    void pagesThroughManyChanges() throws Exception {
+        String since = call(get("/api/transactions/changes")).get("next").asText();
+        jdbcTemplate.update("UPDATE transactions SET amount = amount + 1 WHERE user_id = ?", user.getId());
+        call(delete("/api/transactions/" + transactionIds.get(2)));
+
+        Set<Long> changed = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        JsonNode page;
+        do {
+            page = call(get("/api/transactions/changes?limit=3&since=" + since));
+            page.get("changed").forEach(row -> assertThat(changed.add(row.get("id").asLong())).isTrue());
+            page.get("deleted").forEach(id -> deleted.add(id.asLong()));
+            since = page.get("next").asText();
+        } while (page.get("hasMore").asBoolean());
+
+        assertThat(changed).hasSize(TRANSACTIONS - 1).doesNotContain(transactionIds.get(2));
+        assertThat(deleted).containsExactly(transactionIds.get(2));
+    }
+
+    @Test
+    void pagesInTransactionIdOrderAcrossDigitLengths() {
+        // Stamps on either side of 10^10, between two made-up snapshots far above any real transaction id;
+        // as text, 10000000000 sorts before 9999999998
+        List<Long> xids = List.of(9_999_999_998L, 9_999_999_999L, 10_000_000_000L, 10_000_000_001L);
+        for (long xid : xids) {
+            jdbcTemplate.update("""
+                    INSERT INTO transactions (user_id, category_id, amount, description, transaction_date, change_xid)
+                    VALUES (?, 8, 1, 'Stamped', TIMESTAMP '2025-02-01', CAST(? AS xid8))
+                    """, user.getId(), String.valueOf(xid));
+        }
+        for (long xid : xids.subList(1, 3)) {
+            jdbcTemplate.update("""
+                    INSERT INTO transaction_tombstones (transaction_id, user_id, deleted_xid)
+                    VALUES (nextval('transactions_id_seq'), ?, CAST(? AS xid8))
+                    """, user.getId(), String.valueOf(xid));
+        }
+        String since = "9999999990:9999999990:";
+        String until = "10000000010:10000000010:";
+
+        List<TransactionSyncRepository.Change> changes = new ArrayList<>();
+        List<TransactionSyncRepository.Change> page;
+        do {
+            TransactionSyncRepository.Change last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+            page = syncRepository.findChanges(user.getId(), since, until,
+                    last == null ? null : last.xid(), last == null ? null : last.id(), 2);
+            changes.addAll(page);
+        } while (page.size() == 2);
+
+        assertThat(changes).hasSize(6);
+        assertThat(changes).extracting(change -> new BigInteger(change.xid())).isSorted();
+        assertThat(changes).extracting(TransactionSyncRepository.Change::xid).containsExactly(
+                "9999999998", "9999999999", "9999999999", "10000000000", "10000000000", "10000000001");
+    }
+
+    @Test
+    void rejectsMalformedTokens() throws Exception {
+        mvc.perform(get("/api/transactions/changes?since=not-a-token").with(signedIn()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mvc.perform(request.with(signedIn()))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return body.startsWith("{") ? objectMapper.readTree(body) : null;
+    }
+
+    private RequestPostProcessor signedIn() {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
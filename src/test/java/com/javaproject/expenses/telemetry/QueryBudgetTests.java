@@ -0,0 +1,265 @@
+package com.javaproject.expenses.telemetry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaproject.expenses.feed.ChangeFeedHub;
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import com.javaproject.expenses.security.TokenVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.javaproject.expenses.telemetry.QueryBudgets.withinQueryBudget;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every endpoint as a user with enough transactions that a per-row query would blow the
+ * handler's {@link QueryBudget}. The per-node sign-in check is warmed first and kept for the whole
+ * test, so that a budget covers the handler's own statements. Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {
+        "expenses.telemetry.sql-count-header=true",
+        "expenses.auth.token-version-ttl=1h"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+    private static final int TRANSACTIONS = 40;
+    private static final String PASSWORD = "budget-password";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChangeFeedHub changeFeedHub;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private User user;
+    private List<Long> transactionIds;
+
+    @BeforeEach
+    void createUserWithTransactions() {
+        user = userRepository.save(User.builder()
+                .name("Budget User")
+                .email("budget-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (user_id, category_id, amount, description, transaction_date) VALUES (?, ?, ?, ?, ?)",
+                IntStream.range(0, TRANSACTIONS).mapToObj(i -> new Object[]{
+                        user.getId(), 1 + i % 8, 10 + i, "Budget " + i, start.plusDays(i * 9L)
+                }).toList());
+        transactionIds = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE user_id = ? ORDER BY id", Long.class, user.getId());
+        tokenVersions.isRevoked(user.getId());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void everyHandlerDeclaresABudget() {
+        List<String> missing = handlerMapping.getHandlerMethods().values().stream()
+                .filter(handler -> handler.getBeanType().getPackageName().equals("com.javaproject.expenses.controllers"))
+                .filter(handler -> !handler.hasMethodAnnotation(QueryBudget.class))
+                .map(HandlerMethod::getShortLogMessage)
+                .toList();
+
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    void transactionReads() throws Exception {
+        perform(get("/api/transactions?limit=50"), status().isOk());
+        perform(get("/api/transactions?type=EXPENSE&categoryId=5,6,7&sort=amount_desc"), status().isOk());
+        perform(get("/api/transactions/search?q=budget&type=EXPENSE&limit=5"), status().isOk());
+        perform(get("/api/transactions?stream=true"), status().isOk());
+        perform(get("/api/transactions/export?format=ndjson"), status().isOk());
+        perform(get("/api/transactions/" + transactionIds.get(0)), status().isOk());
+    }
+
+    @Test
+    void transactionChanges() throws Exception {
+        String since = objectMapper.readTree(perform(get("/api/transactions/changes"), status().isOk())
+                .getResponse().getContentAsString()).get("next").asText();
+        perform(patch("/api/transactions/" + transactionIds.get(0)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":1.00}"), status().isOk());
+        perform(delete("/api/transactions/" + transactionIds.get(1)), status().isOk());
+        perform(get("/api/transactions/changes?since=" + since), status().isOk());
+        perform(get("/api/transactions/changes?limit=1&since=" + since), status().isOk());
+    }
+
+    @Test
+    void unchangedPollsIssueNoSql() throws Exception {
+        for (String uri : List.of("/api/transactions?limit=50", "/api/transactions/" + transactionIds.get(0))) {
+            String etag = perform(get(uri), status().isOk()).getResponse().getHeader(HttpHeaders.ETAG);
+            MvcResult poll = perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag), status().isNotModified());
+            assertThat(poll.getResponse().getHeader(SqlCountHeaderFilter.HEADER)).isEqualTo("0");
+        }
+
+        perform(delete("/api/transactions/" + transactionIds.get(1)), status().isOk());
+        String stale = "W/\"" + user.getId() + ".0\"";
+        perform(get("/api/transactions?limit=50").header(HttpHeaders.IF_NONE_MATCH, stale), status().isOk());
+    }
+
+    @Test
+    void changeFeed() throws Exception {
+        // The feed stays open until the server ends it
+        MvcResult started = mvc.perform(get("/api/transactions/stream").header("Last-Event-ID", "0")
+                .with(signedIn())).andReturn();
+        changeFeedHub.disconnectAll();
+        MvcResult result = mvc.perform(asyncDispatch(started)).andReturn();
+        status().isOk().match(result);
+        withinQueryBudget().match(result);
+    }
+
+    @Test
+    void transactionWrites() throws Exception {
+        Long id = transactionIds.get(0);
+        perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryId\":7,\"amount\":12.50,\"description\":\"Lunch\"}"),
+                status().isCreated());
+        perform(patch("/api/transactions/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryId\":8,\"amount\":99.99,\"transactionDate\":\"2025-06-01T10:00:00\"}"),
+                status().isOk());
+        perform(delete("/api/transactions/" + id), status().isOk());
+        perform(post("/api/transactions/import").contentType("text/csv")
+                .content("categoryId,amount,description\n7,1.00,a\n8,2.00,b\n5,3.00,c\n"), status().isOk());
+    }
+
+    @Test
+    void transactionBatch() throws Exception {
+        String operations = IntStream.range(0, TRANSACTIONS).mapToObj(i -> switch (i % 3) {
+            case 0 -> "{\"op\":\"create\",\"transaction\":{\"categoryId\":" + (8 + i % 5)
+                    + ",\"amount\":" + (5 + i) + ",\"description\":\"Batch " + i + "\"}}";
+            case 1 -> "{\"op\":\"update\",\"id\":" + transactionIds.get(i)
+                    + ",\"transaction\":{\"amount\":" + (100 + i) + "}}";
+            default -> "{\"op\":\"delete\",\"id\":" + transactionIds.get(i) + "}";
+        }).collect(Collectors.joining(","));
+        perform(post("/api/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operations\":[" + operations + "]}"), status().isOk());
+    }
+
+    @Test
+    void recurringTransactions() throws Exception {
+        String created = perform(post("/api/transactions/recurring").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryId\":8,\"amount\":15.99,\"description\":\"Streaming\",\"frequency\":\"monthly\"}"),
+                status().isCreated()).getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        perform(get("/api/transactions/recurring"), status().isOk());
+        perform(get("/api/transactions/recurring/" + id), status().isOk());
+        perform(patch("/api/transactions/recurring/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":17.99,\"endDate\":\"2030-01-01T00:00:00\"}"), status().isOk());
+        perform(delete("/api/transactions/recurring/" + id), status().isOk());
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        perform(get("/api/users/me"), status().isOk());
+        perform(get("/api/users/me/balance"), status().isOk());
+        perform(put("/api/users/me").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed User\",\"password\":\"another-password\"}"), status().isOk());
+        String job = perform(delete("/api/users/me"), status().isAccepted()).getResponse().getHeader("Location");
+        performAnonymous(get(job), status().isOk());
+    }
+
+    @Test
+    void categoryEndpoints() throws Exception {
+        perform(get("/api/categories"), status().isOk());
+        perform(get("/api/categories/1"), status().isOk());
+    }
+
+    @Test
+    void summaryEndpoints() throws Exception {
+        perform(get("/api/summary/monthly"), status().isOk());
+        perform(get("/api/summary/categories?from=2025-01&to=2025-12"), status().isOk());
+        perform(get("/api/summary/types"), status().isOk());
+        perform(get("/api/summary/net"), status().isOk());
+    }
+
+    @Test
+    void authEndpoints() throws Exception {
+        String email = "budget-" + UUID.randomUUID() + "@example.com";
+        try {
+            performAnonymous(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"New User\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"),
+                    status().isOk());
+        } finally {
+            jdbcTemplate.update("DELETE FROM users WHERE email = ?", email);
+        }
+        performAnonymous(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"),
+                status().isOk());
+        perform(get("/api/auth/me"), status().isOk());
+        perform(post("/api/auth/logout"), status().isOk());
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        return performAnonymous(request.with(signedIn()), expectedStatus);
+    }
+
+    /**
+     * Performs the request, completes it if the handler went async, and checks status and query budget.
+     */
+    private MvcResult performAnonymous(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus)
+            throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        expectedStatus.match(result);
+        withinQueryBudget().match(result);
+        return result;
+    }
+
+    private RequestPostProcessor signedIn() {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
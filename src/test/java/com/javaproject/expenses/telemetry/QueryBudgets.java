@@ -0,0 +1,37 @@
+package com.javaproject.expenses.telemetry;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matcher that fails when a request issued more SQL statements than its handler's
+ * {@link QueryBudget}. Needs {@code expenses.telemetry.sql-count-header=true} so that the
+ * count is reported, and the final result of an async request ({@code asyncDispatch}).
+ */
+public final class QueryBudgets {
+
+    private QueryBudgets() {
+    }
+
+    public static ResultMatcher withinQueryBudget() {
+        return QueryBudgets::check;
+    }
+
+    private static void check(MvcResult result) {
+        assertThat(result.getHandler()).as("handler of %s", result.getRequest().getRequestURI())
+                .isInstanceOf(HandlerMethod.class);
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        assertThat(budget).as("@QueryBudget on %s", name).isNotNull();
+
+        String header = result.getResponse().getHeader(SqlCountHeaderFilter.HEADER);
+        assertThat(header).as("%s header from %s", SqlCountHeaderFilter.HEADER, name).isNotNull();
+        assertThat(Integer.parseInt(header)).as("SQL statements issued by %s", name)
+                .isLessThanOrEqualTo(budget.value());
+    }
+}
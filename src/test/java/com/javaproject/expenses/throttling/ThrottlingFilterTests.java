@@ -0,0 +1,167 @@
+package com.javaproject.expenses.throttling;
+
+import com.javaproject.expenses.models.User;
+import com.javaproject.expenses.repositories.UserRepository;
+import com.javaproject.expenses.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Sends requests through the security filter chain with two tokens per hour on sign-in and on
+ * writes, and checks who is refused, how, and that refused or handed-off requests hold no
+ * bulkhead permit. Needs the database from application.properties.
+ */
+@SpringBootTest(properties = {
+        "expenses.rate-limit.routes[0].pattern=/api/auth/**",
+        "expenses.rate-limit.routes[0].methods=POST",
+        "expenses.rate-limit.routes[0].capacity=2",
+        "expenses.rate-limit.routes[0].period=1h",
+        "expenses.rate-limit.routes[1].pattern=/api/**",
+        "expenses.rate-limit.routes[1].methods=POST,PUT,PATCH,DELETE",
+        "expenses.rate-limit.routes[1].capacity=2",
+        "expenses.rate-limit.routes[1].period=1h"
+})
+@AutoConfigureMockMvc
+class ThrottlingFilterTests {
+
+    private static final String PASSWORD = "throttle-password";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RequestThrottle requestThrottle;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User otherUser;
+
+    @BeforeEach
+    void createUsers() {
+        user = createUser();
+        otherUser = createUser();
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", user.getId(), otherUser.getId());
+    }
+
+    @Test
+    void refusesAUserWithRetryAfterOnceTheirBucketIsEmpty() throws Exception {
+        String address = address();
+        assertThat(perform(delete("/api/transactions/0").with(signedIn(user)), address).getResponse().getStatus())
+                .isEqualTo(404);
+        assertThat(perform(delete("/api/transactions/0").with(signedIn(user)), address).getResponse().getStatus())
+                .isEqualTo(404);
+
+        MvcResult refused = perform(delete("/api/transactions/0").with(signedIn(user)), address);
+        assertThat(refused.getResponse().getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(refused.getResponse().getHeader(HttpHeaders.RETRY_AFTER))).isBetween(1L, 3600L);
+
+        // Writes are keyed by user: another user at the same address, and reads, still pass
+        assertThat(perform(delete("/api/transactions/0").with(signedIn(otherUser)), address).getResponse().getStatus())
+                .isEqualTo(404);
+        assertThat(perform(get("/api/users/me").with(signedIn(user)), address).getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void keysSignInByClientAddressEvenForSignedInUsers() throws Exception {
+        String address = address();
+        assertThat(perform(login(), address).getResponse().getStatus()).isEqualTo(200);
+        assertThat(perform(login().with(signedIn(otherUser)), address).getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(perform(login().with(signedIn(user)), address).getResponse().getStatus()).isEqualTo(429);
+        assertThat(perform(login(), address()).getResponse().getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void takesNoTokenForRequestsAuthorizationRefuses() throws Exception {
+        String address = address();
+        for (int i = 0; i < 5; i++) {
+            assertThat(perform(delete("/api/transactions/0"), address).getResponse().getStatus()).isEqualTo(401);
+        }
+        assertThat(requestThrottle.bulkheads().get(RequestThrottle.RequestClass.WRITE).active()).isZero();
+    }
+
+    @Test
+    void releasesTheBulkheadPermitWhenSignInHandsOff() throws Exception {
+        Bulkhead auth = requestThrottle.bulkheads().get(RequestThrottle.RequestClass.AUTH);
+
+        MvcResult started = mvc.perform(login().with(from(address()))).andReturn();
+        assertThat(started.getRequest().isAsyncStarted()).isTrue();
+        assertThat(auth.active()).isZero();
+
+        assertThat(mvc.perform(asyncDispatch(started)).andReturn().getResponse().getStatus()).isEqualTo(200);
+        assertThat(auth.active()).isZero();
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                .name("Throttled User")
+                .email("throttled-" + UUID.randomUUID() + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .build());
+    }
+
+    private MockHttpServletRequestBuilder login() {
+        return post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, String address) throws Exception {
+        MvcResult result = mvc.perform(request.with(from(address))).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+
+    /**
+     * A client address of its own, so that buckets left by other tests do not interfere.
+     */
+    private static String address() {
+        UUID random = UUID.randomUUID();
+        return "10." + (random.getMostSignificantBits() & 0xff) + "." + (random.getLeastSignificantBits() & 0xff)
+                + "." + ((random.getLeastSignificantBits() >>> 8) & 0xff);
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static RequestPostProcessor signedIn(User user) {
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(
+                AuthenticatedUser.of(user), null, user.getAuthorities()));
+    }
+}
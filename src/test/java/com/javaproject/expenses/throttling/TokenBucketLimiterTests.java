@@ -0,0 +1,72 @@
+package com.javaproject.expenses.throttling;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the limiter with a manual clock.
+ */
+class TokenBucketLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void allowsABurstThenRefillsEvenly() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(3), 4, 100, clock::get);
+
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isEqualTo(Duration.ofSeconds(1).toNanos());
+
+        clock.addAndGet(Duration.ofMillis(400).toNanos());
+        assertThat(limiter.tryAcquire(1L)).isEqualTo(Duration.ofMillis(600).toNanos());
+
+        clock.addAndGet(Duration.ofMillis(600).toNanos());
+        assertThat(limiter.tryAcquire(1L)).isZero();
+        assertThat(limiter.tryAcquire(1L)).isPositive();
+        assertThat(limiter.rejectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void refillsNoFurtherThanCapacity() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(1), 1, 100, clock::get);
+        limiter.tryAcquire("10.0.0.1");
+
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void keepsSeparateBucketsPerKey() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMinutes(1), 8, 1000, clock::get);
+
+        for (long user = 0; user < 50; user++) {
+            assertThat(limiter.tryAcquire(user)).isZero();
+        }
+        for (long user = 0; user < 50; user++) {
+            assertThat(limiter.tryAcquire(user)).isPositive();
+        }
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.trackedKeys()).isEqualTo(51);
+    }
+
+    @Test
+    void forgetsLeastRecentlyUsedKeysBeyondMaxKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMinutes(1), 1, 2, clock::get);
+        limiter.tryAcquire(1L);
+        limiter.tryAcquire(2L);
+        limiter.tryAcquire(1L);
+
+        limiter.tryAcquire(3L);
+
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+        assertThat(limiter.tryAcquire(1L)).isPositive();
+        assertThat(limiter.tryAcquire(2L)).isZero();
+    }
+}